@@ -0,0 +1,30 @@
+package com.fruitwarehouse.common.cache;
+
+import com.fruitwarehouse.common.cache.dto.DeliveryStatusSnapshot;
+import com.fruitwarehouse.common.cache.dto.ProductSnapshot;
+import com.fruitwarehouse.common.cache.dto.ProductTypeSnapshot;
+import com.fruitwarehouse.common.cache.dto.SupplierSnapshot;
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.product.entity.ProductType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Кэш редко изменяемых справочников: статусы доставок, типы продуктов, продукты и поставщики.
+ * Отдаёт неизменяемые снимки, а для записи связей — JPA-ссылки без обращения к БД.
+ */
+public interface ReferenceDataCache {
+	DeliveryStatusSnapshot getStatus(DeliveryStatus.Code code);
+	DeliveryStatusSnapshot getStatus(Long id);
+	ProductTypeSnapshot getProductType(ProductType.Code code);
+	ProductTypeSnapshot getProductType(Long id);
+	Optional<SupplierSnapshot> findSupplier(Long id);
+	Map<Long, SupplierSnapshot> findSuppliers(Collection<Long> ids);
+	Map<Long, ProductSnapshot> findProducts(Collection<Long> ids);
+	<T> T reference(Class<T> entityType, Long id);
+	void reload();
+	void evictSupplier(Long id);
+	void evictProduct(Long id);
+}
@@ -0,0 +1,10 @@
+package com.fruitwarehouse.common.cache;
+
+/**
+ * Сигнал об изменении справочной записи. Кэш сбрасывает запись после коммита транзакции,
+ * в которой событие опубликовано.
+ */
+public record ReferenceDataChangedEvent(
+		Class<?> entityType,
+		Long id
+) {}
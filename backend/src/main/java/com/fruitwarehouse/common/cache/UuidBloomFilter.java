@@ -0,0 +1,103 @@
+package com.fruitwarehouse.common.cache;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для недавно встречавшихся UUID с ограниченным объёмом памяти.
+ * Держит два поколения: когда текущее заполняется, предыдущее отбрасывается,
+ * поэтому ключ гарантированно помнится как минимум {@code capacity} вставок.
+ * Отрицательный ответ точен только для этого окна: более старые ключи фильтр «забывает».
+ */
+public class UuidBloomFilter {
+
+	private final int capacity;
+	private final int bitCount;
+	private final int hashCount;
+
+	private volatile Generation current;
+	private volatile Generation previous;
+
+	public UuidBloomFilter(int capacity, double falsePositiveRate) {
+		if (capacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("Capacity must be positive and false positive rate within (0, 1)");
+		}
+		this.capacity = capacity;
+		// Стандартные оценки: m = -n ln p / (ln 2)^2, k = m / n * ln 2
+		this.bitCount = (int) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+		this.current = new Generation(bitCount);
+		this.previous = new Generation(bitCount);
+	}
+
+	public boolean mightContain(UUID key) {
+		long h1 = mix(key.getMostSignificantBits());
+		long h2 = mix(key.getLeastSignificantBits());
+		return current.mightContain(h1, h2) || previous.mightContain(h1, h2);
+	}
+
+	public void put(UUID key) {
+		long h1 = mix(key.getMostSignificantBits());
+		long h2 = mix(key.getLeastSignificantBits());
+		Generation generation = current;
+		generation.put(h1, h2);
+		if (generation.insertions() >= capacity) {
+			rotate(generation);
+		}
+	}
+
+	private synchronized void rotate(Generation full) {
+		if (current == full) {
+			previous = full;
+			current = new Generation(bitCount);
+		}
+	}
+
+	// Финализатор MurmurHash3: UUID v4 и v7 содержат неслучайные биты версии и времени
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xff51afd7ed558ccdL;
+		value ^= value >>> 33;
+		value *= 0xc4ceb9fe1a85ec53L;
+		value ^= value >>> 33;
+		return value;
+	}
+
+	private final class Generation {
+
+		private final AtomicLongArray words;
+		private volatile int insertions;
+
+		private Generation(int bits) {
+			this.words = new AtomicLongArray((bits + 63) / 64);
+		}
+
+		private boolean mightContain(long h1, long h2) {
+			for (int i = 0; i < hashCount; i++) {
+				int bit = index(h1, h2, i);
+				if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void put(long h1, long h2) {
+			for (int i = 0; i < hashCount; i++) {
+				int bit = index(h1, h2, i);
+				long mask = 1L << bit;
+				words.getAndUpdate(bit >>> 6, word -> word | mask);
+			}
+			// Счётчик приблизительный: гонка лишь немного сдвигает момент ротации
+			insertions++;
+		}
+
+		private int insertions() {
+			return insertions;
+		}
+
+		private int index(long h1, long h2, int i) {
+			return (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package com.fruitwarehouse.common.cache.dto;
+
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+
+public record DeliveryStatusSnapshot(
+		Long id,
+		DeliveryStatus.Code code,
+		String name
+) {}
@@ -0,0 +1,9 @@
+package com.fruitwarehouse.common.cache.dto;
+
+public record ProductSnapshot(
+		Long id,
+		String name,
+		Long productTypeId,
+		String productTypeName,
+		String varietyName
+) {}
@@ -0,0 +1,9 @@
+package com.fruitwarehouse.common.cache.dto;
+
+import com.fruitwarehouse.product.entity.ProductType;
+
+public record ProductTypeSnapshot(
+		Long id,
+		ProductType.Code code,
+		String name
+) {}
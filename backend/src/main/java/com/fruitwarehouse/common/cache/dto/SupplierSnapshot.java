@@ -0,0 +1,6 @@
+package com.fruitwarehouse.common.cache.dto;
+
+public record SupplierSnapshot(
+		Long id,
+		String name
+) {}
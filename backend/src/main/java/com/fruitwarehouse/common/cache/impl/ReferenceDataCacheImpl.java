@@ -0,0 +1,225 @@
+package com.fruitwarehouse.common.cache.impl;
+
+import com.fruitwarehouse.common.cache.ReferenceDataCache;
+import com.fruitwarehouse.common.cache.ReferenceDataChangedEvent;
+import com.fruitwarehouse.common.cache.dto.DeliveryStatusSnapshot;
+import com.fruitwarehouse.common.cache.dto.ProductSnapshot;
+import com.fruitwarehouse.common.cache.dto.ProductTypeSnapshot;
+import com.fruitwarehouse.common.cache.dto.SupplierSnapshot;
+import com.fruitwarehouse.common.datasource.ReplicaReads;
+import com.fruitwarehouse.common.exception.ValidationException;
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.repository.DeliveryStatusRepository;
+import com.fruitwarehouse.product.entity.Product;
+import com.fruitwarehouse.product.entity.ProductType;
+import com.fruitwarehouse.product.repository.ProductRepository;
+import com.fruitwarehouse.product.repository.ProductTypeRepository;
+import com.fruitwarehouse.supplier.entity.Supplier;
+import com.fruitwarehouse.supplier.repository.SupplierRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCacheImpl implements ReferenceDataCache {
+
+	private final DeliveryStatusRepository deliveryStatusRepository;
+	private final ProductTypeRepository productTypeRepository;
+	private final ProductRepository productRepository;
+	private final SupplierRepository supplierRepository;
+	private final EntityManager entityManager;
+
+	// Статусы и типы продуктов неизменны между перезагрузками и заменяются целиком
+	private volatile Map<DeliveryStatus.Code, DeliveryStatusSnapshot> statusesByCode = Map.of();
+	private volatile Map<Long, DeliveryStatusSnapshot> statusesById = Map.of();
+	private volatile Map<ProductType.Code, ProductTypeSnapshot> productTypesByCode = Map.of();
+	private volatile Map<Long, ProductTypeSnapshot> productTypesById = Map.of();
+
+	// Продукты и поставщики догружаются по промаху и сбрасываются точечно
+	private final Map<Long, ProductSnapshot> products = new ConcurrentHashMap<>();
+	private final Map<Long, SupplierSnapshot> suppliers = new ConcurrentHashMap<>();
+
+	@Override
+	public DeliveryStatusSnapshot getStatus(DeliveryStatus.Code code) {
+		DeliveryStatusSnapshot status = loadedStatuses().get(code);
+		if (status == null) {
+			throw new ValidationException(String.format("Delivery status with code %s not found", code));
+		}
+		return status;
+	}
+
+	@Override
+	public DeliveryStatusSnapshot getStatus(Long id) {
+		loadedStatuses();
+		DeliveryStatusSnapshot status = statusesById.get(id);
+		if (status == null) {
+			throw new ValidationException(String.format("Delivery status with id %d not found", id));
+		}
+		return status;
+	}
+
+	@Override
+	public ProductTypeSnapshot getProductType(ProductType.Code code) {
+		ProductTypeSnapshot productType = loadedProductTypes().get(code);
+		if (productType == null) {
+			throw new ValidationException(String.format("Product type with code %s not found", code));
+		}
+		return productType;
+	}
+
+	@Override
+	public ProductTypeSnapshot getProductType(Long id) {
+		loadedProductTypes();
+		ProductTypeSnapshot productType = productTypesById.get(id);
+		if (productType == null) {
+			throw new ValidationException(String.format("Product type with id %d not found", id));
+		}
+		return productType;
+	}
+
+	@Override
+	public Optional<SupplierSnapshot> findSupplier(Long id) {
+		return Optional.ofNullable(findSuppliers(List.of(id)).get(id));
+	}
+
+	@Override
+	public Map<Long, SupplierSnapshot> findSuppliers(Collection<Long> ids) {
+		return resolve(ids, suppliers, missing -> supplierRepository.findAllById(missing).stream()
+				.map(ReferenceDataCacheImpl::toSnapshot)
+				.toList(), SupplierSnapshot::id);
+	}
+
+	@Override
+	public Map<Long, ProductSnapshot> findProducts(Collection<Long> ids) {
+		return resolve(ids, products, missing -> productRepository.findAllWithProductTypeByIdIn(missing).stream()
+				.map(ReferenceDataCacheImpl::toSnapshot)
+				.toList(), ProductSnapshot::id);
+	}
+
+	@Override
+	public <T> T reference(Class<T> entityType, Long id) {
+		return entityManager.getReference(entityType, id);
+	}
+
+	@Override
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${fruitwarehouse.reference-data.refresh-interval}",
+			initialDelayString = "${fruitwarehouse.reference-data.refresh-interval}")
+	public synchronized void reload() {
+		ReplicaReads.runOnPrimary(this::loadAll);
+	}
+
+	private void loadAll() {
+		List<DeliveryStatusSnapshot> statuses = deliveryStatusRepository.findAll().stream()
+				.map(s -> new DeliveryStatusSnapshot(s.getId(), s.getCode(), s.getName()))
+				.toList();
+		statusesById = statuses.stream().collect(Collectors.toUnmodifiableMap(DeliveryStatusSnapshot::id, Function.identity()));
+		statusesByCode = statuses.stream().collect(Collectors.toUnmodifiableMap(DeliveryStatusSnapshot::code, Function.identity()));
+
+		List<ProductTypeSnapshot> productTypes = productTypeRepository.findAll().stream()
+				.map(t -> new ProductTypeSnapshot(t.getId(), t.getCode(), t.getName()))
+				.toList();
+		productTypesById = productTypes.stream().collect(Collectors.toUnmodifiableMap(ProductTypeSnapshot::id, Function.identity()));
+		productTypesByCode = productTypes.stream().collect(Collectors.toUnmodifiableMap(ProductTypeSnapshot::code, Function.identity()));
+
+		Map<Long, ProductSnapshot> loadedProducts = productRepository.findAllWithProductType().stream()
+				.map(ReferenceDataCacheImpl::toSnapshot)
+				.collect(Collectors.toMap(ProductSnapshot::id, Function.identity()));
+		products.keySet().retainAll(loadedProducts.keySet());
+		products.putAll(loadedProducts);
+
+		Map<Long, SupplierSnapshot> loadedSuppliers = supplierRepository.findAll().stream()
+				.map(ReferenceDataCacheImpl::toSnapshot)
+				.collect(Collectors.toMap(SupplierSnapshot::id, Function.identity()));
+		suppliers.keySet().retainAll(loadedSuppliers.keySet());
+		suppliers.putAll(loadedSuppliers);
+
+		log.info("Reference data loaded: {} statuses, {} product types, {} products, {} suppliers",
+				statuses.size(), productTypes.size(), loadedProducts.size(), loadedSuppliers.size());
+	}
+
+	@Override
+	public void evictSupplier(Long id) {
+		suppliers.remove(id);
+	}
+
+	@Override
+	public void evictProduct(Long id) {
+		products.remove(id);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+		if (Supplier.class.equals(event.entityType())) {
+			evictSupplier(event.id());
+		} else if (Product.class.equals(event.entityType())) {
+			evictProduct(event.id());
+		} else {
+			reload();
+		}
+	}
+
+	private Map<DeliveryStatus.Code, DeliveryStatusSnapshot> loadedStatuses() {
+		if (statusesByCode.isEmpty()) {
+			reload();
+		}
+		return statusesByCode;
+	}
+
+	private Map<ProductType.Code, ProductTypeSnapshot> loadedProductTypes() {
+		if (productTypesByCode.isEmpty()) {
+			reload();
+		}
+		return productTypesByCode;
+	}
+
+	private static <T> Map<Long, T> resolve(Collection<Long> ids, Map<Long, T> cache,
+											Function<Collection<Long>, List<T>> loader,
+											Function<T, Long> idExtractor) {
+		Map<Long, T> result = new HashMap<>();
+		List<Long> missing = ids.stream()
+				.filter(id -> {
+					T cached = cache.get(id);
+					if (cached != null) {
+						result.put(id, cached);
+						return false;
+					}
+					return true;
+				})
+				.toList();
+
+		if (!missing.isEmpty()) {
+			// Промах часто следует за сбросом по событию: реплика могла ещё не получить изменение
+			for (T loaded : ReplicaReads.fromPrimary(() -> loader.apply(missing))) {
+				cache.put(idExtractor.apply(loaded), loaded);
+				result.put(idExtractor.apply(loaded), loaded);
+			}
+		}
+		return result;
+	}
+
+	private static ProductSnapshot toSnapshot(Product product) {
+		return new ProductSnapshot(product.getId(), product.getName(),
+				product.getProductType().getId(), product.getProductType().getName(), product.getVarietyName());
+	}
+
+	private static SupplierSnapshot toSnapshot(Supplier supplier) {
+		return new SupplierSnapshot(supplier.getId(), supplier.getName());
+	}
+}
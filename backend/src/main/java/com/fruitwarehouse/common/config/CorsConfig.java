@@ -13,6 +13,7 @@ public class CorsConfig implements WebMvcConfigurer {
 				.allowedOrigins("http://localhost:4000", "http://localhost:4002")
 				.allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")
 				.allowedHeaders("*")
+				.exposedHeaders("Idempotent-Replayed", "Location", "Retry-After", "Link", "X-SQL-Statement-Count")
 				.allowCredentials(true)
 				.maxAge(3600);
 	}
@@ -0,0 +1,85 @@
+package com.fruitwarehouse.common.config;
+
+import com.fruitwarehouse.common.datasource.ReadReplica;
+import com.fruitwarehouse.common.datasource.ReadReplicas;
+import com.fruitwarehouse.common.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Основная БД и реплики вместо автоконфигурированного пула. Пулы реплик настраиваются так же,
+ * как основной ({@code spring.datasource.hikari}), с теми же учётными данными, но с коротким
+ * ожиданием соединения: недоступная реплика должна быстро уступить чтение основной БД.
+ * Бином остаётся один {@link DataSource}, поэтому подсчёт SQL-запросов оборачивает только его.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fruitwarehouse.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+	@Bean(destroyMethod = "close")
+	public ReadReplicas readReplicas(
+			DataSourceProperties dataSourceProperties,
+			Environment environment,
+			MeterRegistry meterRegistry,
+			@Value("${fruitwarehouse.read-replicas.urls}") List<String> urls,
+			@Value("${fruitwarehouse.read-replicas.max-lag}") Duration maxLag,
+			@Value("${fruitwarehouse.read-replicas.connection-timeout}") Duration connectionTimeout) {
+		List<String> replicaUrls = urls.stream().map(String::strip).filter(url -> !url.isEmpty()).toList();
+		if (replicaUrls.isEmpty()) {
+			throw new IllegalArgumentException("fruitwarehouse.read-replicas.urls must list at least one replica");
+		}
+
+		List<ReadReplica> replicas = new ArrayList<>();
+		for (int i = 0; i < replicaUrls.size(); i++) {
+			HikariDataSource pool = pool(dataSourceProperties, environment, meterRegistry,
+					replicaUrls.get(i), "replica-" + (i + 1));
+			pool.setConnectionTimeout(connectionTimeout.toMillis());
+			replicas.add(new ReadReplica(pool.getPoolName(), pool));
+		}
+		return new ReadReplicas(replicas, maxLag);
+	}
+
+	@Bean
+	public DataSource dataSource(
+			DataSourceProperties dataSourceProperties,
+			Environment environment,
+			MeterRegistry meterRegistry,
+			ReadReplicas readReplicas,
+			@Value("${fruitwarehouse.read-replicas.read-your-writes}") boolean readYourWrites) {
+		HikariDataSource primary = pool(dataSourceProperties, environment, meterRegistry,
+				dataSourceProperties.determineUrl(), "primary");
+
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, readReplicas, readYourWrites,
+				meterRegistry);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	private static HikariDataSource pool(DataSourceProperties dataSourceProperties, Environment environment,
+										 MeterRegistry meterRegistry, String url, String poolName) {
+		HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.url(url)
+				.build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName(poolName);
+		// Автоконфигурация метрик не дотягивается до пулов за маршрутизатором
+		pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		return pool;
+	}
+}
@@ -0,0 +1,46 @@
+package com.fruitwarehouse.common.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Реплика и её последнее измеренное отставание. До первой проверки и после неудачной
+ * отставание неизвестно, и реплика не используется.
+ */
+public class ReadReplica {
+
+	private final String name;
+	private final DataSource dataSource;
+
+	private volatile Duration lag;
+
+	public ReadReplica(String name, DataSource dataSource) {
+		this.name = name;
+		this.dataSource = dataSource;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	public Duration getLag() {
+		return lag;
+	}
+
+	public void updateLag(Duration lag) {
+		this.lag = lag;
+	}
+
+	public void markUnavailable() {
+		this.lag = null;
+	}
+
+	boolean isUsable(Duration maxLag) {
+		Duration current = lag;
+		return current != null && current.compareTo(maxLag) <= 0;
+	}
+}
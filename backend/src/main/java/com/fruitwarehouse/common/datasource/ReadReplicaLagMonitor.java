@@ -0,0 +1,87 @@
+package com.fruitwarehouse.common.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Измеряет отставание реплик. Реплика, применившая всё полученное WAL, считается догнавшей:
+ * время последней применённой транзакции на простаивающей основной БД не меняется, и по нему
+ * отставание росло бы без записей. После перезапуска реплика применяет WAL из своего каталога
+ * раньше, чем получает новое, поэтому позиция применения может обгонять позицию получения.
+ * Реплика без потока WAL от основной БД не используется — её данные могут устареть незаметно
+ * для этой оценки.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fruitwarehouse.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaLagMonitor {
+
+	private static final String LAG_SQL = """
+			SELECT
+				pg_is_in_recovery() AND NOT EXISTS (
+					SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming'
+				) AS disconnected,
+				CASE
+					WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() THEN 0
+					ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+				END AS lag_millis
+			""";
+
+	private final ReadReplicas readReplicas;
+
+	public ReadReplicaLagMonitor(ReadReplicas readReplicas, MeterRegistry meterRegistry) {
+		this.readReplicas = readReplicas;
+		for (ReadReplica replica : readReplicas.getReplicas()) {
+			Gauge.builder("datasource.replica.lag", replica,
+							r -> r.getLag() != null ? r.getLag().toMillis() / 1000.0 : Double.NaN)
+					.tag("replica", replica.getName())
+					.baseUnit("seconds")
+					.description("Replication lag of the read replica, NaN while it is unavailable")
+					.register(meterRegistry);
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${fruitwarehouse.read-replicas.lag-check-interval}",
+			initialDelayString = "${fruitwarehouse.read-replicas.lag-check-interval}")
+	public void checkLag() {
+		for (ReadReplica replica : readReplicas.getReplicas()) {
+			boolean wasUsable = replica.isUsable(readReplicas.getMaxLag());
+			try {
+				Duration lag = new JdbcTemplate(replica.getDataSource()).queryForObject(LAG_SQL, (rs, rowNum) -> {
+					boolean disconnected = rs.getBoolean("disconnected");
+					double lagMillis = rs.getDouble("lag_millis");
+					return disconnected || rs.wasNull() ? null : Duration.ofMillis((long) lagMillis);
+				});
+				if (lag == null) {
+					replica.markUnavailable();
+				} else {
+					replica.updateLag(lag);
+				}
+			} catch (DataAccessException e) {
+				replica.markUnavailable();
+				log.debug("Lag check of read replica {} failed", replica.getName(), e);
+			}
+
+			boolean usable = replica.isUsable(readReplicas.getMaxLag());
+			if (wasUsable && replica.getLag() == null) {
+				log.warn("Read replica {} excluded from reads: unreachable or not streaming", replica.getName());
+			} else if (wasUsable && !usable) {
+				log.warn("Read replica {} excluded from reads, lag {}, tolerated {}",
+						replica.getName(), replica.getLag(), readReplicas.getMaxLag());
+			} else if (!wasUsable && usable) {
+				log.info("Read replica {} serves reads, lag {}", replica.getName(), replica.getLag());
+			}
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.fruitwarehouse.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реплики для читающих транзакций. Запросы распределяются по кругу между репликами,
+ * отставание которых не больше {@code maxLag}; если таких нет, читает основная БД.
+ */
+@Slf4j
+public class ReadReplicas implements AutoCloseable {
+
+	private final List<ReadReplica> replicas;
+	private final Duration maxLag;
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReadReplicas(List<ReadReplica> replicas, Duration maxLag) {
+		this.replicas = List.copyOf(replicas);
+		this.maxLag = maxLag;
+	}
+
+	public List<ReadReplica> getReplicas() {
+		return replicas;
+	}
+
+	public Duration getMaxLag() {
+		return maxLag;
+	}
+
+	Optional<ReadReplica> choose() {
+		int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+		for (int i = 0; i < replicas.size(); i++) {
+			ReadReplica replica = replicas.get((start + i) % replicas.size());
+			if (replica.isUsable(maxLag)) {
+				return Optional.of(replica);
+			}
+		}
+		return Optional.empty();
+	}
+
+	Optional<ReadReplica> findByDataSource(DataSource dataSource) {
+		return replicas.stream()
+				.filter(replica -> replica.getDataSource() == dataSource)
+				.findFirst();
+	}
+
+	@Override
+	public void close() {
+		for (ReadReplica replica : replicas) {
+			if (replica.getDataSource() instanceof AutoCloseable closeable) {
+				try {
+					closeable.close();
+				} catch (Exception e) {
+					log.warn("Failed to close read replica {}: {}", replica.getName(), e.getMessage());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.fruitwarehouse.common.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Какие читающие транзакции нельзя отдавать реплике. Поток закрепляется за основной БД явно,
+ * через {@link #fromPrimary}, или записью в текущем HTTP-запросе: после неё запрос до конца
+ * читает с основной БД и видит свои изменения, даже если реплика отстаёт (read-your-writes).
+ */
+public final class ReplicaReads {
+
+	private static final String REQUEST_WROTE_ATTRIBUTE = ReplicaReads.class.getName() + ".REQUEST_WROTE";
+
+	private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+	private ReplicaReads() {
+	}
+
+	/**
+	 * Выполняет {@code action} с чтением из основной БД. Нужен там, где отставание реплики
+	 * не просто показывает старые данные, а теряет изменение: например, при перезагрузке кэша,
+	 * который уже получил событие об этом изменении.
+	 */
+	public static <T> T fromPrimary(Supplier<T> action) {
+		if (Boolean.TRUE.equals(PRIMARY_ONLY.get())) {
+			return action.get();
+		}
+
+		PRIMARY_ONLY.set(Boolean.TRUE);
+		try {
+			return action.get();
+		} finally {
+			PRIMARY_ONLY.remove();
+		}
+	}
+
+	public static void runOnPrimary(Runnable action) {
+		fromPrimary(() -> {
+			action.run();
+			return null;
+		});
+	}
+
+	static void requestWrote() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes != null) {
+			attributes.setAttribute(REQUEST_WROTE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+
+	static boolean primaryRequired(boolean readYourWrites) {
+		if (Boolean.TRUE.equals(PRIMARY_ONLY.get())) {
+			return true;
+		}
+		if (!readYourWrites) {
+			return false;
+		}
+
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		return attributes != null
+				&& attributes.getAttribute(REQUEST_WROTE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+	}
+}
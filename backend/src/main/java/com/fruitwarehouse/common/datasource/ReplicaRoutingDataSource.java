@@ -0,0 +1,98 @@
+package com.fruitwarehouse.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Отправляет транзакции {@code readOnly = true} на реплику, всё остальное — на основную БД.
+ * Флаг транзакции выставляется после того, как менеджер транзакций запросил соединение, поэтому
+ * источник работает только за {@link LazyConnectionDataSourceProxy}: тот берёт настоящее
+ * соединение при первом SQL-запросе. Реплика, не выдавшая соединение, исключается до следующей
+ * проверки отставания, а запрос переходит на основную БД.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	private static final String PRIMARY = "primary";
+
+	private final DataSource primary;
+	private final ReadReplicas readReplicas;
+	private final boolean readYourWrites;
+
+	private final Counter replicaReads;
+	private final Counter pinnedReads;
+	private final Counter fallbackReads;
+
+	public ReplicaRoutingDataSource(DataSource primary, ReadReplicas readReplicas, boolean readYourWrites,
+									MeterRegistry meterRegistry) {
+		this.primary = primary;
+		this.readReplicas = readReplicas;
+		this.readYourWrites = readYourWrites;
+		this.replicaReads = routeCounter(meterRegistry, "replica");
+		this.pinnedReads = routeCounter(meterRegistry, "primary_pinned");
+		this.fallbackReads = routeCounter(meterRegistry, "primary_fallback");
+
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		readReplicas.getReplicas().forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		setLenientFallback(false);
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (TransactionSynchronizationManager.isActualTransactionActive()) {
+				ReplicaReads.requestWrote();
+			}
+			return PRIMARY;
+		}
+
+		if (ReplicaReads.primaryRequired(readYourWrites)) {
+			pinnedReads.increment();
+			return PRIMARY;
+		}
+
+		return readReplicas.choose()
+				.map(replica -> {
+					replicaReads.increment();
+					return (Object) replica.getName();
+				})
+				.orElseGet(() -> {
+					fallbackReads.increment();
+					return PRIMARY;
+				});
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		DataSource target = determineTargetDataSource();
+		try {
+			return target.getConnection();
+		} catch (SQLException e) {
+			ReadReplica replica = readReplicas.findByDataSource(target).orElseThrow(() -> e);
+			log.warn("Read replica {} unavailable, reading from primary: {}", replica.getName(), e.getMessage());
+			replica.markUnavailable();
+			fallbackReads.increment();
+			return primary.getConnection();
+		}
+	}
+
+	private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+		return Counter.builder("datasource.read.routing")
+				.tag("route", route)
+				.description("Read-only transactions by the data source they were routed to")
+				.register(meterRegistry);
+	}
+}
@@ -0,0 +1,9 @@
+package com.fruitwarehouse.common.exception;
+
+import java.util.UUID;
+
+public class DeliveryNumberConflictException extends ValidationException {
+	public DeliveryNumberConflictException(UUID deliveryNumber) {
+		super("Delivery number " + deliveryNumber + " is already used by a delivery of another supplier");
+	}
+}
@@ -0,0 +1,17 @@
+package com.fruitwarehouse.common.exception;
+
+import java.time.Duration;
+
+public class DeliveryQueueFullException extends RuntimeException {
+
+	private final Duration retryAfter;
+
+	public DeliveryQueueFullException(Duration retryAfter) {
+		super("Delivery queue is full, retry later");
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
@@ -0,0 +1,9 @@
+package com.fruitwarehouse.common.exception;
+
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+
+public class DeliveryStatusTransitionException extends ValidationException {
+	public DeliveryStatusTransitionException(Long deliveryId, DeliveryStatus.Code from, DeliveryStatus.Code to) {
+		super(String.format("Delivery with id %d cannot change status from %s to %s", deliveryId, from, to));
+	}
+}
@@ -2,8 +2,11 @@ package com.fruitwarehouse.common.exception;
 
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -74,6 +77,22 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
 	}
 
+	@ExceptionHandler(HttpMessageNotReadableException.class)
+	public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(
+			HttpMessageNotReadableException ex, WebRequest request) {
+		log.warn("Unreadable request body: {}", ex.getMostSpecificCause().getMessage());
+
+		ErrorResponse errorResponse = ErrorResponse.builder()
+				.timestamp(LocalDateTime.now())
+				.status(HttpStatus.BAD_REQUEST.value())
+				.error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+				.message("Malformed request body or unsupported field value")
+				.path(request.getDescription(false).replace("uri=", ""))
+				.build();
+
+		return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+	}
+
 	@ExceptionHandler(ConstraintViolationException.class)
 	public ResponseEntity<ErrorResponse> handleConstraintViolationException(
 			ConstraintViolationException ex, WebRequest request) {
@@ -106,6 +125,106 @@ public class GlobalExceptionHandler {
 		return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
 	}
 
+	@ExceptionHandler(DeliveryNumberConflictException.class)
+	public ResponseEntity<ErrorResponse> handleDeliveryNumberConflictException(
+			DeliveryNumberConflictException ex, WebRequest request) {
+		log.warn("Delivery number conflict: {}", ex.getMessage());
+
+		ErrorResponse errorResponse = ErrorResponse.builder()
+				.timestamp(LocalDateTime.now())
+				.status(HttpStatus.CONFLICT.value())
+				.error(HttpStatus.CONFLICT.getReasonPhrase())
+				.message(ex.getMessage())
+				.path(request.getDescription(false).replace("uri=", ""))
+				.build();
+
+		return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(DeliveryStatusTransitionException.class)
+	public ResponseEntity<ErrorResponse> handleDeliveryStatusTransitionException(
+			DeliveryStatusTransitionException ex, WebRequest request) {
+		log.warn("Delivery status transition rejected: {}", ex.getMessage());
+
+		ErrorResponse errorResponse = ErrorResponse.builder()
+				.timestamp(LocalDateTime.now())
+				.status(HttpStatus.CONFLICT.value())
+				.error(HttpStatus.CONFLICT.getReasonPhrase())
+				.message(ex.getMessage())
+				.path(request.getDescription(false).replace("uri=", ""))
+				.build();
+
+		return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+			DataIntegrityViolationException ex, WebRequest request) {
+		log.warn("Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+
+		ErrorResponse errorResponse = ErrorResponse.builder()
+				.timestamp(LocalDateTime.now())
+				.status(HttpStatus.CONFLICT.value())
+				.error(HttpStatus.CONFLICT.getReasonPhrase())
+				.message("Request conflicts with existing data, retry the request")
+				.path(request.getDescription(false).replace("uri=", ""))
+				.build();
+
+		return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(DeliveryQueueFullException.class)
+	public ResponseEntity<ErrorResponse> handleDeliveryQueueFullException(
+			DeliveryQueueFullException ex, WebRequest request) {
+		log.warn("Delivery queue full: {}", ex.getMessage());
+
+		ErrorResponse errorResponse = ErrorResponse.builder()
+				.timestamp(LocalDateTime.now())
+				.status(HttpStatus.TOO_MANY_REQUESTS.value())
+				.error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+				.message(ex.getMessage())
+				.path(request.getDescription(false).replace("uri=", ""))
+				.build();
+
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+				.body(errorResponse);
+	}
+
+	@ExceptionHandler(ReportJobNotReadyException.class)
+	public ResponseEntity<ErrorResponse> handleReportJobNotReadyException(
+			ReportJobNotReadyException ex, WebRequest request) {
+		log.warn("Report job file requested too early: {}", ex.getMessage());
+
+		ErrorResponse errorResponse = ErrorResponse.builder()
+				.timestamp(LocalDateTime.now())
+				.status(HttpStatus.CONFLICT.value())
+				.error(HttpStatus.CONFLICT.getReasonPhrase())
+				.message(ex.getMessage())
+				.path(request.getDescription(false).replace("uri=", ""))
+				.build();
+
+		return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+	}
+
+	@ExceptionHandler(ReportQueueFullException.class)
+	public ResponseEntity<ErrorResponse> handleReportQueueFullException(
+			ReportQueueFullException ex, WebRequest request) {
+		log.warn("Report job queue full: {}", ex.getMessage());
+
+		ErrorResponse errorResponse = ErrorResponse.builder()
+				.timestamp(LocalDateTime.now())
+				.status(HttpStatus.TOO_MANY_REQUESTS.value())
+				.error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+				.message(ex.getMessage())
+				.path(request.getDescription(false).replace("uri=", ""))
+				.build();
+
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+				.body(errorResponse);
+	}
+
 	@ExceptionHandler(Exception.class)
 	public ResponseEntity<ErrorResponse> handleGlobalException(
 			Exception ex, WebRequest request) {
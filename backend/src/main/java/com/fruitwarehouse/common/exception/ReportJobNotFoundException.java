@@ -0,0 +1,9 @@
+package com.fruitwarehouse.common.exception;
+
+import java.util.UUID;
+
+public class ReportJobNotFoundException extends EntityNotFoundException {
+	public ReportJobNotFoundException(UUID id) {
+		super("Report job", String.format("Report job with id %s not found", id));
+	}
+}
@@ -0,0 +1,11 @@
+package com.fruitwarehouse.common.exception;
+
+import com.fruitwarehouse.report.controller.dto.response.ReportJobResponse;
+
+import java.util.UUID;
+
+public class ReportJobNotReadyException extends ValidationException {
+	public ReportJobNotReadyException(UUID id, ReportJobResponse.Status status) {
+		super(String.format("Report job with id %s is %s, its file is not available", id, status));
+	}
+}
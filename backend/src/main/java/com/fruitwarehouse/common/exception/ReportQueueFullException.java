@@ -0,0 +1,17 @@
+package com.fruitwarehouse.common.exception;
+
+import java.time.Duration;
+
+public class ReportQueueFullException extends RuntimeException {
+
+	private final Duration retryAfter;
+
+	public ReportQueueFullException(Duration retryAfter) {
+		super("Report job queue is full, retry later");
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
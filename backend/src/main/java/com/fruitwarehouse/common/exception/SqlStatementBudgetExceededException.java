@@ -0,0 +1,8 @@
+package com.fruitwarehouse.common.exception;
+
+public class SqlStatementBudgetExceededException extends RuntimeException {
+
+	public SqlStatementBudgetExceededException(String handler, int statements, int budget) {
+		super(String.format("%s executed %d SQL statements, budget is %d", handler, statements, budget));
+	}
+}
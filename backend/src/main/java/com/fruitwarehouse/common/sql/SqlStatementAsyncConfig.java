@@ -0,0 +1,22 @@
+package com.fruitwarehouse.common.sql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class SqlStatementAsyncConfig implements WebMvcConfigurer {
+
+	private final boolean enforceBudgets;
+
+	public SqlStatementAsyncConfig(
+			@Value("${fruitwarehouse.sql-statements.enforce-budgets:false}") boolean enforceBudgets) {
+		this.enforceBudgets = enforceBudgets;
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.registerCallableInterceptors(new SqlStatementStreamingInterceptor(enforceBudgets));
+	}
+}
@@ -0,0 +1,20 @@
+package com.fruitwarehouse.common.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Допустимое число SQL-запросов на один вызов обработчика. Превышение пишется в лог,
+ * а при {@code fruitwarehouse.sql-statements.enforce-budgets=true} (в тестах) завершает
+ * запрос ошибкой — так N+1 ловится прогоном E2E, а не на продакшене.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlStatementBudget {
+
+	int value();
+}
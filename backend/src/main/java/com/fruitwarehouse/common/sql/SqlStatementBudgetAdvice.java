@@ -0,0 +1,63 @@
+package com.fruitwarehouse.common.sql;
+
+import com.fruitwarehouse.common.exception.SqlStatementBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Перед записью тела ответа отдаёт число выполненных запросов в заголовке
+ * {@value #STATEMENT_COUNT_HEADER} и сверяет его с {@link SqlStatementBudget} обработчика.
+ * Потоковые ответы сверяет {@link SqlStatementStreamingInterceptor}.
+ */
+@Slf4j
+@ControllerAdvice
+public class SqlStatementBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+	public static final String STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+
+	private final boolean enforceBudgets;
+
+	public SqlStatementBudgetAdvice(
+			@Value("${fruitwarehouse.sql-statements.enforce-budgets:false}") boolean enforceBudgets) {
+		this.enforceBudgets = enforceBudgets;
+	}
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+								  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+								  ServerHttpRequest request, ServerHttpResponse response) {
+		if (!SqlStatementCounter.isActive()) {
+			return body;
+		}
+
+		int count = SqlStatementCounter.current();
+		response.getHeaders().set(STATEMENT_COUNT_HEADER, String.valueOf(count));
+
+		checkBudget(returnType.getContainingClass(), returnType.getMethodAnnotation(SqlStatementBudget.class),
+				returnType.getExecutable().getName(), count, enforceBudgets);
+		return body;
+	}
+
+	static void checkBudget(Class<?> controller, SqlStatementBudget budget, String method, int count,
+							boolean enforceBudgets) {
+		if (budget != null && count > budget.value()) {
+			String handler = controller.getSimpleName() + "." + method;
+			log.warn("{} executed {} SQL statements, budget is {}", handler, count, budget.value());
+			if (enforceBudgets) {
+				throw new SqlStatementBudgetExceededException(handler, count, budget.value());
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.fruitwarehouse.common.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Ведёт счёт SQL-запросов на время HTTP-запроса и пишет его в метрику
+ * {@code http.server.requests.sql.statements} с тегами метода и шаблона URI.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+	private final MeterRegistry meterRegistry;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		SqlStatementCounter.start();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			int count = SqlStatementCounter.stop();
+			// Без шаблона URI (статика, 404 по пути) метрика не пишется, чтобы не плодить теги
+			Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			if (uri != null) {
+				DistributionSummary.builder("http.server.requests.sql.statements")
+						.description("SQL statements executed per HTTP request")
+						.tag("method", request.getMethod())
+						.tag("uri", uri.toString())
+						.register(meterRegistry)
+						.record(count);
+			}
+		}
+	}
+}
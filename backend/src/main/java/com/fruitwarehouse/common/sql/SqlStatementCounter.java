@@ -0,0 +1,47 @@
+package com.fruitwarehouse.common.sql;
+
+/**
+ * Счётчик SQL-запросов текущего HTTP-запроса. Считает только на потоке, где счёт начат
+ * {@link SqlStatementCountFilter}, поэтому фоновые задачи (пакетная запись, обновление кэшей)
+ * в него не попадают.
+ */
+public final class SqlStatementCounter {
+
+	private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+	private SqlStatementCounter() {
+	}
+
+	static void start() {
+		start(0);
+	}
+
+	/**
+	 * Продолжает счёт, начатый в другом потоке (запись потокового ответа).
+	 */
+	static void start(int initial) {
+		COUNT.set(new int[]{initial});
+	}
+
+	static int stop() {
+		int count = current();
+		COUNT.remove();
+		return count;
+	}
+
+	static void increment() {
+		int[] count = COUNT.get();
+		if (count != null) {
+			count[0]++;
+		}
+	}
+
+	public static boolean isActive() {
+		return COUNT.get() != null;
+	}
+
+	public static int current() {
+		int[] count = COUNT.get();
+		return count != null ? count[0] : 0;
+	}
+}
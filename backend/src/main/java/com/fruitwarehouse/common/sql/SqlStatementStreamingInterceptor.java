@@ -0,0 +1,62 @@
+package com.fruitwarehouse.common.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Ведёт счёт SQL-запросов в потоке, который пишет тело {@link StreamingResponseBody}.
+ * Для таких ответов {@link SqlStatementBudgetAdvice} не вызывается, а запросы выполняются уже
+ * после выхода из обработчика, поэтому бюджет сверяется с суммой запросов обработчика и записи
+ * тела, когда тело записано. Заголовок с числом запросов не ставится: ответ к этому моменту
+ * уже отправлен.
+ */
+@Slf4j
+class SqlStatementStreamingInterceptor implements CallableProcessingInterceptor {
+
+	private static final String HANDLER_STATEMENTS_ATTRIBUTE =
+			SqlStatementStreamingInterceptor.class.getName() + ".handlerStatements";
+
+	private final boolean enforceBudgets;
+
+	SqlStatementStreamingInterceptor(boolean enforceBudgets) {
+		this.enforceBudgets = enforceBudgets;
+	}
+
+	@Override
+	public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+		if (SqlStatementCounter.isActive()) {
+			request.setAttribute(HANDLER_STATEMENTS_ATTRIBUTE, SqlStatementCounter.current(),
+					RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+
+	@Override
+	public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+		Object handlerStatements = request.getAttribute(HANDLER_STATEMENTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if (handlerStatements != null) {
+			SqlStatementCounter.start((Integer) handlerStatements);
+		}
+	}
+
+	@Override
+	public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+		if (!SqlStatementCounter.isActive()) {
+			return;
+		}
+		int count = SqlStatementCounter.stop();
+		Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+		if (handler instanceof HandlerMethod handlerMethod) {
+			SqlStatementBudgetAdvice.checkBudget(handlerMethod.getBeanType(),
+					handlerMethod.getMethodAnnotation(SqlStatementBudget.class),
+					handlerMethod.getMethod().getName(), count, enforceBudgets);
+		}
+	}
+}
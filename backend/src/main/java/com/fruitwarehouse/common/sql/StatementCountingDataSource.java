@@ -0,0 +1,51 @@
+package com.fruitwarehouse.common.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Считает подготовленные соединением запросы. Счёт ведётся на уровне соединения, а не в
+ * StatementInspector Hibernate: часть путей чтения и записи идёт через JdbcTemplate и COPY
+ * мимо Hibernate. JDBC batch подготавливается один раз и считается одним запросом.
+ */
+class StatementCountingDataSource extends DelegatingDataSource {
+
+	private static final Set<String> STATEMENT_FACTORIES = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+	StatementCountingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return countingProxy(super.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return countingProxy(super.getConnection(username, password));
+	}
+
+	private static Connection countingProxy(Connection target) {
+		return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+				new Class<?>[]{Connection.class}, (proxy, method, args) -> invoke(target, method, args));
+	}
+
+	private static Object invoke(Connection target, Method method, Object[] args) throws Throwable {
+		if (STATEMENT_FACTORIES.contains(method.getName())) {
+			SqlStatementCounter.increment();
+		}
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+}
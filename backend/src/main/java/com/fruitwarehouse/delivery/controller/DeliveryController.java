@@ -1,8 +1,29 @@
 package com.fruitwarehouse.delivery.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fruitwarehouse.common.sql.SqlStatementBudget;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryBatchRequest;
 import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.DeliverySearchRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.UpdateDeliveryStatusBatchRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.UpdateDeliveryStatusRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryAcceptedResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryImportResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryRequestStatusResponse;
 import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryStatusBatchResponse;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryVersionDto;
+import com.fruitwarehouse.delivery.service.DeliveryAcceptanceService;
+import com.fruitwarehouse.delivery.service.DeliveryIdempotencyService;
+import com.fruitwarehouse.delivery.service.DeliveryImportService;
 import com.fruitwarehouse.delivery.service.DeliveryService;
+import com.fruitwarehouse.delivery.service.dto.DeliveryCreationResult;
+import com.fruitwarehouse.delivery.service.dto.DeliveryImportFormat;
+import com.fruitwarehouse.delivery.service.dto.DeliveryPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,11 +31,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/deliveries")
@@ -22,50 +56,292 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DeliveryController {
 
+	private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
 	private final DeliveryService deliveryService;
+	private final DeliveryImportService deliveryImportService;
+	private final DeliveryIdempotencyService deliveryIdempotencyService;
+	private final DeliveryAcceptanceService deliveryAcceptanceService;
+	private final ObjectMapper objectMapper;
 
 	@PostMapping
-	@Operation(summary = "Create a new delivery")
+	// Цены, две последовательности, две вставки и дневные итоги; остальное — перезагрузка кэша справочников на холодном старте
+	@SqlStatementBudget(11)
+	@Operation(summary = "Create a new delivery",
+			description = "Repeating a request with the same deliveryNumber or Idempotency-Key returns the original delivery. " +
+					"With async=true the delivery is queued and saved in the background; poll the returned status URL")
 	@ApiResponses({
 			@ApiResponse(responseCode = "201", description = "Delivery created successfully"),
+			@ApiResponse(responseCode = "200", description = "Replay of an already created delivery"),
+			@ApiResponse(responseCode = "202", description = "Delivery accepted for asynchronous creation"),
 			@ApiResponse(responseCode = "400", description = "Invalid input"),
-			@ApiResponse(responseCode = "404", description = "Supplier or product not found")
+			@ApiResponse(responseCode = "404", description = "Supplier or product not found"),
+			@ApiResponse(responseCode = "409", description = "Delivery number belongs to another supplier"),
+			@ApiResponse(responseCode = "429", description = "Acceptance queue is full, retry after the given delay")
 	})
-	public ResponseEntity<DeliveryResponse> createDelivery(
+	public ResponseEntity<?> createDelivery(
+			@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+			@Parameter(description = "Client key identifying the delivery across retries") String idempotencyKey,
+			@RequestParam(defaultValue = "false")
+			@Parameter(description = "Queue the delivery and return 202 instead of waiting for the commit") boolean async,
 			@Valid @RequestBody CreateDeliveryRequest request) {
-		DeliveryResponse response = deliveryService.createDelivery(request);
-		return ResponseEntity.status(HttpStatus.CREATED).body(response);
+		if (async) {
+			DeliveryRequestStatusResponse accepted = deliveryAcceptanceService.accept(request, idempotencyKey);
+			URI statusUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+					.path("/api/v1/deliveries/requests/{deliveryNumber}")
+					.buildAndExpand(accepted.deliveryNumber())
+					.toUri();
+			return ResponseEntity.accepted()
+					.location(statusUri)
+					.body(DeliveryAcceptedResponse.builder()
+							.deliveryNumber(accepted.deliveryNumber())
+							.status(accepted.status())
+							.statusUrl(statusUri.toString())
+							.build());
+		}
+
+		DeliveryCreationResult result = deliveryIdempotencyService.createDelivery(request, idempotencyKey);
+		if (result.replayed()) {
+			return ResponseEntity.ok()
+					.header(IDEMPOTENT_REPLAYED_HEADER, "true")
+					.body(result.delivery());
+		}
+		return ResponseEntity.status(HttpStatus.CREATED).body(result.delivery());
+	}
+
+	@PostMapping("/batch")
+	// Пачка до 5000 поставок пишется порциями по 50: две вставки и два чтения последовательностей на порцию,
+	// дневные итоги — одним пакетом на всю пачку
+	@SqlStatementBudget(421)
+	@Operation(summary = "Create deliveries in bulk",
+			description = "Each delivery is validated independently; the result list keeps request order")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Batch processed, see per-delivery results"),
+			@ApiResponse(responseCode = "400", description = "Invalid input")
+	})
+	public ResponseEntity<DeliveryBatchResponse> createDeliveries(
+			@Valid @RequestBody CreateDeliveryBatchRequest request) {
+		DeliveryBatchResponse response = deliveryService.createDeliveries(request);
+		return ResponseEntity.ok(response);
+	}
+
+	@PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+	// Постоянное число операторов над временной таблицей, от размера файла не зависит
+	@SqlStatementBudget(16)
+	@Operation(summary = "Import deliveries from a CSV or NDJSON manifest",
+			description = "One line per delivery item: delivery_ref, supplier_id, delivery_date, product_id, weight. " +
+					"Lines sharing delivery_ref form one delivery; a delivery with any invalid line is rejected whole")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Manifest processed, see rejection report"),
+			@ApiResponse(responseCode = "400", description = "Manifest could not be read")
+	})
+	public ResponseEntity<DeliveryImportResponse> importDeliveries(
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream body) {
+		DeliveryImportResponse response = deliveryImportService.importDeliveries(
+				body, DeliveryImportFormat.fromContentType(contentType));
+		return ResponseEntity.ok(response);
+	}
+
+	@PatchMapping("/{id}/status")
+	@SqlStatementBudget(8)
+	@Operation(summary = "Change delivery status",
+			description = "Allowed transitions: CREATED -> IN_PROGRESS | CANCELLED, IN_PROGRESS -> COMPLETED | CANCELLED")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Status changed"),
+			@ApiResponse(responseCode = "400", description = "Invalid input"),
+			@ApiResponse(responseCode = "404", description = "Delivery not found"),
+			@ApiResponse(responseCode = "409", description = "Transition from the current status is not allowed")
+	})
+	public ResponseEntity<DeliveryResponse> changeDeliveryStatus(
+			@PathVariable @Parameter(description = "Delivery ID") Long id,
+			@Valid @RequestBody UpdateDeliveryStatusRequest request) {
+		DeliveryResponse response = deliveryService.changeStatus(id, request.status());
+		return ResponseEntity.ok(response);
+	}
+
+	@PatchMapping("/status")
+	@SqlStatementBudget(6)
+	@Operation(summary = "Change status of deliveries in bulk",
+			description = "Deliveries that do not exist or whose current status does not allow the transition " +
+					"are left unchanged and reported as not transitioned")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Batch processed, see transitioned IDs"),
+			@ApiResponse(responseCode = "400", description = "Invalid input")
+	})
+	public ResponseEntity<DeliveryStatusBatchResponse> changeDeliveryStatuses(
+			@Valid @RequestBody UpdateDeliveryStatusBatchRequest request) {
+		DeliveryStatusBatchResponse response = deliveryService.changeStatuses(request);
+		return ResponseEntity.ok(response);
+	}
+
+	@GetMapping("/requests/{deliveryNumber}")
+	@SqlStatementBudget(2)
+	@Operation(summary = "Get status of an asynchronously accepted delivery")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Request status retrieved"),
+			@ApiResponse(responseCode = "404", description = "Delivery request not found")
+	})
+	public ResponseEntity<DeliveryRequestStatusResponse> getDeliveryRequestStatus(
+			@PathVariable @Parameter(description = "Delivery number returned on acceptance") UUID deliveryNumber) {
+		DeliveryRequestStatusResponse response = deliveryAcceptanceService.getStatus(deliveryNumber);
+		return ResponseEntity.ok(response);
 	}
 
 	@GetMapping("/{id}")
-	@Operation(summary = "Get delivery by ID")
+	@SqlStatementBudget(3)
+	@Operation(summary = "Get delivery by ID",
+			description = "Supports If-None-Match and If-Modified-Since against the ETag and Last-Modified of the delivery")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "Delivery found"),
+			@ApiResponse(responseCode = "304", description = "Delivery not modified"),
 			@ApiResponse(responseCode = "404", description = "Delivery not found")
 	})
 	public ResponseEntity<DeliveryResponse> getDelivery(
-			@PathVariable @Parameter(description = "Delivery ID") Long id) {
+			@PathVariable @Parameter(description = "Delivery ID") Long id,
+			WebRequest webRequest) {
+		// 304 отвечается по версии строки и хэшу названий из справочников, поставка с позициями
+		// не собирается. Last-Modified — время изменения самой поставки: переименование поставщика
+		// или продукта видно только по ETag, который при наличии If-None-Match проверяется первым
+		DeliveryVersionDto version = deliveryService.getDeliveryVersion(id);
+		long lastModified = version.updatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		if (webRequest.checkNotModified(version.eTag(), lastModified)) {
+			return null;
+		}
+
 		DeliveryResponse response = deliveryService.getDelivery(id);
 		return ResponseEntity.ok(response);
 	}
 
 	@GetMapping
-	@Operation(summary = "Get all deliveries (last 30 days)")
-	@ApiResponse(responseCode = "200", description = "List of deliveries retrieved")
-	public ResponseEntity<List<DeliveryResponse>> getAllDeliveries() {
-		List<DeliveryResponse> responses = deliveryService.getAllDeliveries();
-		return ResponseEntity.ok(responses);
+	@SqlStatementBudget(2)
+	@Operation(summary = "Get deliveries page by page (last 30 days by default)",
+			description = "Newest first. When more deliveries remain, the Link header carries the URL of the next page")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Page of deliveries retrieved"),
+			@ApiResponse(responseCode = "400", description = "Invalid window, page size or cursor")
+	})
+	public ResponseEntity<List<DeliveryResponse>> getAllDeliveries(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+			@Parameter(description = "Window start, defaults to 30 days before the window end") LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+			@Parameter(description = "Window end, defaults to now") LocalDateTime to,
+			@RequestParam(required = false)
+			@Parameter(description = "Opaque cursor from the previous page's Link header") String cursor,
+			@RequestParam(required = false)
+			@Parameter(description = "Page size, 1 to 500, defaults to 50") Integer size) {
+		DeliveryPage page = deliveryService.getDeliveries(from, to, cursor, size);
+		if (page.nextCursor() == null) {
+			return ResponseEntity.ok(page.deliveries());
+		}
+
+		String next = ServletUriComponentsBuilder.fromCurrentRequest()
+				.replaceQueryParam("from", page.from())
+				.replaceQueryParam("cursor", page.nextCursor())
+				.build()
+				.encode()
+				.toUriString();
+		return ResponseEntity.ok()
+				.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+				.body(page.deliveries());
 	}
 
+	@GetMapping("/search")
+	// Идентификаторы страницы, поставки и их позиции
+	@SqlStatementBudget(3)
+	@Operation(summary = "Search deliveries",
+			description = "All filters are optional and combined with AND. Product and product type filters match " +
+					"deliveries having at least one such item; weight and cost ranges apply to delivery totals. " +
+					"When more deliveries remain, the Link header carries the URL of the next page")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Page of matching deliveries retrieved"),
+			@ApiResponse(responseCode = "400", description = "Invalid filters, page size or cursor")
+	})
+	public ResponseEntity<List<DeliveryResponse>> searchDeliveries(
+			@Valid DeliverySearchRequest request,
+			@RequestParam(required = false)
+			@Parameter(description = "Opaque cursor from the previous page's Link header") String cursor,
+			@RequestParam(required = false)
+			@Parameter(description = "Page size, 1 to 500, defaults to 50") Integer size) {
+		DeliveryPage page = deliveryService.searchDeliveries(request, cursor, size);
+		if (page.nextCursor() == null) {
+			return ResponseEntity.ok(page.deliveries());
+		}
+
+		String next = ServletUriComponentsBuilder.fromCurrentRequest()
+				.replaceQueryParam("cursor", page.nextCursor())
+				.build()
+				.encode()
+				.toUriString();
+		return ResponseEntity.ok()
+				.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+				.body(page.deliveries());
+	}
+
+	// Один курсор; запрос выполняется в потоке записи ответа и сверяется с бюджетом после неё
 	@GetMapping("/supplier/{supplierId}")
-	@Operation(summary = "Get deliveries by supplier")
+	@SqlStatementBudget(1)
+	@Operation(summary = "Get deliveries by supplier",
+			description = "Deliveries without items, streamed as a JSON array")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "List of deliveries retrieved"),
-			@ApiResponse(responseCode = "404", description = "Supplier not found")
+			@ApiResponse(responseCode = "400", description = "Supplier not found")
 	})
-	public ResponseEntity<List<DeliveryResponse>> getDeliveriesBySupplier(
+	public ResponseEntity<StreamingResponseBody> getDeliveriesBySupplier(
 			@PathVariable @Parameter(description = "Supplier ID") Long supplierId) {
-		List<DeliveryResponse> responses = deliveryService.getDeliveriesBySupplier(supplierId);
-		return ResponseEntity.ok(responses);
+		// Без сброса после каждой поставки: в сокет уходят полные буферы генератора
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = output -> {
+			// Генератор закрывается только после успешной записи: ошибка до первой строки
+			// (неизвестный поставщик) уходит обработчику исключений, пока ответ не зафиксирован
+			JsonGenerator generator = writer.createGenerator(output);
+			generator.writeStartArray();
+			deliveryService.forEachDeliveryOfSupplier(supplierId, delivery -> writeDelivery(writer, generator, delivery));
+			generator.writeEndArray();
+			generator.close();
+		};
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.body(body);
+	}
+
+	@GetMapping("/supplier/{supplierId}/history")
+	// Ключи страницы, поставки и их позиции
+	@SqlStatementBudget(3)
+	@Operation(summary = "Get delivery history of a supplier page by page",
+			description = "Newest first, with items. When more deliveries remain, the Link header carries the URL of the next page")
+	@ApiResponses({
+			@ApiResponse(responseCode = "200", description = "Page of deliveries retrieved"),
+			@ApiResponse(responseCode = "400", description = "Invalid page size or cursor"),
+			@ApiResponse(responseCode = "404", description = "Supplier not found")
+	})
+	public ResponseEntity<List<DeliveryResponse>> getDeliveryHistoryOfSupplier(
+			@PathVariable @Parameter(description = "Supplier ID") Long supplierId,
+			@RequestParam(required = false)
+			@Parameter(description = "Opaque cursor from the previous page's Link header") String cursor,
+			@RequestParam(required = false)
+			@Parameter(description = "Page size, 1 to 500, defaults to 50") Integer size) {
+		DeliveryPage page = deliveryService.getDeliveryHistoryOfSupplier(supplierId, cursor, size);
+		if (page.nextCursor() == null) {
+			return ResponseEntity.ok(page.deliveries());
+		}
+
+		String next = ServletUriComponentsBuilder.fromCurrentRequest()
+				.replaceQueryParam("cursor", page.nextCursor())
+				.build()
+				.encode()
+				.toUriString();
+		return ResponseEntity.ok()
+				.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+				.body(page.deliveries());
+	}
+
+	private static void writeDelivery(ObjectWriter writer, JsonGenerator generator, DeliveryResponse delivery) {
+		try {
+			writer.writeValue(generator, delivery);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 }
@@ -0,0 +1,14 @@
+package com.fruitwarehouse.delivery.controller.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CreateDeliveryBatchRequest(
+		@NotNull(message = "Deliveries are required")
+		@Size(min = 1, max = 5000, message = "Batch must contain from 1 to 5000 deliveries")
+		@Valid
+		List<CreateDeliveryRequest> deliveries
+) {}
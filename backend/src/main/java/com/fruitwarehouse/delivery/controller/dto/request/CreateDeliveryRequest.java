@@ -6,6 +6,7 @@ import jakarta.validation.constraints.Size;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 public record CreateDeliveryRequest(
 		@NotNull(message = "Supplier ID is required")
@@ -16,5 +17,17 @@ public record CreateDeliveryRequest(
 		@NotNull(message = "Delivery items are required")
 		@Size(min = 1, message = "At least one delivery item is required")
 		@Valid
-		List<DeliveryItemRequest> items
-) {}
+		List<DeliveryItemRequest> items,
+
+		// Необязательный номер от клиента: повтор запроса с тем же номером вернёт уже созданную поставку
+		UUID deliveryNumber
+) {
+
+	public CreateDeliveryRequest(Long supplierId, LocalDateTime deliveryDate, List<DeliveryItemRequest> items) {
+		this(supplierId, deliveryDate, items, null);
+	}
+
+	public CreateDeliveryRequest withDeliveryNumber(UUID deliveryNumber) {
+		return new CreateDeliveryRequest(supplierId, deliveryDate, items, deliveryNumber);
+	}
+}
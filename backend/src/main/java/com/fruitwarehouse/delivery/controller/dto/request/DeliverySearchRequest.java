@@ -0,0 +1,60 @@
+package com.fruitwarehouse.delivery.controller.dto.request;
+
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.service.dto.DeliverySearchSort;
+import com.fruitwarehouse.product.entity.ProductType;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Фильтры поиска поставок. Все необязательны и объединяются через И; списки — через ИЛИ внутри списка.
+ * Фильтры по продуктам и типу продукта выбирают поставки, в которых есть хотя бы одна подходящая позиция.
+ */
+public record DeliverySearchRequest(
+		@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+		LocalDateTime from,
+
+		@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+		LocalDateTime to,
+
+		@Size(max = 100, message = "At most 100 supplier IDs are allowed")
+		List<Long> supplierIds,
+
+		@Size(max = 100, message = "At most 100 product IDs are allowed")
+		List<Long> productIds,
+
+		ProductType.Code productType,
+
+		DeliveryStatus.Code status,
+
+		@PositiveOrZero(message = "Minimum weight must not be negative")
+		BigDecimal minWeight,
+
+		@PositiveOrZero(message = "Maximum weight must not be negative")
+		BigDecimal maxWeight,
+
+		@PositiveOrZero(message = "Minimum cost must not be negative")
+		BigDecimal minCost,
+
+		@PositiveOrZero(message = "Maximum cost must not be negative")
+		BigDecimal maxCost,
+
+		DeliverySearchSort sort,
+
+		Sort.Direction direction
+) {
+	public DeliverySearchRequest {
+		if (sort == null) {
+			sort = DeliverySearchSort.DELIVERY_DATE;
+		}
+		if (direction == null) {
+			direction = Sort.Direction.DESC;
+		}
+	}
+}
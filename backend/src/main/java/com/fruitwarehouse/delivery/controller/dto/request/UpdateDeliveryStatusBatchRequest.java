@@ -0,0 +1,16 @@
+package com.fruitwarehouse.delivery.controller.dto.request;
+
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record UpdateDeliveryStatusBatchRequest(
+		@NotNull(message = "Delivery IDs are required")
+		@Size(min = 1, max = 5000, message = "Batch must contain from 1 to 5000 delivery IDs")
+		List<@NotNull(message = "Delivery ID is required") Long> deliveryIds,
+
+		@NotNull(message = "Status is required")
+		DeliveryStatus.Code status
+) {}
@@ -0,0 +1,9 @@
+package com.fruitwarehouse.delivery.controller.dto.request;
+
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import jakarta.validation.constraints.NotNull;
+
+public record UpdateDeliveryStatusRequest(
+		@NotNull(message = "Status is required")
+		DeliveryStatus.Code status
+) {}
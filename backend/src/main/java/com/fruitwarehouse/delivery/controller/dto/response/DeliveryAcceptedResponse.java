@@ -0,0 +1,12 @@
+package com.fruitwarehouse.delivery.controller.dto.response;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+public record DeliveryAcceptedResponse(
+		UUID deliveryNumber,
+		DeliveryRequestStatusResponse.Status status,
+		String statusUrl
+) {}
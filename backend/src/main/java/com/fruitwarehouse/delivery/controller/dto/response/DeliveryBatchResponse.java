@@ -0,0 +1,14 @@
+package com.fruitwarehouse.delivery.controller.dto.response;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record DeliveryBatchResponse(
+		int total,
+		int created,
+		int replayed,
+		int failed,
+		List<DeliveryBatchResultResponse> results
+) {}
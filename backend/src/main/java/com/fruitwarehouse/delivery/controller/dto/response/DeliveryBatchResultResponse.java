@@ -0,0 +1,12 @@
+package com.fruitwarehouse.delivery.controller.dto.response;
+
+import lombok.Builder;
+
+@Builder
+public record DeliveryBatchResultResponse(
+		int index,
+		boolean created,
+		boolean replayed,
+		DeliveryResponse delivery,
+		String error
+) {}
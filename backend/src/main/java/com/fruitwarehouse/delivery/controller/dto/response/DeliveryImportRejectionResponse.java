@@ -0,0 +1,10 @@
+package com.fruitwarehouse.delivery.controller.dto.response;
+
+import lombok.Builder;
+
+@Builder
+public record DeliveryImportRejectionResponse(
+		long line,
+		String deliveryRef,
+		String error
+) {}
@@ -0,0 +1,16 @@
+package com.fruitwarehouse.delivery.controller.dto.response;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record DeliveryImportResponse(
+		long totalRows,
+		long importedRows,
+		long rejectedRows,
+		long createdDeliveries,
+		long rejectedDeliveries,
+		List<DeliveryImportRejectionResponse> rejections,
+		boolean rejectionsTruncated
+) {}
@@ -0,0 +1,19 @@
+package com.fruitwarehouse.delivery.controller.dto.response;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+public record DeliveryRequestStatusResponse(
+		UUID deliveryNumber,
+		Status status,
+		DeliveryResponse delivery,
+		String error
+) {
+	public enum Status {
+		PENDING,
+		CREATED,
+		FAILED
+	}
+}
@@ -7,7 +7,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
-@Builder
+@Builder(toBuilder = true)
 public record DeliveryResponse(
 		Long id,
 		UUID deliveryNumber,
@@ -17,6 +17,7 @@ public record DeliveryResponse(
 		String status,
 		LocalDateTime createdAt,
 		List<DeliveryItemResponse> items,
+		Integer itemCount,
 		BigDecimal totalWeight,
 		BigDecimal totalCost
 ) {}
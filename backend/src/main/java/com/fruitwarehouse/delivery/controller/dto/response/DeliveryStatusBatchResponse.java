@@ -0,0 +1,14 @@
+package com.fruitwarehouse.delivery.controller.dto.response;
+
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record DeliveryStatusBatchResponse(
+		DeliveryStatus.Code status,
+		List<Long> transitioned,
+		// Поставки, которых нет или чей текущий статус не допускает перехода
+		List<Long> notTransitioned
+) {}
@@ -0,0 +1,35 @@
+package com.fruitwarehouse.delivery.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Итоги позиций за день по поставщику и продукту. Пишется только SQL-запросами
+ * DailyDeliveryRollupRepository и импорта в транзакциях, создающих поставки.
+ */
+@Entity
+@Table(name = "daily_delivery_rollup")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyDeliveryRollup {
+
+	@EmbeddedId
+	private DailyDeliveryRollupId id;
+
+	@Column(name = "total_weight", nullable = false, precision = 18, scale = 3)
+	private BigDecimal totalWeight;
+
+	@Column(name = "total_cost", nullable = false, precision = 18, scale = 2)
+	private BigDecimal totalCost;
+
+	@Column(name = "item_count", nullable = false)
+	private int itemCount;
+}
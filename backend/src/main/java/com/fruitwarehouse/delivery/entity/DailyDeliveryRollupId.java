@@ -0,0 +1,28 @@
+package com.fruitwarehouse.delivery.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+public class DailyDeliveryRollupId implements Serializable {
+
+	@Column(name = "day", nullable = false)
+	private LocalDate day;
+
+	@Column(name = "supplier_id", nullable = false)
+	private Long supplierId;
+
+	@Column(name = "product_id", nullable = false)
+	private Long productId;
+}
@@ -12,11 +12,15 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,7 +34,8 @@ import java.util.UUID;
 public class Delivery {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deliveries_id_seq")
+	@SequenceGenerator(name = "deliveries_id_seq", sequenceName = "deliveries_id_seq", allocationSize = 50)
 	private Long id;
 
 	@ManyToOne(fetch = FetchType.LAZY)
@@ -40,27 +45,62 @@ public class Delivery {
 	@Column(name = "delivery_number", nullable = false, unique = true, columnDefinition = "UUID")
 	private UUID deliveryNumber;
 
-	@Column(name = "delivery_date", nullable = false)
+	@Column(name = "delivery_date", nullable = false, updatable = false)
 	private LocalDateTime deliveryDate;
 
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "status_id", nullable = false)
 	private DeliveryStatus status;
 
+	// Итоги хранятся в строке поставки, чтобы списки не загружали позиции
+	@Column(name = "total_weight", nullable = false, precision = 15, scale = 3)
+	private BigDecimal totalWeight = BigDecimal.ZERO;
+
+	@Column(name = "total_cost", nullable = false, precision = 15, scale = 2)
+	private BigDecimal totalCost = BigDecimal.ZERO;
+
+	@Column(name = "item_count", nullable = false)
+	private int itemCount;
+
 	@Column(name = "created_at", nullable = false, updatable = false)
 	private LocalDateTime createdAt;
 
+	// Меняется и массовой сменой статуса в обход Hibernate (DeliveryStatusUpdateRepository)
+	@Version
+	@Column(name = "version", nullable = false)
+	private long version;
+
+	@Column(name = "updated_at", nullable = false)
+	private LocalDateTime updatedAt;
+
 	@OneToMany(mappedBy = "delivery", cascade = CascadeType.ALL, orphanRemoval = true)
 	private List<DeliveryItem> items = new ArrayList<>();
 
 	@PrePersist
 	protected void onCreate() {
 		createdAt = LocalDateTime.now();
+		updatedAt = createdAt;
 		if (deliveryDate == null) {
 			deliveryDate = LocalDateTime.now();
 		}
 		if (deliveryNumber == null) {
 			deliveryNumber = UUID.randomUUID();
 		}
+		calculateTotals();
+	}
+
+	@PreUpdate
+	protected void onUpdate() {
+		updatedAt = LocalDateTime.now();
+	}
+
+	public void calculateTotals() {
+		totalWeight = BigDecimal.ZERO;
+		totalCost = BigDecimal.ZERO;
+		for (DeliveryItem item : items) {
+			totalWeight = totalWeight.add(item.getWeight());
+			totalCost = totalCost.add(item.getTotalPrice());
+		}
+		itemCount = items.size();
 	}
 }
\ No newline at end of file
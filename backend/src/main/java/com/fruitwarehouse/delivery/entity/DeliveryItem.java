@@ -10,6 +10,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,7 +27,8 @@ import java.time.LocalDateTime;
 public class DeliveryItem {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_items_id_seq")
+	@SequenceGenerator(name = "delivery_items_id_seq", sequenceName = "delivery_items_id_seq", allocationSize = 50)
 	private Long id;
 
 	@ManyToOne
@@ -49,9 +51,16 @@ public class DeliveryItem {
 	@Column(name = "created_at", nullable = false, updatable = false)
 	private LocalDateTime createdAt;
 
+	/**
+	 * Копия даты поставки: ключ секционирования delivery_items и часть внешнего ключа на поставку.
+	 */
+	@Column(name = "delivery_date", nullable = false, updatable = false)
+	private LocalDateTime deliveryDate;
+
 	@PrePersist
 	protected void onCreate() {
 		createdAt = LocalDateTime.now();
+		deliveryDate = delivery.getDeliveryDate();
 		calculateTotalPrice();
 	}
 
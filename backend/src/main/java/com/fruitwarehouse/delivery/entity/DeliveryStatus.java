@@ -12,6 +12,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Entity
 @Table(name = "delivery_statuses")
 @Getter
@@ -43,7 +46,26 @@ public class DeliveryStatus {
 		CREATED,
 		IN_PROGRESS,
 		COMPLETED,
-		CANCELLED
+		CANCELLED;
+
+		// Завершённая и отменённая поставки конечны; отменить можно только незавершённую
+		public boolean canTransitionTo(Code target) {
+			return switch (this) {
+				case CREATED -> target == IN_PROGRESS || target == CANCELLED;
+				case IN_PROGRESS -> target == COMPLETED || target == CANCELLED;
+				case COMPLETED, CANCELLED -> false;
+			};
+		}
+
+		public static Set<Code> allowedSourcesOf(Code target) {
+			Set<Code> sources = EnumSet.noneOf(Code.class);
+			for (Code code : values()) {
+				if (code.canTransitionTo(target)) {
+					sources.add(code);
+				}
+			}
+			return sources;
+		}
 	}
 
 	public DeliveryStatus(Code code, String name, String description, int sortOrder) {
@@ -0,0 +1,14 @@
+package com.fruitwarehouse.delivery.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикуется внутри транзакции импорта манифеста. Импорт создаёт поставки одним INSERT ... SELECT,
+ * поэтому вместо события на каждую поставку сообщается их число и диапазон дат.
+ */
+public record DeliveriesImportedEvent(
+		long createdDeliveries,
+		LocalDateTime firstDeliveryDate,
+		LocalDateTime lastDeliveryDate
+) {
+}
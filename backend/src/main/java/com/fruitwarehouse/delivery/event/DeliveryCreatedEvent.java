@@ -0,0 +1,31 @@
+package com.fruitwarehouse.delivery.event;
+
+import com.fruitwarehouse.delivery.entity.Delivery;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Публикуется внутри транзакции создания поставки.
+ * Слушатели должны использовать {@code @TransactionalEventListener}, чтобы видеть только закоммиченные поставки.
+ */
+public record DeliveryCreatedEvent(
+		Long deliveryId,
+		UUID deliveryNumber,
+		Long supplierId,
+		LocalDateTime deliveryDate,
+		BigDecimal totalWeight,
+		BigDecimal totalCost
+) {
+	public static DeliveryCreatedEvent of(Delivery delivery) {
+		return new DeliveryCreatedEvent(
+				delivery.getId(),
+				delivery.getDeliveryNumber(),
+				delivery.getSupplier().getId(),
+				delivery.getDeliveryDate(),
+				delivery.getTotalWeight(),
+				delivery.getTotalCost()
+		);
+	}
+}
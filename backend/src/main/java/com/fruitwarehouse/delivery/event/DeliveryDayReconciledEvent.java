@@ -0,0 +1,13 @@
+package com.fruitwarehouse.delivery.event;
+
+import java.time.LocalDate;
+
+/**
+ * Публикуется внутри транзакции сверки, если дневные итоги дня разошлись с позициями:
+ * поставки этого дня менялись в обход приложения.
+ */
+public record DeliveryDayReconciledEvent(
+		LocalDate day,
+		int correctedRows
+) {
+}
@@ -0,0 +1,14 @@
+package com.fruitwarehouse.delivery.event;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Публикуется внутри транзакции обслуживания секций: поставки до {@code detachedBefore}
+ * больше не видны приложению.
+ */
+public record DeliveryPartitionsDetachedEvent(
+		List<String> partitions,
+		LocalDate detachedBefore
+) {
+}
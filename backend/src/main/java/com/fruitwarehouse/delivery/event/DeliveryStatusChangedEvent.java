@@ -0,0 +1,14 @@
+package com.fruitwarehouse.delivery.event;
+
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+
+import java.util.List;
+
+/**
+ * Публикуется внутри транзакции смены статуса, одно событие на все перешедшие поставки.
+ */
+public record DeliveryStatusChangedEvent(
+		List<Long> deliveryIds,
+		DeliveryStatus.Code status
+) {
+}
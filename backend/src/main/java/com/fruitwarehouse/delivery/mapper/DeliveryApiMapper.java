@@ -16,8 +16,6 @@ public interface DeliveryApiMapper {
 
 	@Mapping(target = "supplierId", source = "supplier.id")
 	@Mapping(target = "supplierName", source = "supplier.name")
-	@Mapping(target = "totalWeight", ignore = true)
-	@Mapping(target = "totalCost", ignore = true)
 	DeliveryResponse toDeliveryResponse(Delivery delivery);
 
 	@Mapping(target = "productId", source = "product.id")
@@ -35,5 +33,4 @@ public interface DeliveryApiMapper {
 	}
 
 	List<DeliveryItemResponse> toDeliveryItemResponseList(List<DeliveryItem> items);
-	List<DeliveryResponse> toDeliveryResponseList(List<Delivery> deliveries);
 }
@@ -0,0 +1,104 @@
+package com.fruitwarehouse.delivery.repository;
+
+import com.fruitwarehouse.delivery.repository.dto.DailyDeliveryRollupDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Дневные итоги позиций (таблица daily_delivery_rollup, миграция v1-017).
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailyDeliveryRollupRepository {
+
+	private static final String RECONCILIATION_LOCK = "fruitwarehouse.daily_delivery_rollup";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Прибавляет итоги к строкам дня, создавая недостающие. Строки блокируются до конца
+	 * транзакции, поэтому передаются в порядке ключа: встречные транзакции не ждут друг друга по кругу.
+	 */
+	public void add(List<DailyDeliveryRollupDto> increments) {
+		String sql = """
+				INSERT INTO daily_delivery_rollup AS r (day, supplier_id, product_id, total_weight, total_cost, item_count)
+				VALUES (?, ?, ?, ?, ?, ?)
+				ON CONFLICT (day, supplier_id, product_id) DO UPDATE
+				SET total_weight = r.total_weight + EXCLUDED.total_weight,
+					total_cost = r.total_cost + EXCLUDED.total_cost,
+					item_count = r.item_count + EXCLUDED.item_count
+				""";
+
+		jdbcTemplate.batchUpdate(sql, increments, increments.size(), (statement, increment) -> {
+			statement.setDate(1, Date.valueOf(increment.day()));
+			statement.setLong(2, increment.supplierId());
+			statement.setLong(3, increment.productId());
+			statement.setBigDecimal(4, increment.totalWeight());
+			statement.setBigDecimal(5, increment.totalCost());
+			statement.setInt(6, increment.itemCount());
+		});
+	}
+
+	/**
+	 * Блокировка до конца транзакции; false — день сверяет другой экземпляр приложения.
+	 */
+	public boolean tryLockReconciliation() {
+		return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+				"SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, RECONCILIATION_LOCK));
+	}
+
+	/**
+	 * Пересчитывает строки дня из позиций: исправляет расходящиеся, добавляет недостающие
+	 * и удаляет лишние. Выполняется в транзакции REPEATABLE READ: если поставка, не попавшая
+	 * в снимок, успела изменить строку дня, запрос завершается ошибкой сериализации,
+	 * а не затирает её прибавку.
+	 *
+	 * @return число исправленных строк
+	 */
+	public int reconcileDay(LocalDate day) {
+		String sql = """
+				WITH actual AS (
+					SELECT d.supplier_id, di.product_id,
+						sum(di.weight) AS total_weight,
+						sum(di.total_price) AS total_cost,
+						count(*) AS item_count
+					FROM delivery_items di
+					JOIN deliveries d ON d.id = di.delivery_id AND d.delivery_date = di.delivery_date
+					WHERE d.delivery_date >= ? AND d.delivery_date < ?
+					AND di.delivery_date >= ? AND di.delivery_date < ?
+					GROUP BY d.supplier_id, di.product_id
+				), corrected AS (
+					INSERT INTO daily_delivery_rollup AS r (day, supplier_id, product_id, total_weight, total_cost, item_count)
+					SELECT CAST(? AS DATE), supplier_id, product_id, total_weight, total_cost, item_count
+					FROM actual
+					ORDER BY supplier_id, product_id
+					ON CONFLICT (day, supplier_id, product_id) DO UPDATE
+					SET total_weight = EXCLUDED.total_weight,
+						total_cost = EXCLUDED.total_cost,
+						item_count = EXCLUDED.item_count
+					WHERE (r.total_weight, r.total_cost, r.item_count)
+						IS DISTINCT FROM (EXCLUDED.total_weight, EXCLUDED.total_cost, EXCLUDED.item_count)
+					RETURNING 1
+				), removed AS (
+					DELETE FROM daily_delivery_rollup r
+					WHERE r.day = CAST(? AS DATE)
+					AND NOT EXISTS (
+						SELECT 1 FROM actual a
+						WHERE a.supplier_id = r.supplier_id AND a.product_id = r.product_id
+					)
+					RETURNING 1
+				)
+				SELECT (SELECT count(*) FROM corrected) + (SELECT count(*) FROM removed)
+				""";
+
+		Date from = Date.valueOf(day);
+		Date to = Date.valueOf(day.plusDays(1));
+		Integer corrected = jdbcTemplate.queryForObject(sql, Integer.class, from, to, from, to, from, from);
+		return corrected == null ? 0 : corrected;
+	}
+}
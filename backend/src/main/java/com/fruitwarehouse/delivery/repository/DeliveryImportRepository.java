@@ -0,0 +1,388 @@
+package com.fruitwarehouse.delivery.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fruitwarehouse.common.exception.ValidationException;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryImportRejectionDto;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryImportStatsDto;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Загрузка файла поставок через COPY во временную таблицу и его обработка набором SQL-операторов.
+ * Все методы должны вызываться в одной транзакции: временные таблицы удаляются при коммите.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeliveryImportRepository {
+
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	// Шаг последовательностей deliveries_id_seq и delivery_items_id_seq, как allocationSize сущностей
+	private static final int ID_BLOCK_SIZE = 50;
+
+	private static final String[] NDJSON_FIELDS = {"deliveryRef", "supplierId", "deliveryDate", "productId", "weight"};
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+	private final DataSource dataSource;
+	private final ObjectMapper objectMapper;
+
+	/**
+	 * Создаёт промежуточную таблицу с текстовыми колонками: типы проверяются уже после загрузки,
+	 * чтобы одна некорректная строка не прерывала COPY всего файла.
+	 * Нумерация строк начинается со второй, так как первая строка CSV — заголовок;
+	 * строки NDJSON передают свой номер явно.
+	 */
+	public void createStagingTable() {
+		// Группировка и соединения по всему файлу не должны уходить на диск при стандартном work_mem
+		jdbcTemplate.getJdbcTemplate().execute("SET LOCAL work_mem = '64MB'");
+		jdbcTemplate.getJdbcTemplate().execute("""
+				CREATE TEMP TABLE delivery_import_rows (
+					line_no BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 2),
+					delivery_ref TEXT,
+					supplier_id TEXT,
+					delivery_date TEXT,
+					product_id TEXT,
+					weight TEXT,
+					parse_error TEXT
+				) ON COMMIT DROP
+				""");
+	}
+
+	public void copyCsv(InputStream input) {
+		// Заголовок должен совпадать со списком колонок, это проверяет HEADER MATCH
+		copyIn(connection -> connection.getCopyAPI().copyIn("""
+				COPY delivery_import_rows (delivery_ref, supplier_id, delivery_date, product_id, weight)
+				FROM STDIN WITH (FORMAT csv, HEADER MATCH, ENCODING 'UTF8')
+				""", input, COPY_BUFFER_SIZE));
+	}
+
+	public void copyNdjson(InputStream input) {
+		// Строки JSON разбираются по одной и сразу уходят в COPY как CSV, файл целиком в памяти не держится
+		copyIn(connection -> {
+			PGCopyOutputStream copy = new PGCopyOutputStream(connection, """
+					COPY delivery_import_rows (line_no, delivery_ref, supplier_id, delivery_date, product_id, weight, parse_error)
+					FROM STDIN WITH (FORMAT csv, ENCODING 'UTF8')
+					""", COPY_BUFFER_SIZE);
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+				 Writer writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8))) {
+				long lineNo = 0;
+				String line;
+				while ((line = reader.readLine()) != null) {
+					lineNo++;
+					if (!line.isBlank()) {
+						writeNdjsonRow(writer, lineNo, line);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Разбирает текстовые значения в типизированную таблицу и помечает строки с ошибками.
+	 * Для каждой строки сохраняется первая найденная ошибка; если ошибочна хотя бы одна строка поставки,
+	 * отклоняется вся поставка.
+	 */
+	public void validateRows() {
+		// Даты приводятся по одному разу на уникальное значение: в файле их обычно единицы,
+		// а приведение с перехватом исключения заметно дороже обычного
+		jdbcTemplate.getJdbcTemplate().execute("""
+				CREATE TEMP TABLE delivery_import_items ON COMMIT DROP AS
+				SELECT
+					r.line_no,
+					NULLIF(trim(r.delivery_ref), '') AS delivery_ref,
+					CASE WHEN r.supplier_id ~ '^\\s*\\d{1,18}\\s*$' THEN trim(r.supplier_id)::BIGINT END AS supplier_id,
+					dates.parsed AS delivery_date,
+					CASE WHEN r.product_id ~ '^\\s*\\d{1,18}\\s*$' THEN trim(r.product_id)::BIGINT END AS product_id,
+					CASE WHEN r.weight ~ '^\\s*\\d{1,7}(\\.\\d{1,3})?\\s*$' THEN trim(r.weight)::NUMERIC(10,3) END AS weight,
+					CAST(NULL AS NUMERIC(10,2)) AS unit_price,
+					CASE
+						WHEN r.parse_error IS NOT NULL THEN r.parse_error
+						WHEN NULLIF(trim(r.delivery_ref), '') IS NULL THEN 'delivery_ref is required'
+						WHEN r.supplier_id !~ '^\\s*\\d{1,18}\\s*$' OR r.supplier_id IS NULL THEN 'Invalid supplier_id: ' || coalesce(r.supplier_id, '<empty>')
+						WHEN dates.parsed IS NULL THEN 'Invalid delivery_date: ' || coalesce(r.delivery_date, '<empty>')
+						WHEN r.product_id !~ '^\\s*\\d{1,18}\\s*$' OR r.product_id IS NULL THEN 'Invalid product_id: ' || coalesce(r.product_id, '<empty>')
+						WHEN r.weight !~ '^\\s*\\d{1,7}(\\.\\d{1,3})?\\s*$' OR r.weight IS NULL THEN 'Invalid weight: ' || coalesce(r.weight, '<empty>')
+						WHEN trim(r.weight)::NUMERIC <= 0 THEN 'Weight must be positive'
+					END AS error
+				FROM delivery_import_rows r
+				LEFT JOIN (
+					SELECT value, fruitwarehouse.try_cast_timestamp(value) AS parsed
+					FROM (SELECT DISTINCT delivery_date AS value FROM delivery_import_rows) v
+				) dates ON dates.value = r.delivery_date
+				""");
+		jdbcTemplate.getJdbcTemplate().execute("ANALYZE delivery_import_items");
+
+		jdbcTemplate.getJdbcTemplate().execute("""
+				UPDATE delivery_import_items i
+				SET error = CASE
+					WHEN NOT EXISTS (SELECT 1 FROM suppliers s WHERE s.id = i.supplier_id)
+						THEN 'Supplier with id ' || i.supplier_id || ' not found'
+					ELSE 'Product with id ' || i.product_id || ' not found'
+				END
+				WHERE i.error IS NULL
+				AND (NOT EXISTS (SELECT 1 FROM suppliers s WHERE s.id = i.supplier_id)
+					OR NOT EXISTS (SELECT 1 FROM products p WHERE p.id = i.product_id))
+				""");
+
+		// Та же семантика, что и у findActivePrice: самый поздний effective_from, покрывающий дату поставки
+		jdbcTemplate.getJdbcTemplate().execute("""
+				UPDATE delivery_import_items i
+				SET unit_price = (
+					SELECT spp.price
+					FROM supplier_product_prices spp
+					WHERE spp.supplier_id = i.supplier_id
+					AND spp.product_id = i.product_id
+					AND spp.effective_from <= i.delivery_date::DATE
+					AND (spp.effective_to IS NULL OR spp.effective_to >= i.delivery_date::DATE)
+					ORDER BY spp.effective_from DESC
+					LIMIT 1
+				)
+				WHERE i.error IS NULL
+				""");
+
+		jdbcTemplate.getJdbcTemplate().execute("""
+				UPDATE delivery_import_items i
+				SET error = CASE
+					WHEN i.unit_price IS NULL
+						THEN 'No active price found for supplier ' || i.supplier_id || ', product ' || i.product_id
+							|| ' on date ' || i.delivery_date::DATE
+					ELSE 'Total price exceeds the allowed maximum'
+				END
+				WHERE i.error IS NULL
+				AND (i.unit_price IS NULL OR round(i.weight * i.unit_price, 2) >= 100000000)
+				""");
+
+		jdbcTemplate.getJdbcTemplate().execute("""
+				UPDATE delivery_import_items i
+				SET error = 'Lines of delivery ' || i.delivery_ref || ' disagree on supplier_id or delivery_date'
+				WHERE i.error IS NULL
+				AND i.delivery_ref IN (
+					SELECT delivery_ref
+					FROM delivery_import_items
+					GROUP BY delivery_ref
+					HAVING count(DISTINCT supplier_id) > 1 OR count(DISTINCT delivery_date) > 1
+				)
+				""");
+
+		jdbcTemplate.getJdbcTemplate().execute("""
+				UPDATE delivery_import_items i
+				SET error = 'Delivery ' || i.delivery_ref || ' rejected because another of its lines is invalid'
+				WHERE i.error IS NULL
+				AND i.delivery_ref IN (
+					SELECT delivery_ref
+					FROM delivery_import_items
+					WHERE error IS NOT NULL
+					AND delivery_ref IS NOT NULL
+				)
+				""");
+	}
+
+	/**
+	 * Вставляет поставки и их позиции одним оператором. Идентификаторы поставок выделяются
+	 * в CTE, поэтому позиции связываются с поставкой без повторного чтения вставленных строк.
+	 * Идентификаторы берутся блоками, как у пулового оптимизатора Hibernate: один nextval
+	 * на {@value #ID_BLOCK_SIZE} строк даёт значения от {@code nextval - 49} до {@code nextval}.
+	 * Значение меньше шага бывает только у новой последовательности; оно пропускается,
+	 * чтобы блок не уходил в неположительные идентификаторы.
+	 */
+	public long insertValidDeliveries(Long statusId) {
+		String sql = """
+				WITH refs AS MATERIALIZED (
+					SELECT
+						row_number() OVER (ORDER BY delivery_ref) - 1 AS n,
+						delivery_ref,
+						min(supplier_id) AS supplier_id,
+						min(delivery_date) AS delivery_date,
+						sum(weight) AS total_weight,
+						sum(round(weight * unit_price, 2)) AS total_cost,
+						count(*) AS item_count
+					FROM delivery_import_items
+					WHERE error IS NULL
+					GROUP BY delivery_ref
+				), delivery_blocks AS MATERIALIZED (
+					SELECT block, CASE WHEN hi < :blockSize THEN nextval('deliveries_id_seq') ELSE hi END AS hi
+					FROM (
+						SELECT block, nextval('deliveries_id_seq') AS hi
+						FROM generate_series(0, (SELECT (count(*) + :blockSize - 1) / :blockSize - 1 FROM refs)) block
+					) b
+				), new_deliveries AS MATERIALIZED (
+					SELECT b.hi - :blockSize + 1 + r.n % :blockSize AS id, r.*
+					FROM refs r
+					JOIN delivery_blocks b ON b.block = r.n / :blockSize
+				), new_items AS MATERIALIZED (
+					SELECT
+						row_number() OVER (ORDER BY i.line_no) - 1 AS n,
+						d.id AS delivery_id,
+						d.delivery_date,
+						i.product_id,
+						i.weight,
+						i.unit_price
+					FROM delivery_import_items i
+					JOIN new_deliveries d ON d.delivery_ref = i.delivery_ref
+					WHERE i.error IS NULL
+				), item_blocks AS MATERIALIZED (
+					SELECT block, CASE WHEN hi < :blockSize THEN nextval('delivery_items_id_seq') ELSE hi END AS hi
+					FROM (
+						SELECT block, nextval('delivery_items_id_seq') AS hi
+						FROM generate_series(0, (SELECT (count(*) + :blockSize - 1) / :blockSize - 1 FROM new_items)) block
+					) b
+				), inserted_deliveries AS (
+					INSERT INTO deliveries (id, supplier_id, delivery_number, delivery_date, status_id,
+											total_weight, total_cost, item_count, created_at, version, updated_at)
+					SELECT id, supplier_id, fruitwarehouse.uuid_generate_v7(), delivery_date, :statusId,
+						total_weight, total_cost, item_count, now(), 0, now()
+					FROM new_deliveries
+				)
+				INSERT INTO delivery_items (id, delivery_id, product_id, weight, unit_price, total_price, created_at,
+											delivery_date)
+				SELECT
+					b.hi - :blockSize + 1 + i.n % :blockSize,
+					i.delivery_id,
+					i.product_id,
+					i.weight,
+					i.unit_price,
+					round(i.weight * i.unit_price, 2),
+					now(),
+					i.delivery_date
+				FROM new_items i
+				JOIN item_blocks b ON b.block = i.n / :blockSize
+				""";
+
+		return jdbcTemplate.update(sql, new MapSqlParameterSource()
+				.addValue("statusId", statusId)
+				.addValue("blockSize", ID_BLOCK_SIZE));
+	}
+
+	/**
+	 * Прибавляет принятые строки к дневным итогам, как DailyDeliveryRollupService для поставок
+	 * из API. Ключи идут по порядку, чтобы не взаимоблокироваться с параллельным созданием поставок.
+	 */
+	public void addToDailyRollup() {
+		jdbcTemplate.getJdbcTemplate().execute("""
+				INSERT INTO daily_delivery_rollup AS r (day, supplier_id, product_id, total_weight, total_cost, item_count)
+				SELECT delivery_date::DATE, supplier_id, product_id,
+					sum(weight), sum(round(weight * unit_price, 2)), count(*)
+				FROM delivery_import_items
+				WHERE error IS NULL
+				GROUP BY delivery_date::DATE, supplier_id, product_id
+				ORDER BY delivery_date::DATE, supplier_id, product_id
+				ON CONFLICT (day, supplier_id, product_id) DO UPDATE
+				SET total_weight = r.total_weight + EXCLUDED.total_weight,
+					total_cost = r.total_cost + EXCLUDED.total_cost,
+					item_count = r.item_count + EXCLUDED.item_count
+				""");
+	}
+
+	public DeliveryImportStatsDto getStats() {
+		String sql = """
+				SELECT
+					count(*) AS total_rows,
+					count(*) FILTER (WHERE error IS NOT NULL) AS rejected_rows,
+					count(DISTINCT delivery_ref) FILTER (WHERE error IS NULL) AS created_deliveries,
+					count(DISTINCT delivery_ref) FILTER (WHERE error IS NOT NULL) AS rejected_deliveries,
+					min(delivery_date) FILTER (WHERE error IS NULL) AS first_delivery_date,
+					max(delivery_date) FILTER (WHERE error IS NULL) AS last_delivery_date
+				FROM delivery_import_items
+				""";
+
+		return jdbcTemplate.queryForObject(sql, new MapSqlParameterSource(), (rs, rowNum) ->
+				new DeliveryImportStatsDto(
+						rs.getLong("total_rows"),
+						rs.getLong("rejected_rows"),
+						rs.getLong("created_deliveries"),
+						rs.getLong("rejected_deliveries"),
+						rs.getObject("first_delivery_date", LocalDateTime.class),
+						rs.getObject("last_delivery_date", LocalDateTime.class)));
+	}
+
+	public List<DeliveryImportRejectionDto> findRejections(int limit) {
+		String sql = """
+				SELECT line_no, delivery_ref, error
+				FROM delivery_import_items
+				WHERE error IS NOT NULL
+				ORDER BY line_no
+				LIMIT :limit
+				""";
+
+		return jdbcTemplate.query(sql, new MapSqlParameterSource("limit", limit), (rs, rowNum) ->
+				new DeliveryImportRejectionDto(
+						rs.getLong("line_no"),
+						rs.getString("delivery_ref"),
+						rs.getString("error")));
+	}
+
+	private void copyIn(CopyCallback callback) {
+		// Соединение текущей транзакции: COPY должен видеть временные таблицы этой сессии
+		Connection connection = DataSourceUtils.getConnection(dataSource);
+		try {
+			callback.copy(connection.unwrap(PGConnection.class));
+		} catch (SQLException | IOException e) {
+			throw new ValidationException("Import file could not be loaded: " + e.getMessage(), e);
+		} finally {
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+
+	private void writeNdjsonRow(Writer writer, long lineNo, String line) throws IOException {
+		String[] values = new String[NDJSON_FIELDS.length];
+		String parseError = null;
+		try {
+			JsonNode node = objectMapper.readTree(line);
+			if (node.isObject()) {
+				for (int i = 0; i < NDJSON_FIELDS.length; i++) {
+					JsonNode value = node.get(NDJSON_FIELDS[i]);
+					values[i] = value == null || value.isNull() ? null : value.asText();
+				}
+			} else {
+				parseError = "Line is not a JSON object";
+			}
+		} catch (JsonProcessingException e) {
+			parseError = "Malformed JSON: " + e.getOriginalMessage();
+		}
+
+		writer.write(Long.toString(lineNo));
+		for (String value : values) {
+			writer.write(',');
+			writeCsvValue(writer, value);
+		}
+		writer.write(',');
+		writeCsvValue(writer, parseError);
+		writer.write('\n');
+	}
+
+	private static void writeCsvValue(Writer writer, String value) throws IOException {
+		// Пустое поле без кавычек COPY читает как NULL, любое значение в кавычках — как строку
+		if (value == null) {
+			return;
+		}
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+
+	@FunctionalInterface
+	private interface CopyCallback {
+		void copy(PGConnection connection) throws SQLException, IOException;
+	}
+}
@@ -0,0 +1,58 @@
+package com.fruitwarehouse.delivery.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Помесячные секции deliveries и delivery_items. Создание и отсоединение выполняют функции
+ * миграции v1-016, репозиторий только вызывает их под общей блокировкой.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeliveryPartitionRepository {
+
+	private static final String MAINTENANCE_LOCK = "fruitwarehouse.delivery_partitions";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Блокировка до конца транзакции: экземпляры приложения, стартующие одновременно,
+	 * не создают одну и ту же секцию параллельно.
+	 */
+	public void lockMaintenance() {
+		jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> {
+		}, MAINTENANCE_LOCK);
+	}
+
+	/**
+	 * Создаёт недостающие секции месяцев с {@code fromMonth} по {@code toMonth}.
+	 *
+	 * @return имена созданных секций поставок
+	 */
+	public List<String> createPartitions(LocalDate fromMonth, LocalDate toMonth) {
+		return jdbcTemplate.queryForList("SELECT fruitwarehouse.create_delivery_partitions(?, ?)",
+				String.class, fromMonth, toMonth);
+	}
+
+	/**
+	 * Отсоединяет секции месяцев раньше {@code beforeMonth}; таблицы остаются в схеме.
+	 *
+	 * @return имена отсоединённых секций поставок
+	 */
+	public List<String> detachPartitions(LocalDate beforeMonth) {
+		return jdbcTemplate.queryForList("SELECT fruitwarehouse.detach_delivery_partitions(?)",
+				String.class, beforeMonth);
+	}
+
+	/**
+	 * Статистика родительских таблиц: автоочистка собирает её только для секций,
+	 * а без неё планировщик ошибается в оценках соединений по всем секциям.
+	 */
+	public void analyze() {
+		jdbcTemplate.execute("ANALYZE fruitwarehouse.deliveries, fruitwarehouse.delivery_items");
+	}
+}
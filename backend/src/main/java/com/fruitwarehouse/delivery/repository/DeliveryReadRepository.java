@@ -0,0 +1,270 @@
+package com.fruitwarehouse.delivery.repository;
+
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryItemResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryKeyDto;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryVersionDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Путь чтения поставок без управляемых сущностей: строки результата сразу становятся
+ * {@link DeliveryResponse} и {@link DeliveryItemResponse}. Поставки читаются одним запросом,
+ * их позиции — вторым, по массиву идентификаторов и диапазону дат поставок, чтобы PostgreSQL
+ * читал только секции delivery_items этих месяцев.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeliveryReadRepository {
+
+	private static final int STREAM_FETCH_SIZE = 1000;
+
+	private static final String DELIVERY_SELECT = """
+			SELECT
+				d.id,
+				d.delivery_number,
+				d.supplier_id,
+				s.name AS supplier_name,
+				d.delivery_date,
+				st.name AS status,
+				d.created_at,
+				d.item_count,
+				d.total_weight,
+				d.total_cost
+			FROM deliveries d
+			JOIN suppliers s ON s.id = d.supplier_id
+			JOIN delivery_statuses st ON st.id = d.status_id
+			""";
+
+	private static final RowMapper<DeliveryResponse> DELIVERY_ROW_MAPPER = (rs, rowNum) -> DeliveryResponse.builder()
+			.id(rs.getLong("id"))
+			.deliveryNumber(rs.getObject("delivery_number", UUID.class))
+			.supplierId(rs.getLong("supplier_id"))
+			.supplierName(rs.getString("supplier_name"))
+			.deliveryDate(toLocalDateTime(rs.getTimestamp("delivery_date")))
+			.status(rs.getString("status"))
+			.createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+			.itemCount(rs.getInt("item_count"))
+			.totalWeight(rs.getBigDecimal("total_weight"))
+			.totalCost(rs.getBigDecimal("total_cost"))
+			.build();
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	public Optional<DeliveryResponse> findById(Long id) {
+		return withItems(jdbcTemplate.query(DELIVERY_SELECT + "WHERE d.id = :id",
+				new MapSqlParameterSource("id", id), DELIVERY_ROW_MAPPER)).stream().findFirst();
+	}
+
+	/**
+	 * Версия поставки для условных запросов. Ответ несёт названия поставщика, статуса и продуктов,
+	 * которые меняются без изменения версии поставки, поэтому к версии добавляется хэш этих названий.
+	 * Позиции читаются по индексу (delivery_id, product_id) только из секции месяца поставки,
+	 * сами строки позиций не передаются.
+	 */
+	public Optional<DeliveryVersionDto> findVersionById(Long id) {
+		String sql = """
+				SELECT
+					d.version,
+					d.updated_at,
+					md5(concat_ws('|', s.name, st.name, (
+						SELECT string_agg(concat_ws('/', p.name, pt.name, p.variety_name), '|' ORDER BY i.id)
+						FROM delivery_items i
+						JOIN products p ON p.id = i.product_id
+						JOIN product_types pt ON pt.id = p.product_type_id
+						WHERE i.delivery_id = d.id
+						  AND i.delivery_date = d.delivery_date
+					))) AS names_hash
+				FROM deliveries d
+				JOIN suppliers s ON s.id = d.supplier_id
+				JOIN delivery_statuses st ON st.id = d.status_id
+				WHERE d.id = :id
+				""";
+
+		return jdbcTemplate.query(sql, new MapSqlParameterSource("id", id),
+				(rs, rowNum) -> new DeliveryVersionDto(rs.getLong("version"),
+						toLocalDateTime(rs.getTimestamp("updated_at")), rs.getString("names_hash")))
+				.stream().findFirst();
+	}
+
+	public Optional<DeliveryResponse> findByDeliveryNumber(UUID deliveryNumber) {
+		return withItems(jdbcTemplate.query(DELIVERY_SELECT + "WHERE d.delivery_number = :deliveryNumber",
+				new MapSqlParameterSource("deliveryNumber", deliveryNumber), DELIVERY_ROW_MAPPER)).stream().findFirst();
+	}
+
+	/**
+	 * Поставки с позициями в порядке переданных идентификаторов; отсутствующие пропускаются.
+	 */
+	public List<DeliveryResponse> findByIds(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+
+		return inOrderOf(ids, withItems(jdbcTemplate.query(DELIVERY_SELECT + "WHERE d.id = ANY(:ids)",
+				new MapSqlParameterSource("ids", ids.toArray(Long[]::new)), DELIVERY_ROW_MAPPER)));
+	}
+
+	/**
+	 * Поставки с позициями в порядке переданных ключей. Диапазон дат ключей ограничивает
+	 * и поставки, и позиции секциями этих месяцев.
+	 */
+	public List<DeliveryResponse> findByKeys(List<DeliveryKeyDto> keys) {
+		if (keys.isEmpty()) {
+			return List.of();
+		}
+
+		List<Long> ids = keys.stream().map(DeliveryKeyDto::id).toList();
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("ids", ids.toArray(Long[]::new))
+				.addValue("minDate", keys.stream().map(DeliveryKeyDto::deliveryDate)
+						.min(Comparator.naturalOrder()).orElseThrow())
+				.addValue("maxDate", keys.stream().map(DeliveryKeyDto::deliveryDate)
+						.max(Comparator.naturalOrder()).orElseThrow());
+		return inOrderOf(ids, withItems(jdbcTemplate.query(
+				DELIVERY_SELECT + "WHERE d.id = ANY(:ids) AND d.delivery_date BETWEEN :minDate AND :maxDate",
+				params, DELIVERY_ROW_MAPPER)));
+	}
+
+	/**
+	 * Ключи страницы поставок поставщика в порядке (delivery_date, id) по убыванию, строго после курсора;
+	 * без курсора — с самой поздней. Запрос читает только индекс idx_deliveries_supplier_date_id,
+	 * а поставки страницы с позициями загружает {@link #findByKeys}: результат соединения поставок
+	 * с позициями повторял бы все колонки поставки в каждой строке позиции и не делился бы на страницы.
+	 */
+	public List<DeliveryKeyDto> findKeyPageOfSupplier(Long supplierId, LocalDateTime cursorDate, Long cursorId,
+													   int limit) {
+		String sql = "SELECT d.id, d.delivery_date FROM deliveries d WHERE d.supplier_id = :supplierId " +
+				(cursorDate != null
+						? "AND d.delivery_date <= :cursorDate AND (d.delivery_date, d.id) < (:cursorDate, :cursorId) "
+						: "") +
+				"ORDER BY d.delivery_date DESC, d.id DESC LIMIT :limit";
+
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("supplierId", supplierId)
+				.addValue("cursorDate", cursorDate)
+				.addValue("cursorId", cursorId)
+				.addValue("limit", limit);
+		return jdbcTemplate.query(sql, params,
+				(rs, rowNum) -> new DeliveryKeyDto(rs.getLong("id"), toLocalDateTime(rs.getTimestamp("delivery_date"))));
+	}
+
+	/**
+	 * Страница поставок не раньше {@code from}, строго после курсора в порядке (delivery_date, id)
+	 * по убыванию. Сравнение строк становится условием поиска по индексу idx_deliveries_date_id,
+	 * поэтому поставки с той же датой, что и у курсора, не перебираются фильтром. Сравнение строк
+	 * не отсекает секции, поэтому верхняя граница даты повторена отдельным условием.
+	 */
+	public List<DeliveryResponse> findPageBefore(LocalDateTime from, LocalDateTime cursorDate, Long cursorId, int limit) {
+		String sql = DELIVERY_SELECT + """
+				WHERE d.delivery_date >= :from
+				  AND d.delivery_date <= :cursorDate
+				  AND (d.delivery_date, d.id) < (:cursorDate, :cursorId)
+				ORDER BY d.delivery_date DESC, d.id DESC
+				LIMIT :limit
+				""";
+
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("from", from)
+				.addValue("cursorDate", cursorDate)
+				.addValue("cursorId", cursorId)
+				.addValue("limit", limit);
+		return withItems(jdbcTemplate.query(sql, params, DELIVERY_ROW_MAPPER));
+	}
+
+	/**
+	 * Поставки поставщика без позиций, потоком: для списка достаточно хранимых итогов. Драйвер читает
+	 * строки курсором порциями по {@value #STREAM_FETCH_SIZE}, поэтому память не зависит от числа поставок.
+	 * Курсор PostgreSQL работает только внутри транзакции — вне её результат приходит целиком.
+	 * Поток нужно закрыть.
+	 */
+	public Stream<DeliveryResponse> streamSummariesBySupplierId(Long supplierId) {
+		return jdbcTemplate.getJdbcOperations().queryForStream(connection -> {
+			PreparedStatement statement = connection.prepareStatement(DELIVERY_SELECT + "WHERE d.supplier_id = ?");
+			statement.setFetchSize(STREAM_FETCH_SIZE);
+			statement.setLong(1, supplierId);
+			return statement;
+		}, DELIVERY_ROW_MAPPER);
+	}
+
+	private List<DeliveryResponse> withItems(List<DeliveryResponse> deliveries) {
+		if (deliveries.isEmpty()) {
+			return deliveries;
+		}
+
+		String sql = """
+				SELECT
+					i.delivery_id,
+					i.id,
+					i.product_id,
+					p.name AS product_name,
+					pt.name AS product_type,
+					p.variety_name,
+					i.weight,
+					i.unit_price,
+					i.total_price
+				FROM delivery_items i
+				JOIN products p ON p.id = i.product_id
+				JOIN product_types pt ON pt.id = p.product_type_id
+				WHERE i.delivery_id = ANY(:deliveryIds)
+				  AND i.delivery_date BETWEEN :minDate AND :maxDate
+				ORDER BY i.delivery_id, i.id
+				""";
+
+		Long[] deliveryIds = deliveries.stream().map(DeliveryResponse::id).toArray(Long[]::new);
+		MapSqlParameterSource params = new MapSqlParameterSource()
+				.addValue("deliveryIds", deliveryIds)
+				.addValue("minDate", deliveries.stream().map(DeliveryResponse::deliveryDate)
+						.min(Comparator.naturalOrder()).orElseThrow())
+				.addValue("maxDate", deliveries.stream().map(DeliveryResponse::deliveryDate)
+						.max(Comparator.naturalOrder()).orElseThrow());
+		Map<Long, List<DeliveryItemResponse>> itemsByDelivery = new HashMap<>();
+		jdbcTemplate.query(sql, params, rs -> {
+			itemsByDelivery.computeIfAbsent(rs.getLong("delivery_id"), id -> new ArrayList<>())
+					.add(DeliveryItemResponse.builder()
+							.id(rs.getLong("id"))
+							.productId(rs.getLong("product_id"))
+							.productName(rs.getString("product_name"))
+							.productType(rs.getString("product_type"))
+							.variety(rs.getString("variety_name"))
+							.weight(rs.getBigDecimal("weight"))
+							.unitPrice(rs.getBigDecimal("unit_price"))
+							.totalPrice(rs.getBigDecimal("total_price"))
+							.build());
+		});
+
+		return deliveries.stream()
+				.map(delivery -> delivery.toBuilder()
+						.items(itemsByDelivery.getOrDefault(delivery.id(), List.of()))
+						.build())
+				.toList();
+	}
+
+	private static List<DeliveryResponse> inOrderOf(List<Long> ids, List<DeliveryResponse> deliveries) {
+		Map<Long, DeliveryResponse> byId = new HashMap<>();
+		deliveries.forEach(delivery -> byId.put(delivery.id(), delivery));
+		return ids.stream()
+				.map(byId::get)
+				.filter(Objects::nonNull)
+				.toList();
+	}
+
+	private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+		return timestamp != null ? timestamp.toLocalDateTime() : null;
+	}
+}
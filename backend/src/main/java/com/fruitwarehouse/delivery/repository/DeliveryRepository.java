@@ -2,20 +2,33 @@ package com.fruitwarehouse.delivery.repository;
 
 import com.fruitwarehouse.delivery.entity.Delivery;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
+public interface DeliveryRepository extends JpaRepository<Delivery, Long>, JpaSpecificationExecutor<Delivery> {
 
 	Optional<Delivery> findByDeliveryNumber(UUID deliveryNumber);
 
+	@Query("""
+        SELECT d FROM Delivery d
+        LEFT JOIN FETCH d.supplier
+        LEFT JOIN FETCH d.status
+        LEFT JOIN FETCH d.items i
+        LEFT JOIN FETCH i.product p
+        LEFT JOIN FETCH p.productType
+        WHERE d.deliveryNumber IN :deliveryNumbers
+        """)
+	List<Delivery> findByDeliveryNumberInWithDetails(@Param("deliveryNumbers") Collection<UUID> deliveryNumbers);
+
 	@Query("SELECT d FROM Delivery d LEFT JOIN FETCH d.items WHERE d.id = :id")
 	Optional<Delivery> findByIdWithItems(@Param("id") Long id);
 
@@ -32,13 +45,4 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
 	);
 
 	List<Delivery> findBySupplierId(Long supplierId);
-
-	@Query("""
-        SELECT d FROM Delivery d
-        LEFT JOIN FETCH d.supplier
-        LEFT JOIN FETCH d.items i
-        LEFT JOIN FETCH i.product
-        WHERE d.supplier.id = :supplierId
-        """)
-	List<Delivery> findBySupplierIdWithDetails(@Param("supplierId") Long supplierId);
 }
@@ -0,0 +1,126 @@
+package com.fruitwarehouse.delivery.repository;
+
+import com.fruitwarehouse.common.exception.ValidationException;
+import com.fruitwarehouse.delivery.entity.Delivery;
+import com.fruitwarehouse.delivery.entity.DeliveryItem;
+import com.fruitwarehouse.delivery.entity.DeliveryItem_;
+import com.fruitwarehouse.delivery.entity.DeliveryStatus_;
+import com.fruitwarehouse.delivery.entity.Delivery_;
+import com.fruitwarehouse.delivery.service.dto.DeliverySearchCursor;
+import com.fruitwarehouse.product.entity.Product_;
+import com.fruitwarehouse.product.entity.ProductType_;
+import com.fruitwarehouse.supplier.entity.Supplier_;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Условия поиска поставок. Ссылки на поставщика и статус сравниваются по внешнему ключу,
+ * без соединения со справочниками; условия по позициям — подзапросом EXISTS, чтобы поставка
+ * с несколькими подходящими позициями не повторялась в результате.
+ */
+public final class DeliverySpecifications {
+
+	private DeliverySpecifications() {
+	}
+
+	public static Specification<Delivery> deliveredBetween(LocalDateTime from, LocalDateTime to) {
+		return (root, query, cb) -> {
+			List<Predicate> conditions = new ArrayList<>(2);
+			if (from != null) {
+				conditions.add(cb.greaterThanOrEqualTo(root.get(Delivery_.deliveryDate), from));
+			}
+			if (to != null) {
+				conditions.add(cb.lessThanOrEqualTo(root.get(Delivery_.deliveryDate), to));
+			}
+			return cb.and(conditions.toArray(Predicate[]::new));
+		};
+	}
+
+	public static Specification<Delivery> fromSuppliers(Collection<Long> supplierIds) {
+		return (root, query, cb) -> root.get(Delivery_.supplier).get(Supplier_.id).in(supplierIds);
+	}
+
+	public static Specification<Delivery> hasStatus(Long statusId) {
+		return (root, query, cb) -> cb.equal(root.get(Delivery_.status).get(DeliveryStatus_.id), statusId);
+	}
+
+	public static Specification<Delivery> totalWeightBetween(BigDecimal min, BigDecimal max) {
+		return between(Delivery_.totalWeight, min, max);
+	}
+
+	public static Specification<Delivery> totalCostBetween(BigDecimal min, BigDecimal max) {
+		return between(Delivery_.totalCost, min, max);
+	}
+
+	/**
+	 * Поставки, в которых есть позиция с одним из продуктов и (если задан) продуктом данного типа.
+	 * Оба условия относятся к одной и той же позиции.
+	 */
+	public static Specification<Delivery> hasItem(Collection<Long> productIds, Long productTypeId) {
+		return (root, query, cb) -> {
+			Subquery<Long> items = query.subquery(Long.class);
+			Root<DeliveryItem> item = items.from(DeliveryItem.class);
+			List<Predicate> conditions = new ArrayList<>(3);
+			conditions.add(cb.equal(item.get(DeliveryItem_.delivery), root));
+			if (productIds != null && !productIds.isEmpty()) {
+				conditions.add(item.get(DeliveryItem_.product).get(Product_.id).in(productIds));
+			}
+			if (productTypeId != null) {
+				conditions.add(cb.equal(
+						item.get(DeliveryItem_.product).get(Product_.productType).get(ProductType_.id), productTypeId));
+			}
+			return cb.exists(items.select(item.get(DeliveryItem_.id)).where(conditions.toArray(Predicate[]::new)));
+		};
+	}
+
+	/**
+	 * Поставки строго после курсора в порядке (поле сортировки, id). Помимо точного условия
+	 * добавляется нестрогая граница по полю сортировки: по ней индекс (поле, id) начинает
+	 * просмотр с позиции курсора, а не с начала.
+	 */
+	public static Specification<Delivery> after(DeliverySearchCursor cursor, Sort.Direction direction) {
+		try {
+			return switch (cursor.sort()) {
+				case DELIVERY_DATE -> after(Delivery_.deliveryDate, LocalDateTime.parse(cursor.key()), cursor.id(), direction);
+				case TOTAL_WEIGHT -> after(Delivery_.totalWeight, new BigDecimal(cursor.key()), cursor.id(), direction);
+				case TOTAL_COST -> after(Delivery_.totalCost, new BigDecimal(cursor.key()), cursor.id(), direction);
+			};
+		} catch (DateTimeParseException | NumberFormatException e) {
+			throw new ValidationException("Invalid cursor: " + cursor.encode());
+		}
+	}
+
+	private static <T extends Comparable<? super T>> Specification<Delivery> after(
+			SingularAttribute<Delivery, T> attribute, T key, Long id, Sort.Direction direction) {
+		return (root, query, cb) -> direction.isDescending()
+				? cb.and(cb.lessThanOrEqualTo(root.get(attribute), key),
+						cb.or(cb.lessThan(root.get(attribute), key), cb.lessThan(root.get(Delivery_.id), id)))
+				: cb.and(cb.greaterThanOrEqualTo(root.get(attribute), key),
+						cb.or(cb.greaterThan(root.get(attribute), key), cb.greaterThan(root.get(Delivery_.id), id)));
+	}
+
+	private static Specification<Delivery> between(SingularAttribute<Delivery, BigDecimal> attribute,
+												   BigDecimal min, BigDecimal max) {
+		return (root, query, cb) -> {
+			List<Predicate> conditions = new ArrayList<>(2);
+			if (min != null) {
+				conditions.add(cb.greaterThanOrEqualTo(root.get(attribute), min));
+			}
+			if (max != null) {
+				conditions.add(cb.lessThanOrEqualTo(root.get(attribute), max));
+			}
+			return cb.and(conditions.toArray(Predicate[]::new));
+		};
+	}
+}
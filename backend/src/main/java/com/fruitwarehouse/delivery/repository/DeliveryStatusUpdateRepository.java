@@ -0,0 +1,45 @@
+package com.fruitwarehouse.delivery.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Смена статуса множества поставок одним оператором, без загрузки сущностей.
+ * Идентификаторы передаются массивом, поэтому план запроса не зависит от размера пачки.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DeliveryStatusUpdateRepository {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Переводит в статус {@code toStatusId} поставки из {@code deliveryIds}, находящиеся в одном из
+	 * статусов {@code fromStatusIds}. Проверка текущего статуса выполняется в том же UPDATE,
+	 * поэтому параллельная смена статуса не приводит к недопустимому переходу. Версия строки
+	 * увеличивается так же, как при обновлении через Hibernate, иначе ETag поставки не сменится.
+	 *
+	 * @return идентификаторы поставок, статус которых изменён
+	 */
+	public List<Long> updateStatus(Collection<Long> deliveryIds, Collection<Long> fromStatusIds, Long toStatusId) {
+		String sql = """
+				UPDATE deliveries
+				SET status_id = ?, version = version + 1, updated_at = now()
+				WHERE id = ANY(?) AND status_id = ANY(?)
+				RETURNING id
+				""";
+
+		return jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setLong(1, toStatusId);
+			statement.setArray(2, connection.createArrayOf("bigint", deliveryIds.toArray()));
+			statement.setArray(3, connection.createArrayOf("bigint", fromStatusIds.toArray()));
+			return statement;
+		}, (rs, rowNum) -> rs.getLong("id"));
+	}
+}
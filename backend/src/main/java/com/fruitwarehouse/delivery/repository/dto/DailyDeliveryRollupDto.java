@@ -0,0 +1,13 @@
+package com.fruitwarehouse.delivery.repository.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyDeliveryRollupDto(
+		LocalDate day,
+		Long supplierId,
+		Long productId,
+		BigDecimal totalWeight,
+		BigDecimal totalCost,
+		int itemCount
+) {}
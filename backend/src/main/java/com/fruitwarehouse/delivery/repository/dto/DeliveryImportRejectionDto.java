@@ -0,0 +1,7 @@
+package com.fruitwarehouse.delivery.repository.dto;
+
+public record DeliveryImportRejectionDto(
+		long line,
+		String deliveryRef,
+		String error
+) {}
@@ -0,0 +1,12 @@
+package com.fruitwarehouse.delivery.repository.dto;
+
+import java.time.LocalDateTime;
+
+public record DeliveryImportStatsDto(
+		long totalRows,
+		long rejectedRows,
+		long createdDeliveries,
+		long rejectedDeliveries,
+		LocalDateTime firstDeliveryDate,
+		LocalDateTime lastDeliveryDate
+) {}
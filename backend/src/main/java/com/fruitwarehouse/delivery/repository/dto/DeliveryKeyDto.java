@@ -0,0 +1,8 @@
+package com.fruitwarehouse.delivery.repository.dto;
+
+import java.time.LocalDateTime;
+
+public record DeliveryKeyDto(
+		Long id,
+		LocalDateTime deliveryDate
+) {}
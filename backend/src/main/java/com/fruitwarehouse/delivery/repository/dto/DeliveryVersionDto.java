@@ -0,0 +1,14 @@
+package com.fruitwarehouse.delivery.repository.dto;
+
+import java.time.LocalDateTime;
+
+public record DeliveryVersionDto(
+		long version,
+		LocalDateTime updatedAt,
+		String namesHash
+) {
+
+	public String eTag() {
+		return version + "-" + namesHash;
+	}
+}
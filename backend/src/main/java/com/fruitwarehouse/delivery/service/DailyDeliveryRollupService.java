@@ -0,0 +1,15 @@
+package com.fruitwarehouse.delivery.service;
+
+import com.fruitwarehouse.delivery.entity.Delivery;
+
+import java.util.Collection;
+
+/**
+ * Дневные итоги поставок для сводного отчёта: дополняются в транзакции, создающей поставки,
+ * и периодически сверяются с позициями за последние дни.
+ */
+public interface DailyDeliveryRollupService {
+	void addDeliveries(Collection<Delivery> deliveries);
+
+	void reconcile();
+}
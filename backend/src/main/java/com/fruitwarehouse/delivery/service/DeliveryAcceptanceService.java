@@ -0,0 +1,15 @@
+package com.fruitwarehouse.delivery.service;
+
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryRequestStatusResponse;
+
+import java.util.UUID;
+
+/**
+ * Асинхронный приём поставок: запрос проверяется и ставится в ограниченную очередь,
+ * а запись выполняется пачками в фоне, по одной транзакции на пачку.
+ */
+public interface DeliveryAcceptanceService {
+	DeliveryRequestStatusResponse accept(CreateDeliveryRequest request, String idempotencyKey);
+	DeliveryRequestStatusResponse getStatus(UUID deliveryNumber);
+}
@@ -1,16 +1,24 @@
 package com.fruitwarehouse.delivery.service;
 
 import com.fruitwarehouse.delivery.entity.Delivery;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryKeyDto;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public interface DeliveryEntityService {
 	Delivery getById(Long id);
 	Delivery getByIdWithItems(Long id);
+	List<Delivery> getByDeliveryNumbersWithDetails(Collection<UUID> deliveryNumbers);
 	Delivery save(Delivery delivery);
+	List<Delivery> saveAll(List<Delivery> deliveries);
+	List<Long> updateStatus(Collection<Long> ids, Collection<Long> fromStatusIds, Long toStatusId);
 	List<Delivery> getBySupplierId(Long supplierId);
 	List<Delivery> getAll();
-	List<Delivery> getBySupplierIdWithDetails(Long supplierId);
 	List<Delivery> getByDeliveryDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+	List<DeliveryKeyDto> searchKeys(Specification<Delivery> specification, Sort sort, int limit);
 }
@@ -0,0 +1,11 @@
+package com.fruitwarehouse.delivery.service;
+
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.service.dto.DeliveryCreationResult;
+
+import java.util.UUID;
+
+public interface DeliveryIdempotencyService {
+	DeliveryCreationResult createDelivery(CreateDeliveryRequest request, String idempotencyKey);
+	UUID resolveDeliveryNumber(CreateDeliveryRequest request, String idempotencyKey);
+}
@@ -0,0 +1,10 @@
+package com.fruitwarehouse.delivery.service;
+
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryImportResponse;
+import com.fruitwarehouse.delivery.service.dto.DeliveryImportFormat;
+
+import java.io.InputStream;
+
+public interface DeliveryImportService {
+	DeliveryImportResponse importDeliveries(InputStream input, DeliveryImportFormat format);
+}
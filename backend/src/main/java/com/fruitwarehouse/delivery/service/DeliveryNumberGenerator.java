@@ -0,0 +1,11 @@
+package com.fruitwarehouse.delivery.service;
+
+import java.util.UUID;
+
+/**
+ * Источник номеров новых поставок. Реализация выбирается свойством
+ * {@code fruitwarehouse.delivery-number.strategy}: {@code time-ordered} (по умолчанию) или {@code random}.
+ */
+public interface DeliveryNumberGenerator {
+	UUID next();
+}
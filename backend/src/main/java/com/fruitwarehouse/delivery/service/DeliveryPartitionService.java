@@ -0,0 +1,9 @@
+package com.fruitwarehouse.delivery.service;
+
+/**
+ * Обслуживание помесячных секций поставок: заранее создаёт секции будущих месяцев
+ * и отсоединяет секции месяцев вне срока хранения.
+ */
+public interface DeliveryPartitionService {
+	void maintainPartitions();
+}
@@ -0,0 +1,16 @@
+package com.fruitwarehouse.delivery.service;
+
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Недавно созданные поставки по номеру. Отрицательный ответ {@link #mightContain} позволяет
+ * новому запросу не искать номер в БД: от редких пропусков защищает реестр номеров поставок в БД.
+ */
+public interface DeliveryReplayCache {
+	boolean mightContain(UUID deliveryNumber);
+	Optional<DeliveryResponse> find(UUID deliveryNumber);
+	void remember(DeliveryResponse delivery);
+}
@@ -1,13 +1,31 @@
 package com.fruitwarehouse.delivery.service;
 
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryBatchRequest;
 import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.DeliverySearchRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.UpdateDeliveryStatusBatchRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResponse;
 import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryStatusBatchResponse;
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryVersionDto;
+import com.fruitwarehouse.delivery.service.dto.DeliveryPage;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface DeliveryService {
 	DeliveryResponse createDelivery(CreateDeliveryRequest request);
+	DeliveryBatchResponse createDeliveries(CreateDeliveryBatchRequest request);
 	DeliveryResponse getDelivery(Long id);
-	List<DeliveryResponse> getAllDeliveries();
-	List<DeliveryResponse> getDeliveriesBySupplier(Long supplierId);
+	DeliveryVersionDto getDeliveryVersion(Long id);
+	Optional<DeliveryResponse> findDeliveryByNumber(UUID deliveryNumber);
+	DeliveryPage getDeliveries(LocalDateTime from, LocalDateTime to, String cursor, Integer size);
+	DeliveryPage searchDeliveries(DeliverySearchRequest request, String cursor, Integer size);
+	void forEachDeliveryOfSupplier(Long supplierId, Consumer<DeliveryResponse> action);
+	DeliveryPage getDeliveryHistoryOfSupplier(Long supplierId, String cursor, Integer size);
+	DeliveryResponse changeStatus(Long id, DeliveryStatus.Code status);
+	DeliveryStatusBatchResponse changeStatuses(UpdateDeliveryStatusBatchRequest request);
 }
@@ -0,0 +1,8 @@
+package com.fruitwarehouse.delivery.service.dto;
+
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+
+public record DeliveryCreationResult(
+		DeliveryResponse delivery,
+		boolean replayed
+) {}
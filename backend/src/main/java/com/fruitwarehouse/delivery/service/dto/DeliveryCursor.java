@@ -0,0 +1,33 @@
+package com.fruitwarehouse.delivery.service.dto;
+
+import com.fruitwarehouse.common.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в списке поставок, упорядоченном по (deliveryDate, id) по убыванию.
+ * Для клиента непрозрачна: передаётся как строка Base64 и возвращается без изменений.
+ */
+public record DeliveryCursor(LocalDateTime deliveryDate, Long id) {
+
+	private static final String SEPARATOR = "|";
+
+	public String encode() {
+		String raw = deliveryDate + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static DeliveryCursor decode(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = raw.indexOf(SEPARATOR);
+			return new DeliveryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+					Long.parseLong(raw.substring(separator + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new ValidationException("Invalid cursor: " + cursor);
+		}
+	}
+}
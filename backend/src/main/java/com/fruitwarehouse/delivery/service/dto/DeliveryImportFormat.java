@@ -0,0 +1,31 @@
+package com.fruitwarehouse.delivery.service.dto;
+
+import com.fruitwarehouse.common.exception.ValidationException;
+import org.springframework.http.MediaType;
+
+public enum DeliveryImportFormat {
+	CSV("text/csv"),
+	NDJSON("application/x-ndjson");
+
+	private final String mediaType;
+
+	DeliveryImportFormat(String mediaType) {
+		this.mediaType = mediaType;
+	}
+
+	public String getMediaType() {
+		return mediaType;
+	}
+
+	public static DeliveryImportFormat fromContentType(String contentType) {
+		if (contentType != null) {
+			MediaType requested = MediaType.parseMediaType(contentType);
+			for (DeliveryImportFormat format : values()) {
+				if (MediaType.parseMediaType(format.mediaType).equalsTypeAndSubtype(requested)) {
+					return format;
+				}
+			}
+		}
+		throw new ValidationException("Unsupported import content type: " + contentType);
+	}
+}
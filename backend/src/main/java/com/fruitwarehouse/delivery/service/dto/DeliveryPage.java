@@ -0,0 +1,16 @@
+package com.fruitwarehouse.delivery.service.dto;
+
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Страница списка поставок. {@code nextCursor} равен null на последней странице;
+ * {@code from} — фактическое начало окна, чтобы следующая страница запрашивалась с тем же окном.
+ */
+public record DeliveryPage(
+		List<DeliveryResponse> deliveries,
+		String nextCursor,
+		LocalDateTime from
+) {}
@@ -0,0 +1,35 @@
+package com.fruitwarehouse.delivery.service.dto;
+
+import com.fruitwarehouse.common.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в результатах поиска: значение поля сортировки и id последней отданной поставки.
+ * Поле сортировки входит в курсор, чтобы курсор нельзя было применить к другому порядку.
+ */
+public record DeliverySearchCursor(DeliverySearchSort sort, String key, Long id) {
+
+	private static final String SEPARATOR = "|";
+
+	public String encode() {
+		String raw = sort + SEPARATOR + key + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static DeliverySearchCursor decode(String cursor, DeliverySearchSort expectedSort) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int first = raw.indexOf(SEPARATOR);
+			int last = raw.lastIndexOf(SEPARATOR);
+			DeliverySearchSort sort = DeliverySearchSort.valueOf(raw.substring(0, first));
+			if (sort != expectedSort) {
+				throw new ValidationException("Cursor was issued for sort " + sort + ", not " + expectedSort);
+			}
+			return new DeliverySearchCursor(sort, raw.substring(first + 1, last), Long.parseLong(raw.substring(last + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			throw new ValidationException("Invalid cursor: " + cursor);
+		}
+	}
+}
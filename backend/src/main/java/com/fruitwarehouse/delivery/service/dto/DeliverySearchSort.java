@@ -0,0 +1,32 @@
+package com.fruitwarehouse.delivery.service.dto;
+
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.entity.Delivery_;
+
+import java.util.function.Function;
+
+/**
+ * Поле сортировки результатов поиска. Второй ключ всегда id в том же направлении,
+ * поэтому порядок однозначен и по нему можно продолжать с курсора.
+ */
+public enum DeliverySearchSort {
+	DELIVERY_DATE(Delivery_.DELIVERY_DATE, DeliveryResponse::deliveryDate),
+	TOTAL_WEIGHT(Delivery_.TOTAL_WEIGHT, DeliveryResponse::totalWeight),
+	TOTAL_COST(Delivery_.TOTAL_COST, DeliveryResponse::totalCost);
+
+	private final String property;
+	private final Function<DeliveryResponse, Object> key;
+
+	DeliverySearchSort(String property, Function<DeliveryResponse, Object> key) {
+		this.property = property;
+		this.key = key;
+	}
+
+	public String property() {
+		return property;
+	}
+
+	public Object keyOf(DeliveryResponse delivery) {
+		return key.apply(delivery);
+	}
+}
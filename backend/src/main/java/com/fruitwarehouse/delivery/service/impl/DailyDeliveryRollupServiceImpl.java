@@ -0,0 +1,136 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.delivery.entity.Delivery;
+import com.fruitwarehouse.delivery.entity.DeliveryItem;
+import com.fruitwarehouse.delivery.event.DeliveryDayReconciledEvent;
+import com.fruitwarehouse.delivery.repository.DailyDeliveryRollupRepository;
+import com.fruitwarehouse.delivery.repository.dto.DailyDeliveryRollupDto;
+import com.fruitwarehouse.delivery.service.DailyDeliveryRollupService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Итоги прибавляются в той же транзакции, что создаёт поставки, поэтому отчёт не видит
+ * поставку без её итогов и наоборот. Сверка раз в сутки пересчитывает последние
+ * {@code reconcile-days} дней из позиций — на случай записи в обход приложения;
+ * более старые дни можно пересчитать повторным запуском заполнения из миграции v1-017.
+ */
+@Slf4j
+@Service
+public class DailyDeliveryRollupServiceImpl implements DailyDeliveryRollupService {
+
+	private static final Comparator<DailyDeliveryRollupDto> KEY_ORDER = Comparator
+			.comparing(DailyDeliveryRollupDto::day)
+			.thenComparing(DailyDeliveryRollupDto::supplierId)
+			.thenComparing(DailyDeliveryRollupDto::productId);
+
+	private final DailyDeliveryRollupRepository dailyDeliveryRollupRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TransactionTemplate reconciliationTransaction;
+	private final int reconcileDays;
+	private final Counter correctedRows;
+
+	public DailyDeliveryRollupServiceImpl(
+			DailyDeliveryRollupRepository dailyDeliveryRollupRepository,
+			ApplicationEventPublisher eventPublisher,
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${fruitwarehouse.delivery-rollup.reconcile-days}") int reconcileDays) {
+		if (reconcileDays < 1) {
+			throw new IllegalArgumentException("At least one day must be reconciled");
+		}
+		this.dailyDeliveryRollupRepository = dailyDeliveryRollupRepository;
+		this.eventPublisher = eventPublisher;
+		this.reconcileDays = reconcileDays;
+
+		this.reconciliationTransaction = new TransactionTemplate(transactionManager);
+		this.reconciliationTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+		this.correctedRows = Counter.builder("delivery.rollup.reconciled.rows")
+				.description("Daily rollup rows corrected by reconciliation")
+				.register(meterRegistry);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void addDeliveries(Collection<Delivery> deliveries) {
+		Map<DailyDeliveryRollupDto, DailyDeliveryRollupDto> increments = new TreeMap<>(KEY_ORDER);
+		for (Delivery delivery : deliveries) {
+			LocalDate day = delivery.getDeliveryDate().toLocalDate();
+			Long supplierId = delivery.getSupplier().getId();
+			for (DeliveryItem item : delivery.getItems()) {
+				DailyDeliveryRollupDto increment = new DailyDeliveryRollupDto(day, supplierId,
+						item.getProduct().getId(), item.getWeight(), item.getTotalPrice(), 1);
+				increments.merge(increment, increment, DailyDeliveryRollupServiceImpl::sum);
+			}
+		}
+		if (!increments.isEmpty()) {
+			dailyDeliveryRollupRepository.add(List.copyOf(increments.values()));
+		}
+	}
+
+	@Override
+	@Scheduled(cron = "${fruitwarehouse.delivery-rollup.reconcile-cron}")
+	public void reconcile() {
+		LocalDate today = LocalDate.now();
+		int corrected = 0;
+
+		// День — отдельная короткая транзакция: строки дня блокируются ненадолго
+		for (LocalDate day = today.minusDays(reconcileDays - 1L); !day.isAfter(today); day = day.plusDays(1)) {
+			LocalDate reconciledDay = day;
+			try {
+				Integer dayCorrected = reconciliationTransaction.execute(status -> {
+					if (!dailyDeliveryRollupRepository.tryLockReconciliation()) {
+						return null;
+					}
+					int rows = dailyDeliveryRollupRepository.reconcileDay(reconciledDay);
+					if (rows > 0) {
+						eventPublisher.publishEvent(new DeliveryDayReconciledEvent(reconciledDay, rows));
+					}
+					return rows;
+				});
+				if (dayCorrected == null) {
+					log.info("Daily rollup reconciliation skipped: another instance is running it");
+					return;
+				}
+				if (dayCorrected > 0) {
+					log.warn("Daily rollup of {} differed from delivery items, {} rows corrected", day, dayCorrected);
+				}
+				corrected += dayCorrected;
+			} catch (ConcurrencyFailureException e) {
+				// Поставка этого дня создавалась во время сверки; следующий запуск сверит его снова
+				log.info("Daily rollup of {} changed during reconciliation, left for the next run", day);
+			} catch (RuntimeException e) {
+				log.error("Daily rollup reconciliation of {} failed: {}", day, e.getMessage(), e);
+			}
+		}
+
+		correctedRows.increment(corrected);
+		log.info("Daily rollup reconciled for {} days, {} rows corrected", reconcileDays, corrected);
+	}
+
+	private static DailyDeliveryRollupDto sum(DailyDeliveryRollupDto a, DailyDeliveryRollupDto b) {
+		return new DailyDeliveryRollupDto(a.day(), a.supplierId(), a.productId(),
+				a.totalWeight().add(b.totalWeight()),
+				a.totalCost().add(b.totalCost()),
+				a.itemCount() + b.itemCount());
+	}
+}
@@ -0,0 +1,328 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.common.cache.ReferenceDataCache;
+import com.fruitwarehouse.common.exception.DeliveryNotFoundException;
+import com.fruitwarehouse.common.exception.DeliveryQueueFullException;
+import com.fruitwarehouse.common.exception.ProductNotFoundException;
+import com.fruitwarehouse.common.exception.SupplierNotFoundException;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryBatchRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.DeliveryItemRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResultResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryRequestStatusResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryRequestStatusResponse.Status;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.service.DeliveryAcceptanceService;
+import com.fruitwarehouse.delivery.service.DeliveryIdempotencyService;
+import com.fruitwarehouse.delivery.service.DeliveryNumberGenerator;
+import com.fruitwarehouse.delivery.service.DeliveryReplayCache;
+import com.fruitwarehouse.delivery.service.DeliveryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Приём поставок с групповым коммитом: запрос проверяется по справочникам и ставится в очередь,
+ * а единственный поток-писатель забирает из неё пачки и сохраняет каждую одной транзакцией.
+ * Статусы принятых запросов хранятся в памяти ограниченное время; после вытеснения
+ * созданная поставка находится по номеру в БД.
+ */
+@Slf4j
+@Service
+public class DeliveryAcceptanceServiceImpl implements DeliveryAcceptanceService, SmartLifecycle {
+
+	private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+	private final DeliveryService deliveryService;
+	private final DeliveryIdempotencyService deliveryIdempotencyService;
+	private final DeliveryNumberGenerator deliveryNumberGenerator;
+	private final ReferenceDataCache referenceDataCache;
+	private final DeliveryReplayCache deliveryReplayCache;
+
+	private final int maxBatchSize;
+	private final Duration maxBatchDelay;
+	private final Duration retryAfter;
+
+	private final BlockingQueue<CreateDeliveryRequest> queue;
+	private final Map<UUID, DeliveryRequestStatusResponse> statuses;
+
+	private final Counter rejected;
+	private final DistributionSummary batchSize;
+	private final Timer commitLatency;
+
+	private volatile boolean running;
+	private Thread writer;
+
+	public DeliveryAcceptanceServiceImpl(
+			DeliveryService deliveryService,
+			DeliveryIdempotencyService deliveryIdempotencyService,
+			DeliveryNumberGenerator deliveryNumberGenerator,
+			ReferenceDataCache referenceDataCache,
+			DeliveryReplayCache deliveryReplayCache,
+			MeterRegistry meterRegistry,
+			@Value("${fruitwarehouse.delivery-acceptance.queue-capacity}") int queueCapacity,
+			@Value("${fruitwarehouse.delivery-acceptance.max-batch-size}") int maxBatchSize,
+			@Value("${fruitwarehouse.delivery-acceptance.max-batch-delay}") Duration maxBatchDelay,
+			@Value("${fruitwarehouse.delivery-acceptance.retry-after}") Duration retryAfter,
+			@Value("${fruitwarehouse.delivery-acceptance.status-retention}") int statusRetention) {
+		this.deliveryService = deliveryService;
+		this.deliveryIdempotencyService = deliveryIdempotencyService;
+		this.deliveryNumberGenerator = deliveryNumberGenerator;
+		this.referenceDataCache = referenceDataCache;
+		this.deliveryReplayCache = deliveryReplayCache;
+		this.maxBatchSize = maxBatchSize;
+		this.maxBatchDelay = maxBatchDelay;
+		this.retryAfter = retryAfter;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.statuses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UUID, DeliveryRequestStatusResponse> eldest) {
+				return size() > statusRetention;
+			}
+		});
+
+		this.rejected = Counter.builder("delivery.acceptance.rejected")
+				.description("Delivery requests rejected because the acceptance queue was full")
+				.register(meterRegistry);
+		this.batchSize = DistributionSummary.builder("delivery.acceptance.batch.size")
+				.description("Deliveries committed per writer transaction")
+				.register(meterRegistry);
+		this.commitLatency = Timer.builder("delivery.acceptance.commit.latency")
+				.description("Time to save and commit one batch of accepted deliveries")
+				.register(meterRegistry);
+		Gauge.builder("delivery.acceptance.queue.depth", queue, BlockingQueue::size)
+				.description("Accepted deliveries waiting for the writer")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public DeliveryRequestStatusResponse accept(CreateDeliveryRequest request, String idempotencyKey) {
+		if (!running) {
+			throw new DeliveryQueueFullException(retryAfter);
+		}
+
+		UUID requested = deliveryIdempotencyService.resolveDeliveryNumber(request, idempotencyKey);
+		if (requested != null) {
+			// Повтор запроса, который ещё в очереди или уже записан, не ставится повторно
+			DeliveryRequestStatusResponse known = statuses.get(requested);
+			if (known != null && known.status() != Status.FAILED) {
+				return known;
+			}
+		}
+		validateReferences(request);
+
+		UUID deliveryNumber = requested != null ? requested : deliveryNumberGenerator.next();
+		// Дата фиксируется при приёме, чтобы цена не зависела от задержки в очереди
+		CreateDeliveryRequest accepted = new CreateDeliveryRequest(request.supplierId(),
+				request.deliveryDate() != null ? request.deliveryDate() : LocalDateTime.now(),
+				request.items(), deliveryNumber);
+
+		DeliveryRequestStatusResponse pending = DeliveryRequestStatusResponse.builder()
+				.deliveryNumber(deliveryNumber)
+				.status(Status.PENDING)
+				.build();
+		statuses.put(deliveryNumber, pending);
+		if (!queue.offer(accepted)) {
+			statuses.remove(deliveryNumber);
+			rejected.increment();
+			throw new DeliveryQueueFullException(retryAfter);
+		}
+		return pending;
+	}
+
+	@Override
+	public DeliveryRequestStatusResponse getStatus(UUID deliveryNumber) {
+		DeliveryRequestStatusResponse status = statuses.get(deliveryNumber);
+		if (status != null) {
+			return status;
+		}
+		return deliveryService.findDeliveryByNumber(deliveryNumber)
+				.map(delivery -> created(deliveryNumber, delivery))
+				.orElseThrow(() -> new DeliveryNotFoundException(
+						String.format("Delivery request with number %s not found", deliveryNumber)));
+	}
+
+	@Override
+	public synchronized void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		writer = new Thread(this::drainLoop, "delivery-acceptance-writer");
+		writer.start();
+	}
+
+	@Override
+	public void stop() {
+		Thread current;
+		synchronized (this) {
+			running = false;
+			current = writer;
+		}
+		if (current == null) {
+			return;
+		}
+		// Писатель дописывает всё, что уже принято, и только затем завершается
+		try {
+			current.join(SHUTDOWN_TIMEOUT.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (current.isAlive()) {
+			log.warn("Delivery writer did not finish in {}, {} accepted deliveries not saved",
+					SHUTDOWN_TIMEOUT, queue.size());
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		// Останавливается после веб-сервера, чтобы во время дренажа не принимались новые запросы
+		return SmartLifecycle.DEFAULT_PHASE - 4096;
+	}
+
+	private void validateReferences(CreateDeliveryRequest request) {
+		if (referenceDataCache.findSupplier(request.supplierId()).isEmpty()) {
+			throw new SupplierNotFoundException(request.supplierId());
+		}
+		Set<Long> productIds = request.items().stream()
+				.map(DeliveryItemRequest::productId)
+				.collect(Collectors.toSet());
+		Set<Long> found = referenceDataCache.findProducts(productIds).keySet();
+		for (Long productId : productIds) {
+			if (!found.contains(productId)) {
+				throw new ProductNotFoundException(productId);
+			}
+		}
+	}
+
+	private void drainLoop() {
+		List<CreateDeliveryRequest> batch = new ArrayList<>(maxBatchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				collectBatch(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				running = false;
+			}
+			if (!batch.isEmpty()) {
+				writeBatch(batch);
+				batch.clear();
+			}
+		}
+		log.info("Delivery writer stopped");
+	}
+
+	private void collectBatch(List<CreateDeliveryRequest> batch) throws InterruptedException {
+		CreateDeliveryRequest first = queue.poll(POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+		if (first == null) {
+			return;
+		}
+		batch.add(first);
+		queue.drainTo(batch, maxBatchSize - batch.size());
+
+		// Короткое ожидание добирает пачку при редком потоке запросов; при остановке не ждём
+		long deadline = System.nanoTime() + maxBatchDelay.toNanos();
+		while (batch.size() < maxBatchSize && running) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+			CreateDeliveryRequest next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+			if (next == null) {
+				break;
+			}
+			batch.add(next);
+			queue.drainTo(batch, maxBatchSize - batch.size());
+		}
+	}
+
+	private void writeBatch(List<CreateDeliveryRequest> batch) {
+		// Повтор номера в одной пачке — тот же запрос, принятый дважды (например, параллельные
+		// повторы с одним ключом): пишется первый, статус по номеру у них общий
+		List<CreateDeliveryRequest> unique = List.copyOf(batch.stream()
+				.collect(Collectors.toMap(CreateDeliveryRequest::deliveryNumber, request -> request,
+						(first, repeated) -> first, LinkedHashMap::new))
+				.values());
+		batchSize.record(unique.size());
+		try {
+			DeliveryBatchResponse response = commitLatency.recordCallable(() ->
+					deliveryService.createDeliveries(new CreateDeliveryBatchRequest(unique)));
+			for (DeliveryBatchResultResponse result : response.results()) {
+				UUID deliveryNumber = unique.get(result.index()).deliveryNumber();
+				if (result.delivery() != null) {
+					deliveryReplayCache.remember(result.delivery());
+					statuses.put(deliveryNumber, created(deliveryNumber, result.delivery()));
+				} else {
+					markFailed(deliveryNumber, result.error());
+				}
+			}
+		} catch (Exception e) {
+			// Пачка откатилась целиком (например, номер занят параллельной синхронной записью):
+			// каждая поставка записывается отдельно, чтобы ошибка одной не теряла остальные
+			log.warn("Batch of {} accepted deliveries failed, saving one by one: {}", unique.size(), e.getMessage());
+			unique.forEach(this::writeOne);
+		}
+	}
+
+	private void writeOne(CreateDeliveryRequest request) {
+		UUID deliveryNumber = request.deliveryNumber();
+		try {
+			DeliveryResponse delivery = deliveryIdempotencyService.createDelivery(request, null).delivery();
+			statuses.put(deliveryNumber, created(deliveryNumber, delivery));
+		} catch (Exception e) {
+			log.warn("Accepted delivery {} could not be saved: {}", deliveryNumber, e.getMessage());
+			markFailed(deliveryNumber, e.getMessage());
+		}
+	}
+
+	/**
+	 * Ошибка не затирает уже созданную поставку с тем же номером.
+	 */
+	private void markFailed(UUID deliveryNumber, String error) {
+		statuses.compute(deliveryNumber, (number, known) ->
+				known != null && known.status() == Status.CREATED ? known : failed(number, error));
+	}
+
+	private static DeliveryRequestStatusResponse created(UUID deliveryNumber, DeliveryResponse delivery) {
+		return DeliveryRequestStatusResponse.builder()
+				.deliveryNumber(deliveryNumber)
+				.status(Status.CREATED)
+				.delivery(delivery)
+				.build();
+	}
+
+	private static DeliveryRequestStatusResponse failed(UUID deliveryNumber, String error) {
+		return DeliveryRequestStatusResponse.builder()
+				.deliveryNumber(deliveryNumber)
+				.status(Status.FAILED)
+				.error(error)
+				.build();
+	}
+}
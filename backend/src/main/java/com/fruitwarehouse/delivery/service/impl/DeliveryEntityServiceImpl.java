@@ -1,22 +1,41 @@
 package com.fruitwarehouse.delivery.service.impl;
 
 import com.fruitwarehouse.delivery.entity.Delivery;
+import com.fruitwarehouse.delivery.entity.Delivery_;
 import com.fruitwarehouse.common.exception.DeliveryNotFoundException;
 import com.fruitwarehouse.delivery.repository.DeliveryRepository;
+import com.fruitwarehouse.delivery.repository.DeliveryStatusUpdateRepository;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryKeyDto;
 import com.fruitwarehouse.delivery.service.DeliveryEntityService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class DeliveryEntityServiceImpl implements DeliveryEntityService {
 
+	// Совпадает с hibernate.jdbc.batch_size: один flush = один JDBC batch на таблицу
+	private static final int FLUSH_CHUNK_SIZE = 50;
+
 	private final DeliveryRepository deliveryRepository;
+	private final DeliveryStatusUpdateRepository deliveryStatusUpdateRepository;
+	private final EntityManager entityManager;
 
 	@Override
 	public Delivery getById(Long id) {
@@ -30,12 +49,36 @@ public class DeliveryEntityServiceImpl implements DeliveryEntityService {
 				.orElseThrow(() -> new DeliveryNotFoundException(id));
 	}
 
+	@Override
+	public List<Delivery> getByDeliveryNumbersWithDetails(Collection<UUID> deliveryNumbers) {
+		return deliveryRepository.findByDeliveryNumberInWithDetails(deliveryNumbers);
+	}
+
 	@Override
 	@Transactional
 	public Delivery save(Delivery delivery) {
 		return deliveryRepository.save(delivery);
 	}
 
+	@Override
+	@Transactional
+	public List<Delivery> saveAll(List<Delivery> deliveries) {
+		List<Delivery> saved = new ArrayList<>(deliveries.size());
+		for (int from = 0; from < deliveries.size(); from += FLUSH_CHUNK_SIZE) {
+			List<Delivery> chunk = deliveries.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, deliveries.size()));
+			saved.addAll(deliveryRepository.saveAll(chunk));
+			entityManager.flush();
+			entityManager.clear();
+		}
+		return saved;
+	}
+
+	@Override
+	@Transactional
+	public List<Long> updateStatus(Collection<Long> ids, Collection<Long> fromStatusIds, Long toStatusId) {
+		return deliveryStatusUpdateRepository.updateStatus(ids, fromStatusIds, toStatusId);
+	}
+
 	@Override
 	public List<Delivery> getBySupplierId(Long supplierId) {
 		return deliveryRepository.findBySupplierId(supplierId);
@@ -47,12 +90,26 @@ public class DeliveryEntityServiceImpl implements DeliveryEntityService {
 	}
 
 	@Override
-	public List<Delivery> getBySupplierIdWithDetails(Long supplierId) {
-		return deliveryRepository.findBySupplierIdWithDetails(supplierId);
+	public List<Delivery> getByDeliveryDateBetween(LocalDateTime startDate, LocalDateTime endDate) {
+		return deliveryRepository.findByDeliveryDateBetweenWithDetails(startDate, endDate);
 	}
 
+	/**
+	 * Ключи поставок по условию: запрос выбирает только id и дату поставки, сущности не загружаются.
+	 */
 	@Override
-	public List<Delivery> getByDeliveryDateBetween(LocalDateTime startDate, LocalDateTime endDate) {
-		return deliveryRepository.findByDeliveryDateBetweenWithDetails(startDate, endDate);
+	public List<DeliveryKeyDto> searchKeys(Specification<Delivery> specification, Sort sort, int limit) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<DeliveryKeyDto> query = builder.createQuery(DeliveryKeyDto.class);
+		Root<Delivery> delivery = query.from(Delivery.class);
+		query.select(builder.construct(DeliveryKeyDto.class, delivery.get(Delivery_.id), delivery.get(Delivery_.deliveryDate)));
+		Predicate predicate = specification.toPredicate(delivery, query, builder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.orderBy(QueryUtils.toOrders(sort, delivery, builder));
+		return entityManager.createQuery(query)
+				.setMaxResults(limit)
+				.getResultList();
 	}
 }
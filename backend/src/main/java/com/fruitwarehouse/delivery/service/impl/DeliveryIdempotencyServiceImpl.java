@@ -0,0 +1,124 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.common.datasource.ReplicaReads;
+import com.fruitwarehouse.common.exception.DeliveryNumberConflictException;
+import com.fruitwarehouse.common.exception.ValidationException;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.service.DeliveryIdempotencyService;
+import com.fruitwarehouse.delivery.service.DeliveryReplayCache;
+import com.fruitwarehouse.delivery.service.DeliveryService;
+import com.fruitwarehouse.delivery.service.dto.DeliveryCreationResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Идемпотентное создание поставки по номеру из запроса или заголовка Idempotency-Key.
+ * Намеренно не транзакционный: нарушение уникальности номера проявляется при коммите
+ * и перехватывается уже после отката транзакции создания.
+ */
+@Slf4j
+@Service
+public class DeliveryIdempotencyServiceImpl implements DeliveryIdempotencyService {
+
+	private final DeliveryService deliveryService;
+	private final DeliveryReplayCache deliveryReplayCache;
+
+	private final Counter created;
+	private final Counter cacheReplays;
+	private final Counter databaseReplays;
+	private final Counter conflictReplays;
+
+	public DeliveryIdempotencyServiceImpl(DeliveryService deliveryService,
+										  DeliveryReplayCache deliveryReplayCache,
+										  MeterRegistry meterRegistry) {
+		this.deliveryService = deliveryService;
+		this.deliveryReplayCache = deliveryReplayCache;
+		this.created = outcomeCounter(meterRegistry, "created");
+		this.cacheReplays = outcomeCounter(meterRegistry, "replayed_from_cache");
+		this.databaseReplays = outcomeCounter(meterRegistry, "replayed_from_database");
+		this.conflictReplays = outcomeCounter(meterRegistry, "replayed_after_conflict");
+	}
+
+	@Override
+	public DeliveryCreationResult createDelivery(CreateDeliveryRequest request, String idempotencyKey) {
+		UUID deliveryNumber = resolveDeliveryNumber(request, idempotencyKey);
+		if (deliveryNumber == null) {
+			created.increment();
+			return new DeliveryCreationResult(deliveryService.createDelivery(request), false);
+		}
+
+		// Для нового номера фильтр почти всегда отвечает «нет», и поиск в БД не нужен
+		if (deliveryReplayCache.mightContain(deliveryNumber)) {
+			Optional<DeliveryResponse> cached = deliveryReplayCache.find(deliveryNumber);
+			if (cached.isPresent()) {
+				cacheReplays.increment();
+				return replay(request, cached.get());
+			}
+			Optional<DeliveryResponse> stored = deliveryService.findDeliveryByNumber(deliveryNumber);
+			if (stored.isPresent()) {
+				databaseReplays.increment();
+				return replay(request, stored.get());
+			}
+		}
+
+		try {
+			DeliveryResponse response = deliveryService.createDelivery(request.withDeliveryNumber(deliveryNumber));
+			deliveryReplayCache.remember(response);
+			created.increment();
+			return new DeliveryCreationResult(response, false);
+		} catch (DataIntegrityViolationException e) {
+			// Номер занят поставкой, которой нет в фильтре: старой, созданной другим экземпляром
+			// или параллельным повтором того же запроса. Её может ещё не быть на реплике
+			DeliveryResponse stored = ReplicaReads.fromPrimary(() -> deliveryService.findDeliveryByNumber(deliveryNumber))
+					.orElseThrow(() -> e);
+			log.info("Delivery number {} already exists, replaying delivery ID: {}", deliveryNumber, stored.id());
+			conflictReplays.increment();
+			return replay(request, stored);
+		}
+	}
+
+	private DeliveryCreationResult replay(CreateDeliveryRequest request, DeliveryResponse stored) {
+		if (!stored.supplierId().equals(request.supplierId())) {
+			throw new DeliveryNumberConflictException(stored.deliveryNumber());
+		}
+		deliveryReplayCache.remember(stored);
+		return new DeliveryCreationResult(stored, true);
+	}
+
+	@Override
+	public UUID resolveDeliveryNumber(CreateDeliveryRequest request, String idempotencyKey) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return request.deliveryNumber();
+		}
+
+		UUID fromKey = keyToDeliveryNumber(idempotencyKey.strip());
+		if (request.deliveryNumber() != null && !request.deliveryNumber().equals(fromKey)) {
+			throw new ValidationException("Idempotency-Key does not match deliveryNumber of the request");
+		}
+		return fromKey;
+	}
+
+	private static UUID keyToDeliveryNumber(String idempotencyKey) {
+		try {
+			return UUID.fromString(idempotencyKey);
+		} catch (IllegalArgumentException e) {
+			// Произвольный ключ клиента детерминированно отображается в номер поставки
+			return UUID.nameUUIDFromBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+		return Counter.builder("delivery.idempotency.requests")
+				.tag("outcome", outcome)
+				.description("Delivery creation requests by idempotency outcome")
+				.register(meterRegistry);
+	}
+}
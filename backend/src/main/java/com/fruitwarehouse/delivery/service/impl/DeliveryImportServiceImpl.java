@@ -0,0 +1,78 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.common.cache.ReferenceDataCache;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryImportRejectionResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryImportResponse;
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.event.DeliveriesImportedEvent;
+import com.fruitwarehouse.delivery.repository.DeliveryImportRepository;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryImportStatsDto;
+import com.fruitwarehouse.delivery.service.DeliveryImportService;
+import com.fruitwarehouse.delivery.service.dto.DeliveryImportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeliveryImportServiceImpl implements DeliveryImportService {
+
+	private final DeliveryImportRepository deliveryImportRepository;
+	private final ReferenceDataCache referenceDataCache;
+	private final ApplicationEventPublisher eventPublisher;
+
+	@Value("${fruitwarehouse.delivery-import.max-reported-rejections}")
+	private int maxReportedRejections;
+
+	@Override
+	@Transactional
+	public DeliveryImportResponse importDeliveries(InputStream input, DeliveryImportFormat format) {
+		log.info("Importing deliveries from {} manifest", format);
+
+		deliveryImportRepository.createStagingTable();
+		switch (format) {
+			case CSV -> deliveryImportRepository.copyCsv(input);
+			case NDJSON -> deliveryImportRepository.copyNdjson(input);
+		}
+
+		deliveryImportRepository.validateRows();
+		long importedRows = deliveryImportRepository.insertValidDeliveries(
+				referenceDataCache.getStatus(DeliveryStatus.Code.CREATED).id());
+		deliveryImportRepository.addToDailyRollup();
+
+		DeliveryImportStatsDto stats = deliveryImportRepository.getStats();
+		if (stats.createdDeliveries() > 0) {
+			eventPublisher.publishEvent(new DeliveriesImportedEvent(
+					stats.createdDeliveries(), stats.firstDeliveryDate(), stats.lastDeliveryDate()));
+		}
+		// Отчёт ограничен, чтобы файл с массовой ошибкой не превращался в ответ размером с сам файл
+		List<DeliveryImportRejectionResponse> rejections = deliveryImportRepository
+				.findRejections(maxReportedRejections).stream()
+				.map(r -> DeliveryImportRejectionResponse.builder()
+						.line(r.line())
+						.deliveryRef(r.deliveryRef())
+						.error(r.error())
+						.build())
+				.toList();
+
+		log.info("Import finished: {} of {} rows imported into {} deliveries, {} deliveries rejected",
+				importedRows, stats.totalRows(), stats.createdDeliveries(), stats.rejectedDeliveries());
+
+		return DeliveryImportResponse.builder()
+				.totalRows(stats.totalRows())
+				.importedRows(importedRows)
+				.rejectedRows(stats.rejectedRows())
+				.createdDeliveries(stats.createdDeliveries())
+				.rejectedDeliveries(stats.rejectedDeliveries())
+				.rejections(rejections)
+				.rejectionsTruncated(stats.rejectedRows() > rejections.size())
+				.build();
+	}
+}
@@ -0,0 +1,86 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.delivery.event.DeliveryPartitionsDetachedEvent;
+import com.fruitwarehouse.delivery.repository.DeliveryPartitionRepository;
+import com.fruitwarehouse.delivery.service.DeliveryPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Держит секции на {@code months-ahead} месяцев вперёд, чтобы новые поставки не попадали
+ * в секцию по умолчанию: строки оттуда не переносятся в секцию, созданную позже.
+ * При {@code retention-months} больше нуля отсоединяет секции старше этого числа месяцев,
+ * считая текущий; отсоединённые таблицы архивируются и удаляются вручную.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "fruitwarehouse.delivery-partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class DeliveryPartitionServiceImpl implements DeliveryPartitionService {
+
+	private final DeliveryPartitionRepository deliveryPartitionRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+	private final int monthsAhead;
+	private final int retentionMonths;
+
+	public DeliveryPartitionServiceImpl(
+			DeliveryPartitionRepository deliveryPartitionRepository,
+			TransactionTemplate transactionTemplate,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${fruitwarehouse.delivery-partitions.months-ahead}") int monthsAhead,
+			@Value("${fruitwarehouse.delivery-partitions.retention-months}") int retentionMonths) {
+		if (monthsAhead < 1) {
+			throw new IllegalArgumentException("Partitions must be created at least one month ahead");
+		}
+		if (retentionMonths < 0) {
+			throw new IllegalArgumentException("Partition retention must not be negative");
+		}
+		this.deliveryPartitionRepository = deliveryPartitionRepository;
+		this.transactionTemplate = transactionTemplate;
+		this.eventPublisher = eventPublisher;
+		this.monthsAhead = monthsAhead;
+		this.retentionMonths = retentionMonths;
+	}
+
+	@Override
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(cron = "${fruitwarehouse.delivery-partitions.maintenance-cron}")
+	public void maintainPartitions() {
+		LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				deliveryPartitionRepository.lockMaintenance();
+
+				List<String> created = deliveryPartitionRepository.createPartitions(
+						currentMonth, currentMonth.plusMonths(monthsAhead));
+				if (!created.isEmpty()) {
+					log.info("Created delivery partitions: {}", created);
+				}
+
+				if (retentionMonths > 0) {
+					LocalDate detachedBefore = currentMonth.minusMonths(retentionMonths - 1L);
+					List<String> detached = deliveryPartitionRepository.detachPartitions(detachedBefore);
+					if (!detached.isEmpty()) {
+						log.info("Detached delivery partitions: {}", detached);
+						eventPublisher.publishEvent(new DeliveryPartitionsDetachedEvent(detached, detachedBefore));
+					}
+				}
+			});
+			deliveryPartitionRepository.analyze();
+		} catch (RuntimeException e) {
+			// Следующий запуск повторит попытку; до него новые поставки попадут в секцию по умолчанию
+			log.error("Delivery partition maintenance failed: {}", e.getMessage(), e);
+		}
+	}
+}
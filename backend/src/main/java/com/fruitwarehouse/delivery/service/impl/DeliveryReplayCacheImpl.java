@@ -0,0 +1,49 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.common.cache.UuidBloomFilter;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.service.DeliveryReplayCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+public class DeliveryReplayCacheImpl implements DeliveryReplayCache {
+
+	private final UuidBloomFilter seenNumbers;
+	private final Map<UUID, DeliveryResponse> responses;
+
+	public DeliveryReplayCacheImpl(
+			@Value("${fruitwarehouse.idempotency.filter-capacity}") int filterCapacity,
+			@Value("${fruitwarehouse.idempotency.filter-false-positive-rate}") double falsePositiveRate,
+			@Value("${fruitwarehouse.idempotency.response-cache-size}") int responseCacheSize) {
+		this.seenNumbers = new UuidBloomFilter(filterCapacity, falsePositiveRate);
+		this.responses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UUID, DeliveryResponse> eldest) {
+				return size() > responseCacheSize;
+			}
+		});
+	}
+
+	@Override
+	public boolean mightContain(UUID deliveryNumber) {
+		return seenNumbers.mightContain(deliveryNumber);
+	}
+
+	@Override
+	public Optional<DeliveryResponse> find(UUID deliveryNumber) {
+		return Optional.ofNullable(responses.get(deliveryNumber));
+	}
+
+	@Override
+	public void remember(DeliveryResponse delivery) {
+		seenNumbers.put(delivery.deliveryNumber());
+		responses.put(delivery.deliveryNumber(), delivery);
+	}
+}
@@ -1,31 +1,75 @@
 package com.fruitwarehouse.delivery.service.impl;
 
+import com.fruitwarehouse.common.cache.ReferenceDataCache;
+import com.fruitwarehouse.common.cache.dto.DeliveryStatusSnapshot;
+import com.fruitwarehouse.common.cache.dto.ProductSnapshot;
+import com.fruitwarehouse.common.cache.dto.SupplierSnapshot;
+import com.fruitwarehouse.common.exception.DeliveryNotFoundException;
+import com.fruitwarehouse.common.exception.DeliveryNumberConflictException;
+import com.fruitwarehouse.common.exception.DeliveryStatusTransitionException;
+import com.fruitwarehouse.common.exception.EntityNotFoundException;
+import com.fruitwarehouse.common.exception.ProductNotFoundException;
+import com.fruitwarehouse.common.exception.SupplierNotFoundException;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryBatchRequest;
 import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.DeliveryItemRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.DeliverySearchRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.UpdateDeliveryStatusBatchRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResultResponse;
 import com.fruitwarehouse.delivery.controller.dto.response.DeliveryItemResponse;
 import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryStatusBatchResponse;
 import com.fruitwarehouse.delivery.mapper.DeliveryApiMapper;
+import com.fruitwarehouse.delivery.repository.DeliveryReadRepository;
+import com.fruitwarehouse.delivery.repository.DeliverySpecifications;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryKeyDto;
+import com.fruitwarehouse.delivery.repository.dto.DeliveryVersionDto;
 import com.fruitwarehouse.delivery.entity.Delivery;
 import com.fruitwarehouse.delivery.entity.DeliveryItem;
 import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.entity.Delivery_;
+import com.fruitwarehouse.delivery.event.DeliveryCreatedEvent;
+import com.fruitwarehouse.delivery.event.DeliveryStatusChangedEvent;
+import com.fruitwarehouse.delivery.service.DailyDeliveryRollupService;
 import com.fruitwarehouse.delivery.service.DeliveryEntityService;
-import com.fruitwarehouse.delivery.service.DeliveryStatusService;
+import com.fruitwarehouse.delivery.service.DeliveryNumberGenerator;
 import com.fruitwarehouse.common.exception.ValidationException;
 import com.fruitwarehouse.product.entity.Product;
 import com.fruitwarehouse.supplier.entity.Supplier;
 import com.fruitwarehouse.supplier.service.PriceEntityService;
-import com.fruitwarehouse.product.service.ProductEntityService;
 import com.fruitwarehouse.delivery.service.DeliveryService;
-import com.fruitwarehouse.supplier.service.SupplierEntityService;
+import com.fruitwarehouse.delivery.service.dto.DeliveryCursor;
+import com.fruitwarehouse.delivery.service.dto.DeliveryPage;
+import com.fruitwarehouse.delivery.service.dto.DeliverySearchCursor;
+import com.fruitwarehouse.supplier.service.dto.PriceLookupKey;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -33,60 +77,147 @@ import java.util.List;
 @Transactional
 public class DeliveryServiceImpl implements DeliveryService {
 
+	private static final Duration DEFAULT_WINDOW = Duration.ofDays(30);
+	private static final int DEFAULT_PAGE_SIZE = 50;
+	private static final int MAX_PAGE_SIZE = 500;
+
 	private final DeliveryEntityService deliveryEntityService;
-	private final SupplierEntityService supplierEntityService;
-	private final ProductEntityService productEntityService;
-	private final DeliveryStatusService deliveryStatusService;
+	private final ReferenceDataCache referenceDataCache;
 	private final PriceEntityService priceEntityService;
+	private final DeliveryNumberGenerator deliveryNumberGenerator;
 	private final DeliveryApiMapper deliveryApiMapper;
+	private final DeliveryReadRepository deliveryReadRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final DailyDeliveryRollupService dailyDeliveryRollupService;
 
 	@Override
 	public DeliveryResponse createDelivery(CreateDeliveryRequest request) {
 		log.info("Creating delivery for supplier ID: {}", request.supplierId());
 
-		Supplier supplier = supplierEntityService.getById(request.supplierId());
-
-		Delivery delivery = new Delivery();
-		delivery.setSupplier(supplier);
-		delivery.setDeliveryDate(
-				request.deliveryDate() != null ? request.deliveryDate() : LocalDateTime.now()
-		);
+		SupplierSnapshot supplier = referenceDataCache.findSupplier(request.supplierId())
+				.orElseThrow(() -> new SupplierNotFoundException(request.supplierId()));
+		DeliveryStatusSnapshot createdStatus = referenceDataCache.getStatus(DeliveryStatus.Code.CREATED);
+		LocalDateTime deliveryDate = resolveDeliveryDate(request);
 
-		DeliveryStatus createdStatus = deliveryStatusService.getByCode(DeliveryStatus.Code.CREATED);
-		delivery.setStatus(createdStatus);
+		Map<Long, ProductSnapshot> products = referenceDataCache.findProducts(productIdsOf(List.of(request)));
+		Map<PriceLookupKey, BigDecimal> prices = priceEntityService.getActivePrices(
+				priceKeysOf(request, deliveryDate));
 
-		List<DeliveryItem> deliveryItems = new ArrayList<>();
-		BigDecimal totalWeight = BigDecimal.ZERO;
-		BigDecimal totalCost = BigDecimal.ZERO;
+		Delivery delivery = buildDelivery(request, deliveryDate, supplier, createdStatus, products, prices);
+		Delivery savedDelivery = deliveryEntityService.save(delivery);
+		dailyDeliveryRollupService.addDeliveries(List.of(savedDelivery));
+		eventPublisher.publishEvent(DeliveryCreatedEvent.of(savedDelivery));
 
-		for (var itemRequest : request.items()) {
-			Product product = productEntityService.getById(itemRequest.productId());
+		log.info("Delivery created with ID: {}", savedDelivery.getId());
 
-			BigDecimal unitPrice = getUnitPrice(
-					supplier.getId(),
-					product.getId(),
-					delivery.getDeliveryDate().toLocalDate()
-			);
+		return buildCreatedDeliveryResponse(savedDelivery, supplier, createdStatus, products);
+	}
 
-			DeliveryItem deliveryItem = new DeliveryItem();
-			deliveryItem.setDelivery(delivery);
-			deliveryItem.setProduct(product);
-			deliveryItem.setWeight(itemRequest.weight());
-			deliveryItem.setUnitPrice(unitPrice);
-			deliveryItem.calculateTotalPrice();
+	@Override
+	public DeliveryBatchResponse createDeliveries(CreateDeliveryBatchRequest request) {
+		List<CreateDeliveryRequest> requests = request.deliveries();
+		log.info("Creating batch of {} deliveries", requests.size());
 
-			deliveryItems.add(deliveryItem);
+		List<LocalDateTime> deliveryDates = requests.stream()
+				.map(this::resolveDeliveryDate)
+				.toList();
 
-			totalWeight = totalWeight.add(deliveryItem.getWeight());
-			totalCost = totalCost.add(deliveryItem.getTotalPrice());
+		// Справочные данные берутся из кэша, цены для всей пачки загружаются одним запросом.
+		// Отсутствующие записи не должны бросать исключения через транзакционные прокси,
+		// иначе общая транзакция будет помечена rollback-only
+		Set<Long> supplierIds = requests.stream()
+				.map(CreateDeliveryRequest::supplierId)
+				.collect(Collectors.toSet());
+		Set<PriceLookupKey> priceKeys = new HashSet<>();
+		for (int i = 0; i < requests.size(); i++) {
+			priceKeys.addAll(priceKeysOf(requests.get(i), deliveryDates.get(i)));
+		}
+		Set<UUID> deliveryNumbers = requests.stream()
+				.map(CreateDeliveryRequest::deliveryNumber)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet());
+
+		Map<Long, SupplierSnapshot> suppliers = referenceDataCache.findSuppliers(supplierIds);
+		Map<Long, ProductSnapshot> products = referenceDataCache.findProducts(productIdsOf(requests));
+		Map<PriceLookupKey, BigDecimal> prices = priceEntityService.getActivePrices(priceKeys);
+		DeliveryStatusSnapshot createdStatus = referenceDataCache.getStatus(DeliveryStatus.Code.CREATED);
+		Map<UUID, Delivery> existingDeliveries = deliveryNumbers.isEmpty() ? Map.of() :
+				deliveryEntityService.getByDeliveryNumbersWithDetails(deliveryNumbers).stream()
+						.collect(Collectors.toMap(Delivery::getDeliveryNumber, Function.identity()));
+
+		DeliveryBatchResultResponse[] results = new DeliveryBatchResultResponse[requests.size()];
+		List<Delivery> deliveries = new ArrayList<>();
+		List<Integer> deliveryIndexes = new ArrayList<>();
+		Set<UUID> claimedNumbers = new HashSet<>();
+		int replayed = 0;
+
+		for (int i = 0; i < requests.size(); i++) {
+			CreateDeliveryRequest deliveryRequest = requests.get(i);
+			try {
+				// Повтор уже созданной поставки возвращает её без пересчёта цен.
+				// Ответ строится до сохранения пачки: saveAll очищает контекст персистентности
+				Delivery existing = deliveryRequest.deliveryNumber() != null
+						? existingDeliveries.get(deliveryRequest.deliveryNumber())
+						: null;
+				if (existing != null) {
+					if (!existing.getSupplier().getId().equals(deliveryRequest.supplierId())) {
+						throw new DeliveryNumberConflictException(existing.getDeliveryNumber());
+					}
+					results[i] = DeliveryBatchResultResponse.builder()
+							.index(i)
+							.replayed(true)
+							.delivery(buildDeliveryResponse(existing))
+							.build();
+					replayed++;
+					continue;
+				}
+				if (deliveryRequest.deliveryNumber() != null && !claimedNumbers.add(deliveryRequest.deliveryNumber())) {
+					throw new ValidationException("Delivery number " + deliveryRequest.deliveryNumber() +
+							" is repeated within the batch");
+				}
+
+				SupplierSnapshot supplier = suppliers.get(deliveryRequest.supplierId());
+				if (supplier == null) {
+					throw new SupplierNotFoundException(deliveryRequest.supplierId());
+				}
+				deliveries.add(buildDelivery(deliveryRequest, deliveryDates.get(i), supplier,
+						createdStatus, products, prices));
+				deliveryIndexes.add(i);
+			} catch (ValidationException | EntityNotFoundException e) {
+				results[i] = DeliveryBatchResultResponse.builder()
+						.index(i)
+						.created(false)
+						.error(e.getMessage())
+						.build();
+			}
 		}
 
-		delivery.setItems(deliveryItems);
-		Delivery savedDelivery = deliveryEntityService.save(delivery);
+		List<Delivery> savedDeliveries = deliveryEntityService.saveAll(deliveries);
+		dailyDeliveryRollupService.addDeliveries(savedDeliveries);
+
+		for (int i = 0; i < savedDeliveries.size(); i++) {
+			Delivery saved = savedDeliveries.get(i);
+			int index = deliveryIndexes.get(i);
+			eventPublisher.publishEvent(DeliveryCreatedEvent.of(saved));
+			results[index] = DeliveryBatchResultResponse.builder()
+					.index(index)
+					.created(true)
+					.delivery(buildCreatedDeliveryResponse(saved,
+							suppliers.get(saved.getSupplier().getId()), createdStatus, products))
+					.build();
+		}
 
-		log.info("Delivery created with ID: {}", savedDelivery.getId());
+		int failed = requests.size() - savedDeliveries.size() - replayed;
+		log.info("Batch processed: {} created, {} replayed, {} failed",
+				savedDeliveries.size(), replayed, failed);
 
-		return buildDeliveryResponse(savedDelivery, totalWeight, totalCost);
+		return DeliveryBatchResponse.builder()
+				.total(requests.size())
+				.created(savedDeliveries.size())
+				.replayed(replayed)
+				.failed(failed)
+				.results(Arrays.asList(results))
+				.build();
 	}
 
 	@Override
@@ -94,92 +225,307 @@ public class DeliveryServiceImpl implements DeliveryService {
 	public DeliveryResponse getDelivery(Long id) {
 		log.info("Getting delivery with ID: {}", id);
 
-		Delivery delivery = deliveryEntityService.getByIdWithItems(id);
+		return deliveryReadRepository.findById(id)
+				.orElseThrow(() -> new DeliveryNotFoundException(id));
+	}
 
-		BigDecimal totalWeight = calculateTotalWeight(delivery);
-		BigDecimal totalCost = calculateTotalCost(delivery);
+	@Override
+	@Transactional(readOnly = true)
+	public DeliveryVersionDto getDeliveryVersion(Long id) {
+		return deliveryReadRepository.findVersionById(id)
+				.orElseThrow(() -> new DeliveryNotFoundException(id));
+	}
 
-		return buildDeliveryResponse(delivery, totalWeight, totalCost);
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<DeliveryResponse> findDeliveryByNumber(UUID deliveryNumber) {
+		return deliveryReadRepository.findByDeliveryNumber(deliveryNumber);
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public List<DeliveryResponse> getAllDeliveries() {
-		log.info("Getting all deliveries");
+	public DeliveryPage getDeliveries(LocalDateTime from, LocalDateTime to, String cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		LocalDateTime windowEnd = to != null ? to : LocalDateTime.now();
+		LocalDateTime windowStart = from != null ? from : windowEnd.minus(DEFAULT_WINDOW);
+		if (windowStart.isAfter(windowEnd)) {
+			throw new ValidationException("Window start must not be after window end");
+		}
+		DeliveryCursor position = cursor != null
+				? DeliveryCursor.decode(cursor)
+				: new DeliveryCursor(windowEnd, Long.MAX_VALUE);
+		log.info("Getting deliveries from {} before {}, page size {}", windowStart, position.deliveryDate(), pageSize);
+
+		// Лишняя строка показывает, есть ли следующая страница, без отдельного COUNT
+		List<DeliveryResponse> fetched = deliveryReadRepository.findPageBefore(
+				windowStart, position.deliveryDate(), position.id(), pageSize + 1);
+		boolean hasNext = fetched.size() > pageSize;
+		List<DeliveryResponse> page = hasNext ? fetched.subList(0, pageSize) : fetched;
+
+		DeliveryResponse last = hasNext ? page.get(page.size() - 1) : null;
+		String nextCursor = last != null ? new DeliveryCursor(last.deliveryDate(), last.id()).encode() : null;
+		return new DeliveryPage(page, nextCursor, windowStart);
+	}
 
-		List<Delivery> deliveries = deliveryEntityService.getAll();
+	@Override
+	@Transactional(readOnly = true)
+	public DeliveryPage searchDeliveries(DeliverySearchRequest request, String cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		requireOrdered(request.from(), request.to(), "Window start must not be after window end");
+		requireOrdered(request.minWeight(), request.maxWeight(), "Minimum weight must not exceed maximum weight");
+		requireOrdered(request.minCost(), request.maxCost(), "Minimum cost must not exceed maximum cost");
+		log.info("Searching deliveries: {}, page size {}", request, pageSize);
+
+		List<Specification<Delivery>> conditions = new ArrayList<>();
+		if (request.from() != null || request.to() != null) {
+			conditions.add(DeliverySpecifications.deliveredBetween(request.from(), request.to()));
+		}
+		if (request.supplierIds() != null && !request.supplierIds().isEmpty()) {
+			conditions.add(DeliverySpecifications.fromSuppliers(request.supplierIds()));
+		}
+		if (request.status() != null) {
+			conditions.add(DeliverySpecifications.hasStatus(referenceDataCache.getStatus(request.status()).id()));
+		}
+		if (request.minWeight() != null || request.maxWeight() != null) {
+			conditions.add(DeliverySpecifications.totalWeightBetween(request.minWeight(), request.maxWeight()));
+		}
+		if (request.minCost() != null || request.maxCost() != null) {
+			conditions.add(DeliverySpecifications.totalCostBetween(request.minCost(), request.maxCost()));
+		}
+		boolean byProducts = request.productIds() != null && !request.productIds().isEmpty();
+		if (byProducts || request.productType() != null) {
+			Long productTypeId = request.productType() != null
+					? referenceDataCache.getProductType(request.productType()).id()
+					: null;
+			conditions.add(DeliverySpecifications.hasItem(request.productIds(), productTypeId));
+		}
+		if (cursor != null) {
+			conditions.add(DeliverySpecifications.after(
+					DeliverySearchCursor.decode(cursor, request.sort()), request.direction()));
+		}
 
-		return deliveries.stream()
-				.map(delivery -> {
-					BigDecimal totalWeight = calculateTotalWeight(delivery);
-					BigDecimal totalCost = calculateTotalCost(delivery);
-					return buildDeliveryResponse(delivery, totalWeight, totalCost);
-				})
-				.toList();
+		// Поиск отбирает только ключи страницы; поставки с позициями собирает проекция,
+		// а даты ключей ограничивают её секциями этих месяцев
+		Sort sort = Sort.by(request.direction(), request.sort().property(), Delivery_.ID);
+		List<DeliveryKeyDto> keys = deliveryEntityService.searchKeys(Specification.allOf(conditions), sort, pageSize + 1);
+		boolean hasNext = keys.size() > pageSize;
+		List<DeliveryResponse> page = deliveryReadRepository.findByKeys(hasNext ? keys.subList(0, pageSize) : keys);
+
+		DeliveryResponse last = hasNext ? page.get(page.size() - 1) : null;
+		String nextCursor = last != null
+				? new DeliverySearchCursor(request.sort(), String.valueOf(request.sort().keyOf(last)), last.id()).encode()
+				: null;
+		return new DeliveryPage(page, nextCursor, request.from());
 	}
 
 	@Override
 	@Transactional(readOnly = true)
-	public List<DeliveryResponse> getDeliveriesBySupplier(Long supplierId) {
-		log.info("Getting deliveries for supplier ID: {}", supplierId);
+	public void forEachDeliveryOfSupplier(Long supplierId, Consumer<DeliveryResponse> action) {
+		log.info("Streaming deliveries for supplier ID: {}", supplierId);
 
-		if (!supplierEntityService.existsById(supplierId)) {
+		if (referenceDataCache.findSupplier(supplierId).isEmpty()) {
 			throw new ValidationException("Supplier with ID " + supplierId + " not found");
 		}
 
-		List<Delivery> deliveries = deliveryEntityService.getBySupplierIdWithDetails(supplierId);
+		// Итоги берутся из строки поставки, позиции для списка не загружаются.
+		// Транзакция держит курсор открытым, пока строки передаются в action
+		try (Stream<DeliveryResponse> deliveries = deliveryReadRepository.streamSummariesBySupplierId(supplierId)) {
+			deliveries.forEach(action);
+		}
+	}
 
-		return deliveries.stream()
-				.map(delivery -> {
-					BigDecimal totalWeight = calculateTotalWeight(delivery);
-					BigDecimal totalCost = calculateTotalCost(delivery);
-					return buildDeliveryResponse(delivery, totalWeight, totalCost);
-				})
-				.toList();
+	@Override
+	@Transactional(readOnly = true)
+	public DeliveryPage getDeliveryHistoryOfSupplier(Long supplierId, String cursor, Integer size) {
+		int pageSize = resolvePageSize(size);
+		if (referenceDataCache.findSupplier(supplierId).isEmpty()) {
+			throw new SupplierNotFoundException(supplierId);
+		}
+		DeliveryCursor position = cursor != null ? DeliveryCursor.decode(cursor) : null;
+		log.info("Getting delivery history of supplier ID: {} before {}, page size {}",
+				supplierId, position != null ? position.deliveryDate() : "latest", pageSize);
+
+		// Сначала ключи страницы, затем поставки и позиции по ним: строки позиций не несут колонок поставки
+		List<DeliveryKeyDto> keys = deliveryReadRepository.findKeyPageOfSupplier(supplierId,
+				position != null ? position.deliveryDate() : null, position != null ? position.id() : null,
+				pageSize + 1);
+		boolean hasNext = keys.size() > pageSize;
+		List<DeliveryKeyDto> pageKeys = hasNext ? keys.subList(0, pageSize) : keys;
+		List<DeliveryResponse> page = deliveryReadRepository.findByKeys(pageKeys);
+
+		DeliveryKeyDto last = hasNext ? pageKeys.get(pageKeys.size() - 1) : null;
+		String nextCursor = last != null ? new DeliveryCursor(last.deliveryDate(), last.id()).encode() : null;
+		return new DeliveryPage(page, nextCursor, null);
+	}
+
+	@Override
+	public DeliveryResponse changeStatus(Long id, DeliveryStatus.Code status) {
+		log.info("Changing status of delivery ID: {} to {}", id, status);
+
+		if (transitionStatus(List.of(id), status).isEmpty()) {
+			// Причину выясняем только при отказе: успешный переход не читает поставку
+			Delivery delivery = deliveryEntityService.getById(id);
+			DeliveryStatus.Code current = referenceDataCache.getStatus(delivery.getStatus().getId()).code();
+			throw new DeliveryStatusTransitionException(id, current, status);
+		}
+
+		return getDelivery(id);
+	}
+
+	@Override
+	public DeliveryStatusBatchResponse changeStatuses(UpdateDeliveryStatusBatchRequest request) {
+		Set<Long> ids = new LinkedHashSet<>(request.deliveryIds());
+		log.info("Changing status of {} deliveries to {}", ids.size(), request.status());
+
+		Set<Long> transitioned = new HashSet<>(transitionStatus(ids, request.status()));
+
+		Map<Boolean, List<Long>> partitioned = ids.stream()
+				.collect(Collectors.partitioningBy(transitioned::contains));
+		log.info("Status changed for {} deliveries, {} not transitioned",
+				partitioned.get(true).size(), partitioned.get(false).size());
+
+		return DeliveryStatusBatchResponse.builder()
+				.status(request.status())
+				.transitioned(partitioned.get(true))
+				.notTransitioned(partitioned.get(false))
+				.build();
 	}
 
-	private BigDecimal getUnitPrice(Long supplierId, Long productId, LocalDate date) {
-		return priceEntityService.getActivePrice(supplierId, productId, date)
-				.orElseThrow(() -> new ValidationException(
-						String.format("No active price found for supplier %d, product %d on date %s. " +
-										"Please set price in supplier price list before creating delivery.",
-								supplierId, productId, date)
-				));
+	private static int resolvePageSize(Integer size) {
+		int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+		if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+			throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		return pageSize;
 	}
 
-	private BigDecimal calculateTotalWeight(Delivery delivery) {
-		if (delivery.getItems() == null) {
-			return BigDecimal.ZERO;
+	private static <T extends Comparable<? super T>> void requireOrdered(T lower, T upper, String message) {
+		if (lower != null && upper != null && lower.compareTo(upper) > 0) {
+			throw new ValidationException(message);
 		}
-		return delivery.getItems().stream()
-				.map(DeliveryItem::getWeight)
-				.reduce(BigDecimal.ZERO, BigDecimal::add);
 	}
 
-	private BigDecimal calculateTotalCost(Delivery delivery) {
-		if (delivery.getItems() == null) {
-			return BigDecimal.ZERO;
+	private List<Long> transitionStatus(Collection<Long> ids, DeliveryStatus.Code target) {
+		List<Long> fromStatusIds = DeliveryStatus.Code.allowedSourcesOf(target).stream()
+				.map(code -> referenceDataCache.getStatus(code).id())
+				.toList();
+		if (fromStatusIds.isEmpty()) {
+			return List.of();
 		}
-		return delivery.getItems().stream()
-				.map(DeliveryItem::getTotalPrice)
-				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		List<Long> transitioned = deliveryEntityService.updateStatus(ids, fromStatusIds,
+				referenceDataCache.getStatus(target).id());
+		if (!transitioned.isEmpty()) {
+			eventPublisher.publishEvent(new DeliveryStatusChangedEvent(transitioned, target));
+		}
+		return transitioned;
 	}
 
-	private DeliveryResponse buildDeliveryResponse(Delivery delivery, BigDecimal totalWeight, BigDecimal totalCost) {
-		DeliveryResponse response = deliveryApiMapper.toDeliveryResponse(delivery);
-		List<DeliveryItemResponse> itemResponses = deliveryApiMapper.toDeliveryItemResponseList(delivery.getItems());
+	private Delivery buildDelivery(CreateDeliveryRequest request, LocalDateTime deliveryDate,
+								   SupplierSnapshot supplier, DeliveryStatusSnapshot status,
+								   Map<Long, ProductSnapshot> products, Map<PriceLookupKey, BigDecimal> prices) {
+		// Связи проставляются JPA-ссылками, чтобы запись не выполняла SELECT по справочникам
+		Delivery delivery = new Delivery();
+		delivery.setDeliveryNumber(request.deliveryNumber() != null
+				? request.deliveryNumber()
+				: deliveryNumberGenerator.next());
+		delivery.setSupplier(referenceDataCache.reference(Supplier.class, supplier.id()));
+		delivery.setDeliveryDate(deliveryDate);
+		delivery.setStatus(referenceDataCache.reference(DeliveryStatus.class, status.id()));
+
+		LocalDate priceDate = deliveryDate.toLocalDate();
+		List<DeliveryItem> deliveryItems = new ArrayList<>();
+		Set<Long> productsWithoutPrice = new LinkedHashSet<>();
+
+		for (var itemRequest : request.items()) {
+			ProductSnapshot product = products.get(itemRequest.productId());
+			if (product == null) {
+				throw new ProductNotFoundException(itemRequest.productId());
+			}
+
+			BigDecimal unitPrice = prices.get(new PriceLookupKey(supplier.id(), product.id(), priceDate));
+			if (unitPrice == null) {
+				productsWithoutPrice.add(product.id());
+				continue;
+			}
+
+			DeliveryItem deliveryItem = new DeliveryItem();
+			deliveryItem.setDelivery(delivery);
+			deliveryItem.setProduct(referenceDataCache.reference(Product.class, product.id()));
+			deliveryItem.setWeight(itemRequest.weight());
+			deliveryItem.setUnitPrice(unitPrice);
+			deliveryItem.calculateTotalPrice();
+
+			deliveryItems.add(deliveryItem);
+		}
+
+		if (!productsWithoutPrice.isEmpty()) {
+			throw new ValidationException(
+					String.format("No active price found for supplier %d, product %s on date %s. " +
+									"Please set price in supplier price list before creating delivery.",
+							supplier.id(),
+							productsWithoutPrice.stream().map(String::valueOf).collect(Collectors.joining(", ")),
+							priceDate)
+			);
+		}
+
+		delivery.setItems(deliveryItems);
+		delivery.calculateTotals();
+		return delivery;
+	}
+
+	private LocalDateTime resolveDeliveryDate(CreateDeliveryRequest request) {
+		return request.deliveryDate() != null ? request.deliveryDate() : LocalDateTime.now();
+	}
+
+	private Set<Long> productIdsOf(List<CreateDeliveryRequest> requests) {
+		return requests.stream()
+				.flatMap(r -> r.items().stream())
+				.map(DeliveryItemRequest::productId)
+				.collect(Collectors.toSet());
+	}
+
+	private Set<PriceLookupKey> priceKeysOf(CreateDeliveryRequest request, LocalDateTime deliveryDate) {
+		return request.items().stream()
+				.map(item -> new PriceLookupKey(request.supplierId(), item.productId(), deliveryDate.toLocalDate()))
+				.collect(Collectors.toSet());
+	}
+
+	// Ответ на создание собирается из снимков: ссылки на справочники не инициализируются
+	private DeliveryResponse buildCreatedDeliveryResponse(Delivery delivery, SupplierSnapshot supplier,
+														  DeliveryStatusSnapshot status,
+														  Map<Long, ProductSnapshot> products) {
+		List<DeliveryItemResponse> itemResponses = delivery.getItems().stream()
+				.map(item -> {
+					ProductSnapshot product = products.get(item.getProduct().getId());
+					return DeliveryItemResponse.builder()
+							.id(item.getId())
+							.productId(product.id())
+							.productName(product.name())
+							.productType(product.productTypeName())
+							.variety(product.varietyName())
+							.weight(item.getWeight())
+							.unitPrice(item.getUnitPrice())
+							.totalPrice(item.getTotalPrice())
+							.build();
+				})
+				.toList();
 
 		return DeliveryResponse.builder()
-				.id(response.id())
-				.deliveryNumber(response.deliveryNumber())
-				.supplierId(response.supplierId())
-				.supplierName(response.supplierName())
-				.deliveryDate(response.deliveryDate())
-				.status(response.status())
-				.createdAt(response.createdAt())
+				.id(delivery.getId())
+				.deliveryNumber(delivery.getDeliveryNumber())
+				.supplierId(supplier.id())
+				.supplierName(supplier.name())
+				.deliveryDate(delivery.getDeliveryDate())
+				.status(status.name())
+				.createdAt(delivery.getCreatedAt())
 				.items(itemResponses)
-				.totalWeight(totalWeight)
-				.totalCost(totalCost)
+				.itemCount(delivery.getItemCount())
+				.totalWeight(delivery.getTotalWeight())
+				.totalCost(delivery.getTotalCost())
 				.build();
 	}
+
+	private DeliveryResponse buildDeliveryResponse(Delivery delivery) {
+		return deliveryApiMapper.toDeliveryResponse(delivery);
+	}
 }
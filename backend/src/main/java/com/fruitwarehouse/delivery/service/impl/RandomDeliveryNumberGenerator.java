@@ -0,0 +1,17 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.delivery.service.DeliveryNumberGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+@ConditionalOnProperty(name = "fruitwarehouse.delivery-number.strategy", havingValue = "random")
+public class RandomDeliveryNumberGenerator implements DeliveryNumberGenerator {
+
+	@Override
+	public UUID next() {
+		return UUID.randomUUID();
+	}
+}
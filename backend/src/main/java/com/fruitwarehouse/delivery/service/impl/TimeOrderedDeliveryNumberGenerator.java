@@ -0,0 +1,53 @@
+package com.fruitwarehouse.delivery.service.impl;
+
+import com.fruitwarehouse.delivery.service.DeliveryNumberGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUID версии 7 (RFC 9562): старшие 48 бит — время в миллисекундах, поэтому новые номера
+ * попадают в правую часть B-дерева уникального индекса, а не на случайную страницу.
+ * 12 бит rand_a используются как счётчик внутри миллисекунды, чтобы номера одного экземпляра
+ * были строго возрастающими.
+ */
+@Component
+@ConditionalOnProperty(name = "fruitwarehouse.delivery-number.strategy", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedDeliveryNumberGenerator implements DeliveryNumberGenerator {
+
+	private static final int MAX_COUNTER = 0xFFF;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private long lastTimestamp;
+	private int counter;
+
+	@Override
+	public UUID next() {
+		long timestamp;
+		int sequence;
+		synchronized (this) {
+			timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+			if (timestamp == lastTimestamp) {
+				if (counter == MAX_COUNTER) {
+					// Счётчик исчерпан: занимаем следующую миллисекунду, порядок важнее точности времени
+					timestamp++;
+					counter = random.nextInt(MAX_COUNTER / 2);
+				} else {
+					counter++;
+				}
+			} else {
+				// Случайная стартовая точка в нижней половине оставляет запас для роста счётчика
+				counter = random.nextInt(MAX_COUNTER / 2);
+			}
+			lastTimestamp = timestamp;
+			sequence = counter;
+		}
+
+		long mostSigBits = (timestamp << 16) | 0x7000L | sequence;
+		long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+		return new UUID(mostSigBits, leastSigBits);
+	}
+}
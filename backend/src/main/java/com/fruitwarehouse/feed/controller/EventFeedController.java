@@ -0,0 +1,41 @@
+package com.fruitwarehouse.feed.controller;
+
+import com.fruitwarehouse.feed.service.EventFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/events")
+@Tag(name = "Events", description = "Change notifications for dashboards")
+@RequiredArgsConstructor
+public class EventFeedController {
+
+	private final EventFeedService eventFeedService;
+
+	@Value("${fruitwarehouse.event-feed.emitter-timeout}")
+	private Duration emitterTimeout;
+
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "Subscribe to committed changes",
+			description = "Server-Sent Events: delivery-created, delivery-status-changed, deliveries-imported " +
+					"and price-changed. A reconnecting client sends Last-Event-ID and receives the events it missed; " +
+					"a reset event means they are no longer retained and the client should reload its data")
+	public SseEmitter subscribe(
+			@Parameter(description = "Id of the last event received before the connection dropped")
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+		eventFeedService.subscribe(emitter, lastEventId);
+		return emitter;
+	}
+}
@@ -0,0 +1,9 @@
+package com.fruitwarehouse.feed.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface EventFeedService {
+	void subscribe(SseEmitter emitter, String lastEventId);
+	void publish(String name, Object data);
+	void sendHeartbeats();
+}
@@ -0,0 +1,7 @@
+package com.fruitwarehouse.feed.service.dto;
+
+/**
+ * Событие ленты. Номер сквозной в пределах одного запуска приложения.
+ */
+public record FeedEvent(long sequence, String name, Object data) {
+}
@@ -0,0 +1,294 @@
+package com.fruitwarehouse.feed.service.impl;
+
+import com.fruitwarehouse.delivery.event.DeliveriesImportedEvent;
+import com.fruitwarehouse.delivery.event.DeliveryCreatedEvent;
+import com.fruitwarehouse.delivery.event.DeliveryStatusChangedEvent;
+import com.fruitwarehouse.feed.service.EventFeedService;
+import com.fruitwarehouse.feed.service.dto.FeedEvent;
+import com.fruitwarehouse.supplier.event.PriceChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Лента закоммиченных изменений для дашбордов. Последние события хранятся в кольцевом буфере,
+ * и переподключившийся клиент дочитывает пропущенное по Last-Event-ID. У каждого подписчика
+ * своя ограниченная очередь; очереди разбирает общий небольшой пул отправителей, а ожидающее
+ * соединение потока не занимает. Подписчик, не успевающий читать, отключается: браузер
+ * переподключится и дочитает пропуск из буфера, не задерживая остальных.
+ */
+@Slf4j
+@Service
+public class EventFeedServiceImpl implements EventFeedService, SmartLifecycle {
+
+	private static final String RESET_EVENT = "reset";
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+	// Пустое событие в очереди подписчика означает комментарий-пульс, в буфер он не попадает
+	private static final FeedEvent HEARTBEAT = new FeedEvent(0, null, null);
+
+	// Номера прошлого запуска не совпадают с нынешними, поэтому в идентификатор входит время запуска
+	private final String generation = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+	private final int historySize;
+	private final int subscriberBufferSize;
+	private final int dispatchThreads;
+
+	private final Deque<FeedEvent> history = new ArrayDeque<>();
+	private long lastSequence;
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private final Counter published;
+	private final Counter dropped;
+
+	private volatile ExecutorService dispatcher;
+
+	public EventFeedServiceImpl(
+			MeterRegistry meterRegistry,
+			@Value("${fruitwarehouse.event-feed.history-size}") int historySize,
+			@Value("${fruitwarehouse.event-feed.subscriber-buffer-size}") int subscriberBufferSize,
+			@Value("${fruitwarehouse.event-feed.dispatch-threads}") int dispatchThreads) {
+		this.historySize = historySize;
+		this.subscriberBufferSize = subscriberBufferSize;
+		this.dispatchThreads = dispatchThreads;
+
+		this.published = Counter.builder("event.feed.published")
+				.description("Events appended to the dashboard feed")
+				.register(meterRegistry);
+		this.dropped = Counter.builder("event.feed.subscribers.dropped")
+				.description("Subscribers disconnected because their buffer overflowed")
+				.register(meterRegistry);
+		Gauge.builder("event.feed.subscribers", subscribers, Set::size)
+				.description("Open event feed connections")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void subscribe(SseEmitter emitter, String lastEventId) {
+		Subscriber subscriber = new Subscriber(emitter);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> subscribers.remove(subscriber));
+
+		// Пропущенное и новое не должны ни разойтись, ни задвоиться: оба читаются под одной блокировкой
+		synchronized (this) {
+			subscriber.queue.addAll(missedSince(lastEventId));
+			subscribers.add(subscriber);
+		}
+		schedule(subscriber);
+	}
+
+	@Override
+	public void publish(String name, Object data) {
+		List<Subscriber> receivers;
+		synchronized (this) {
+			FeedEvent event = new FeedEvent(++lastSequence, name, data);
+			history.addLast(event);
+			if (history.size() > historySize) {
+				history.removeFirst();
+			}
+			receivers = List.copyOf(subscribers);
+			receivers.forEach(subscriber -> subscriber.offer(event));
+		}
+		published.increment();
+		receivers.forEach(this::schedule);
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${fruitwarehouse.event-feed.heartbeat-interval}",
+			initialDelayString = "${fruitwarehouse.event-feed.heartbeat-interval}")
+	public void sendHeartbeats() {
+		// Держит соединение открытым через прокси и выявляет ушедших клиентов
+		for (Subscriber subscriber : subscribers) {
+			subscriber.offer(HEARTBEAT);
+			schedule(subscriber);
+		}
+	}
+
+	@TransactionalEventListener
+	public void onDeliveryCreated(DeliveryCreatedEvent event) {
+		publish("delivery-created", event);
+	}
+
+	@TransactionalEventListener
+	public void onDeliveryStatusChanged(DeliveryStatusChangedEvent event) {
+		publish("delivery-status-changed", event);
+	}
+
+	@TransactionalEventListener
+	public void onDeliveriesImported(DeliveriesImportedEvent event) {
+		publish("deliveries-imported", event);
+	}
+
+	@TransactionalEventListener
+	public void onPriceChanged(PriceChangedEvent event) {
+		publish("price-changed", event);
+	}
+
+	@Override
+	public synchronized void start() {
+		dispatcher = Executors.newFixedThreadPool(dispatchThreads, new CustomizableThreadFactory("event-feed-"));
+	}
+
+	@Override
+	public void stop() {
+		ExecutorService current;
+		synchronized (this) {
+			current = dispatcher;
+			dispatcher = null;
+		}
+		if (current == null) {
+			return;
+		}
+
+		subscribers.forEach(subscriber -> subscriber.emitter.complete());
+		subscribers.clear();
+		current.shutdown();
+		try {
+			if (!current.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+				current.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return dispatcher != null;
+	}
+
+	private List<FeedEvent> missedSince(String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank()) {
+			// Новый клиент сам загружает текущее состояние
+			return List.of();
+		}
+
+		long sequence = sequenceOf(lastEventId);
+		long oldestRetained = lastSequence - history.size() + 1;
+		if (sequence < 0 || sequence > lastSequence || sequence + 1 < oldestRetained) {
+			// Пропущенное уже вытеснено или получено от прошлого запуска. Данные — пустой
+			// JSON-объект: клиент разбирает данные любого события как JSON
+			return List.of(new FeedEvent(lastSequence, RESET_EVENT, Map.of()));
+		}
+		return history.stream()
+				.filter(event -> event.sequence() > sequence)
+				.toList();
+	}
+
+	private long sequenceOf(String eventId) {
+		int separator = eventId.indexOf('-');
+		if (separator < 0 || !eventId.substring(0, separator).equals(generation)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(eventId.substring(separator + 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private String idOf(FeedEvent event) {
+		return generation + "-" + event.sequence();
+	}
+
+	private void schedule(Subscriber subscriber) {
+		ExecutorService current = dispatcher;
+		if (current == null || !subscriber.draining.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			current.execute(() -> drain(subscriber));
+		} catch (RejectedExecutionException e) {
+			subscriber.draining.set(false);
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		try {
+			FeedEvent event;
+			while ((event = subscriber.poll()) != null) {
+				subscriber.emitter.send(event == HEARTBEAT
+						? SseEmitter.event().comment("heartbeat")
+						: SseEmitter.event()
+								.id(idOf(event))
+								.name(event.name())
+								.data(event.data(), MediaType.APPLICATION_JSON));
+			}
+			if (subscriber.overflowed) {
+				subscriber.emitter.complete();
+				return;
+			}
+		} catch (IOException | IllegalStateException e) {
+			// Клиент ушёл или соединение уже завершено; контейнер сообщит об ошибке через onError
+			subscribers.remove(subscriber);
+			log.debug("Event feed subscriber disconnected", e);
+			return;
+		} finally {
+			subscriber.draining.set(false);
+		}
+
+		// Событие или переполнение могли случиться между последним poll и снятием флага
+		if (subscriber.hasPending()) {
+			schedule(subscriber);
+		}
+	}
+
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final Deque<FeedEvent> queue = new ArrayDeque<>();
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private volatile boolean overflowed;
+
+		private Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+
+		private synchronized void offer(FeedEvent event) {
+			if (overflowed) {
+				return;
+			}
+			if (queue.size() >= subscriberBufferSize) {
+				// Закрывает соединение поток-отправитель: публикующий поток не ждёт медленного клиента
+				overflowed = true;
+				queue.clear();
+				subscribers.remove(this);
+				dropped.increment();
+				return;
+			}
+			queue.addLast(event);
+		}
+
+		private synchronized FeedEvent poll() {
+			return queue.pollFirst();
+		}
+
+		private synchronized boolean hasPending() {
+			return !queue.isEmpty() || overflowed;
+		}
+	}
+}
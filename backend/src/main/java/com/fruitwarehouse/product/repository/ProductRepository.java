@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 			@Param("varietyName") String varietyName
 	);
 
+	@Query("SELECT p FROM Product p JOIN FETCH p.productType")
+	List<Product> findAllWithProductType();
+
+	@Query("SELECT p FROM Product p JOIN FETCH p.productType WHERE p.id IN :ids")
+	List<Product> findAllWithProductTypeByIdIn(@Param("ids") Collection<Long> ids);
+
 	@Query("SELECT p FROM Product p WHERE p.productType.code = :productTypeCode")
 	List<Product> findByProductTypeCode(@Param("productTypeCode") ProductType.Code productTypeCode);
 
@@ -1,17 +1,32 @@
 package com.fruitwarehouse.report.controller;
 
+import com.fruitwarehouse.common.sql.SqlStatementBudget;
 import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+import com.fruitwarehouse.report.controller.dto.response.ReportJobResponse;
+import com.fruitwarehouse.report.service.ReportJobService;
 import com.fruitwarehouse.report.service.ReportService;
+import com.fruitwarehouse.report.service.dto.ReportJobFile;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/reports")
@@ -20,16 +35,86 @@ import org.springframework.web.bind.annotation.RestController;
 public class ReportController {
 
 	private final ReportService reportService;
+	private final ReportJobService reportJobService;
 
+	// Один курсор (ноль при попадании в кэш); строки читаются в потоке записи ответа
+	// и сверяются с бюджетом после неё
 	@GetMapping
+	@SqlStatementBudget(1)
 	@Operation(summary = "Generate delivery report")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Report generated successfully"),
 			@ApiResponse(responseCode = "400", description = "Invalid request parameters"),
 			@ApiResponse(responseCode = "500", description = "Internal server error")
 	})
-	public ResponseEntity<?> generateReport(
+	public ResponseEntity<StreamingResponseBody> generateReport(
 			@Valid ReportRequest request) {
-		return reportService.generateReport(request);
+		HttpHeaders headers = reportService.prepareReport(request);
+		StreamingResponseBody body = output -> reportService.writeReport(request, output);
+		return ResponseEntity.ok()
+				.headers(headers)
+				.body(body);
+	}
+
+	// Проверка запроса и оценка числа строк по дневным итогам
+	@PostMapping("/jobs")
+	@SqlStatementBudget(1)
+	@Operation(summary = "Generate delivery report in the background",
+			description = "Poll the returned job URL for progress; once the job is COMPLETED, " +
+					"download the file from downloadUrl. Downloads support Range requests")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "202", description = "Report job queued"),
+			@ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+			@ApiResponse(responseCode = "429", description = "Report job queue is full, retry after the given delay")
+	})
+	public ResponseEntity<ReportJobResponse> submitReportJob(
+			@Valid @RequestBody ReportRequest request) {
+		ReportJobResponse job = reportJobService.submit(request);
+		URI jobUri = ServletUriComponentsBuilder.fromCurrentContextPath()
+				.path("/api/v1/reports/jobs/{id}")
+				.buildAndExpand(job.id())
+				.toUri();
+		return ResponseEntity.accepted()
+				.location(jobUri)
+				.body(job);
+	}
+
+	// Задания хранятся в памяти, к базе обращений нет
+	@GetMapping("/jobs/{id}")
+	@SqlStatementBudget(0)
+	@Operation(summary = "Get report job status and progress")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Report job found"),
+			@ApiResponse(responseCode = "404", description = "Report job not found or expired")
+	})
+	public ResponseEntity<ReportJobResponse> getReportJob(@PathVariable UUID id) {
+		ReportJobResponse job = reportJobService.getJob(id);
+		if (job.status() == ReportJobResponse.Status.COMPLETED) {
+			job = job.toBuilder()
+					.downloadUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
+							.path("/api/v1/reports/jobs/{id}/file")
+							.buildAndExpand(id)
+							.toUriString())
+					.build();
+		}
+		return ResponseEntity.ok(job);
+	}
+
+	// Range и 206 обрабатывает Spring для тела-ресурса; файл задания не меняется, поэтому докачка безопасна.
+	// Файл читается с диска, к базе обращений нет
+	@GetMapping("/jobs/{id}/file")
+	@SqlStatementBudget(0)
+	@Operation(summary = "Download the file of a completed report job")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Report file"),
+			@ApiResponse(responseCode = "206", description = "Requested range of the report file"),
+			@ApiResponse(responseCode = "404", description = "Report job not found or expired"),
+			@ApiResponse(responseCode = "409", description = "Report job is not completed")
+	})
+	public ResponseEntity<Resource> downloadReportJobFile(@PathVariable UUID id) {
+		ReportJobFile file = reportJobService.getFile(id);
+		return ResponseEntity.ok()
+				.headers(file.headers())
+				.body(new FileSystemResource(file.path()));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.fruitwarehouse.report.controller.dto.response;
+
+import com.fruitwarehouse.report.controller.dto.request.ReportFormat;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Builder(toBuilder = true)
+public record ReportJobResponse(
+		UUID id,
+		Status status,
+		LocalDate startDate,
+		LocalDate endDate,
+		boolean detailed,
+		ReportFormat format,
+		long rowsProcessed,
+		long estimatedRows,
+		Long fileSize,
+		String downloadUrl,
+		LocalDateTime submittedAt,
+		LocalDateTime completedAt,
+		LocalDateTime expiresAt,
+		String error
+) {
+	public enum Status {
+		QUEUED,
+		RUNNING,
+		COMPLETED,
+		FAILED
+	}
+}
@@ -1,83 +1,130 @@
 package com.fruitwarehouse.report.repository;
 
-import com.fruitwarehouse.report.repository.dto.DetailedReportItemDto;
-import com.fruitwarehouse.supplier.repository.dto.ReportItemDto;
+import com.fruitwarehouse.report.controller.dto.response.DetailedReportItemResponse;
+import com.fruitwarehouse.report.controller.dto.response.ReportItemResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
+/**
+ * Строки отчётов передаются по одной, без списка: драйвер читает их курсором порциями по
+ * {@value #STREAM_FETCH_SIZE}, поэтому память не зависит от длины периода. Курсор PostgreSQL
+ * работает только внутри транзакции — вне её результат приходит целиком.
+ * Сводный отчёт читает дневные итоги {@code daily_delivery_rollup}, а не позиции: его цена
+ * зависит от числа дней и товаров в периоде, а не от числа позиций.
+ */
 @Repository
 @RequiredArgsConstructor
 public class ReportRepository {
 
-	private final NamedParameterJdbcTemplate jdbcTemplate;
-
-	public List<DetailedReportItemDto> findDetailedReportData(
-			LocalDateTime startDate,
-			LocalDateTime endDate
-	) {
+	private static final int STREAM_FETCH_SIZE = 1000;
 
-		String sql = """
+	// Граница периода повторена для позиций: иначе секции delivery_items не отсекаются
+	private static final String DETAILED_SQL = """
 			SELECT
-				s.name as supplierName,
-				d.delivery_number as deliveryNumber,
-				d.delivery_date as deliveryDate,
-				p.name as productName,
-				pt.name as productType,
-				p.variety_name as variety,
+				s.name AS supplier_name,
+				d.delivery_number,
+				d.delivery_date,
+				p.name AS product_name,
+				pt.name AS product_type,
+				p.variety_name,
 				di.weight,
-				di.unit_price as unitPrice,
-				di.total_price as totalPrice
+				di.unit_price,
+				di.total_price
 			FROM delivery_items di
-			JOIN deliveries d ON di.delivery_id = d.id
+			JOIN deliveries d ON di.delivery_id = d.id AND di.delivery_date = d.delivery_date
 			JOIN suppliers s ON d.supplier_id = s.id
 			JOIN products p ON di.product_id = p.id
 			JOIN product_types pt ON p.product_type_id = pt.id
-			WHERE d.delivery_date BETWEEN :startDate AND :endDate
+			WHERE d.delivery_date BETWEEN ? AND ?
+			AND di.delivery_date BETWEEN ? AND ?
 			ORDER BY d.delivery_date DESC, s.name, pt.name, p.variety_name
 			""";
 
+	private static final String SUMMARY_SQL = """
+			SELECT
+				s.name AS supplier_name,
+				pt.name AS product_type,
+				p.variety_name,
+				SUM(r.total_weight) AS total_weight,
+				SUM(r.total_cost) AS total_cost
+			FROM daily_delivery_rollup r
+			JOIN suppliers s ON r.supplier_id = s.id
+			JOIN products p ON r.product_id = p.id
+			JOIN product_types pt ON p.product_type_id = pt.id
+			WHERE r.day BETWEEN ? AND ?
+			GROUP BY s.name, pt.name, p.variety_name
+			ORDER BY s.name, pt.name, p.variety_name
+			""";
 
-		MapSqlParameterSource params = new MapSqlParameterSource();
-		params.addValue("startDate", startDate);
-		params.addValue("endDate", endDate);
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	/**
+	 * Детальный отчёт — строка на позицию, сводный — не больше строки на пару поставщик–товар.
+	 */
+	public long estimateRows(LocalDate startDate, LocalDate endDate, boolean detailed) {
+		String sql = detailed
+				? "SELECT coalesce(sum(item_count), 0) FROM daily_delivery_rollup WHERE day BETWEEN :startDate AND :endDate"
+				: "SELECT count(DISTINCT (supplier_id, product_id)) FROM daily_delivery_rollup WHERE day BETWEEN :startDate AND :endDate";
 
-		return jdbcTemplate.query(sql, params,
-				new BeanPropertyRowMapper<>(DetailedReportItemDto.class));
+		Long rows = jdbcTemplate.queryForObject(sql, new MapSqlParameterSource()
+				.addValue("startDate", startDate)
+				.addValue("endDate", endDate), Long.class);
+		return rows == null ? 0 : rows;
 	}
 
-	public List<ReportItemDto> findSummaryReportData(
+	public void forEachDetailedItem(
 			LocalDateTime startDate,
-			LocalDateTime endDate
+			LocalDateTime endDate,
+			Consumer<DetailedReportItemResponse> action
 	) {
+		Timestamp start = Timestamp.valueOf(startDate);
+		Timestamp end = Timestamp.valueOf(endDate);
+		query(DETAILED_SQL, rs -> action.accept(DetailedReportItemResponse.builder()
+				.supplierName(rs.getString("supplier_name"))
+				.deliveryNumber(rs.getObject("delivery_number", UUID.class))
+				.deliveryDate(rs.getTimestamp("delivery_date").toLocalDateTime())
+				.productName(rs.getString("product_name"))
+				.productType(rs.getString("product_type"))
+				.variety(rs.getString("variety_name"))
+				.weight(rs.getBigDecimal("weight"))
+				.unitPrice(rs.getBigDecimal("unit_price"))
+				.totalPrice(rs.getBigDecimal("total_price"))
+				.build()), start, end, start, end);
+	}
 
-		String sql = """
-            SELECT
-                s.name as supplierName,
-                pt.name as productType,
-                p.variety_name as variety,
-                SUM(di.weight) as totalWeight,
-                SUM(di.total_price) as totalCost
-            FROM delivery_items di
-            JOIN deliveries d ON di.delivery_id = d.id
-            JOIN suppliers s ON d.supplier_id = s.id
-            JOIN products p ON di.product_id = p.id
-            JOIN product_types pt ON p.product_type_id = pt.id
-            WHERE d.delivery_date BETWEEN :startDate AND :endDate
-            GROUP BY s.name, pt.name, p.variety_name
-            ORDER BY s.name, pt.name, p.variety_name
-            """;
-
-		MapSqlParameterSource params = new MapSqlParameterSource();
-		params.addValue("startDate", startDate);
-		params.addValue("endDate", endDate);
+	public void forEachSummaryItem(
+			LocalDate startDate,
+			LocalDate endDate,
+			Consumer<ReportItemResponse> action
+	) {
+		query(SUMMARY_SQL, rs -> action.accept(ReportItemResponse.builder()
+				.supplierName(rs.getString("supplier_name"))
+				.productType(rs.getString("product_type"))
+				.variety(rs.getString("variety_name"))
+				.totalWeight(rs.getBigDecimal("total_weight"))
+				.totalCost(rs.getBigDecimal("total_cost"))
+				.build()), Date.valueOf(startDate), Date.valueOf(endDate));
+	}
 
-		return jdbcTemplate.query(sql, params,
-				new BeanPropertyRowMapper<>(ReportItemDto.class));
+	private void query(String sql, RowCallbackHandler handler, Object... parameters) {
+		jdbcTemplate.getJdbcOperations().query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setFetchSize(STREAM_FETCH_SIZE);
+			for (int i = 0; i < parameters.length; i++) {
+				statement.setObject(i + 1, parameters[i]);
+			}
+			return statement;
+		}, handler);
 	}
-}
\ No newline at end of file
+}
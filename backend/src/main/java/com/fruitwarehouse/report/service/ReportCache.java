@@ -0,0 +1,43 @@
+package com.fruitwarehouse.report.service;
+
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Готовые отчёты в виде байтов ответа. Отчёт сбрасывается, только когда меняются поставки
+ * с датой внутри его периода, поэтому отчёты за закрытые периоды живут до вытеснения по размеру.
+ */
+public interface ReportCache {
+	Optional<byte[]> find(ReportRequest request);
+
+	/**
+	 * Начинает запись отчёта в {@code output} с копированием в кэш. Сброс периода во время
+	 * записи отменяет сохранение: отчёт мог прочитать поставки до изменения.
+	 */
+	Rendering startRendering(ReportRequest request, OutputStream output);
+
+	/**
+	 * Сбрасывает отчёты, период которых пересекается с {@code from}..{@code to} включительно.
+	 */
+	void invalidate(LocalDate from, LocalDate to);
+
+	void invalidateAll();
+
+	interface Rendering extends AutoCloseable {
+		OutputStream output();
+
+		/**
+		 * Сохраняет записанный отчёт, если он уместился в лимит и не был сброшен.
+		 */
+		void complete();
+
+		/**
+		 * Без {@link #complete()} отчёт не сохраняется.
+		 */
+		@Override
+		void close();
+	}
+}
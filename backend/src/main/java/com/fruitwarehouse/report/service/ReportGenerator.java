@@ -1,8 +1,17 @@
 package com.fruitwarehouse.report.service;
 
-import com.fruitwarehouse.report.controller.dto.response.ReportResponse;
-import org.springframework.http.ResponseEntity;
+import com.fruitwarehouse.report.service.dto.ReportHeader;
+import org.springframework.http.HttpHeaders;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Формат отчёта. Строки не собираются в список: {@link ReportWriter} пишет каждую в выходной
+ * поток по мере чтения из БД, итоги — в конце.
+ */
 public interface ReportGenerator {
-	ResponseEntity<?> generate(ReportResponse reportResponse);
-}
\ No newline at end of file
+	HttpHeaders getHeaders(ReportHeader report);
+
+	ReportWriter open(ReportHeader report, OutputStream output) throws IOException;
+}
@@ -0,0 +1,21 @@
+package com.fruitwarehouse.report.service;
+
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+import com.fruitwarehouse.report.controller.dto.response.ReportJobResponse;
+import com.fruitwarehouse.report.service.dto.ReportJobFile;
+
+import java.util.UUID;
+
+/**
+ * Фоновое построение отчётов в файлы каталога выгрузки. Задания и файлы хранятся
+ * ограниченное время; после перезапуска приложения задания не восстанавливаются.
+ */
+public interface ReportJobService {
+	ReportJobResponse submit(ReportRequest request);
+
+	ReportJobResponse getJob(UUID id);
+
+	ReportJobFile getFile(UUID id);
+
+	void removeExpired();
+}
@@ -1,8 +1,29 @@
 package com.fruitwarehouse.report.service;
 
 import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
 
 public interface ReportService {
-	ResponseEntity<?> generateReport(ReportRequest request);
-}
\ No newline at end of file
+	/**
+	 * Проверяет запрос и возвращает заголовки ответа. Вызывается до начала записи: после первой
+	 * строки ошибку уже не вернуть статусом ответа.
+	 */
+	HttpHeaders prepareReport(ReportRequest request);
+
+	void writeReport(ReportRequest request, OutputStream output) throws IOException;
+
+	/**
+	 * То же с уведомлением о каждой записанной строке. Отчёт из кэша пишется без строк.
+	 *
+	 * @return {@code true}, если отчёт отдан из кэша и {@code onRowWritten} не вызывался
+	 */
+	boolean writeReport(ReportRequest request, OutputStream output, Runnable onRowWritten) throws IOException;
+
+	/**
+	 * Оценка числа строк отчёта по дневным итогам, без чтения позиций.
+	 */
+	long estimateRows(ReportRequest request);
+}
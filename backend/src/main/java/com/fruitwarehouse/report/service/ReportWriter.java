@@ -0,0 +1,19 @@
+package com.fruitwarehouse.report.service;
+
+import com.fruitwarehouse.report.controller.dto.response.DetailedReportItemResponse;
+import com.fruitwarehouse.report.controller.dto.response.ReportItemResponse;
+import com.fruitwarehouse.report.service.dto.ReportTotals;
+
+import java.io.IOException;
+
+/**
+ * Запись одного отчёта. Строки передаются одного вида — сводные или детальные, как в заголовке
+ * отчёта; {@link #finish} дописывает итоги и сбрасывает буферы.
+ */
+public interface ReportWriter {
+	void writeSummaryItem(ReportItemResponse item) throws IOException;
+
+	void writeDetailedItem(DetailedReportItemResponse item) throws IOException;
+
+	void finish(ReportTotals totals) throws IOException;
+}
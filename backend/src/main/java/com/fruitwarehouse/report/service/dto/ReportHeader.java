@@ -0,0 +1,9 @@
+package com.fruitwarehouse.report.service.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Всё, что пишется в отчёт до первой строки.
+ */
+public record ReportHeader(LocalDate startDate, LocalDate endDate, boolean detailed) {
+}
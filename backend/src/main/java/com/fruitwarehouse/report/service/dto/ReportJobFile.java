@@ -0,0 +1,8 @@
+package com.fruitwarehouse.report.service.dto;
+
+import org.springframework.http.HttpHeaders;
+
+import java.nio.file.Path;
+
+public record ReportJobFile(Path path, HttpHeaders headers) {
+}
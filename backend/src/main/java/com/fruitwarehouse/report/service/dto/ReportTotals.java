@@ -0,0 +1,9 @@
+package com.fruitwarehouse.report.service.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Итоги отчёта, накопленные по ходу чтения строк.
+ */
+public record ReportTotals(BigDecimal totalWeight, BigDecimal totalCost) {
+}
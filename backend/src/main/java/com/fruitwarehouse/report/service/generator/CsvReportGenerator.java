@@ -2,20 +2,25 @@ package com.fruitwarehouse.report.service.generator;
 
 import com.fruitwarehouse.report.controller.dto.response.DetailedReportItemResponse;
 import com.fruitwarehouse.report.controller.dto.response.ReportItemResponse;
-import com.fruitwarehouse.report.controller.dto.response.ReportResponse;
 import com.fruitwarehouse.report.service.ReportGenerator;
-import lombok.extern.slf4j.Slf4j;
+import com.fruitwarehouse.report.service.ReportWriter;
+import com.fruitwarehouse.report.service.dto.ReportHeader;
+import com.fruitwarehouse.report.service.dto.ReportTotals;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
-@Slf4j
 @Component("csvReportGenerator")
 public class CsvReportGenerator implements ReportGenerator {
 
@@ -26,118 +31,100 @@ public class CsvReportGenerator implements ReportGenerator {
 	private static final byte[] UTF8_BOM = new byte[] {(byte)0xEF, (byte)0xBB, (byte)0xBF};
 
 	@Override
-	public ResponseEntity<?> generate(ReportResponse reportResponse) {
-		try {
-			byte[] csvBytes = buildCsv(reportResponse);
-			String filename = String.format("delivery_report_%s_%s.csv",
-					reportResponse.startDate(), reportResponse.endDate());
-
-			HttpHeaders headers = new HttpHeaders();
-			headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
-			headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
-
-			return ResponseEntity.ok()
-					.headers(headers)
-					.body(csvBytes);
-		} catch (Exception e) {
-			log.error("Error generating CSV report", e);
-			throw new RuntimeException("Failed to generate CSV report", e);
-		}
-	}
+	public HttpHeaders getHeaders(ReportHeader report) {
+		String filename = String.format("delivery_report_%s_%s.csv", report.startDate(), report.endDate());
 
-	private byte[] buildCsv(ReportResponse reportResponse) {
-		StringBuilder sb = new StringBuilder();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+		headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
+		return headers;
+	}
 
+	@Override
+	public ReportWriter open(ReportHeader report, OutputStream output) throws IOException {
 		// BOM
-		sb.append(new String(UTF8_BOM, StandardCharsets.UTF_8));
+		output.write(UTF8_BOM);
+		Writer out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
 
 		// Header info
-		sb.append(quote("Report period")).append(",");
-		sb.append(quote(String.format("%s - %s",
-				safeFormatDate(reportResponse.startDate()),
-				safeFormatDate(reportResponse.endDate())))).append("\n");
+		out.append(quote("Report period")).append(",");
+		out.append(quote(String.format("%s - %s",
+				safeFormatDate(report.startDate()),
+				safeFormatDate(report.endDate())))).append("\n");
 
-		sb.append(quote("Detailed")).append(",");
-		sb.append(quote(Boolean.toString(reportResponse.detailed()))).append("\n\n");
+		out.append(quote("Detailed")).append(",");
+		out.append(quote(Boolean.toString(report.detailed()))).append("\n\n");
 
-		if (reportResponse.detailed()) {
-			appendDetailedCsv(sb, reportResponse.detailedItems());
+		if (report.detailed()) {
+			appendDetailedHeader(out);
 		} else {
-			appendSummaryCsv(sb, reportResponse.summaryItems());
+			appendSummaryHeader(out);
 		}
 
-		// Totals
-		sb.append("\n");
-		sb.append(quote("Total weight")).append(",");
-		sb.append(quote(reportResponse.totalWeight() == null ? "0.00" :
-				reportResponse.totalWeight().setScale(2).toPlainString())).append("\n");
-
-		sb.append(quote("Total cost")).append(",");
-		sb.append(quote(reportResponse.totalCost() == null ? "0.00" :
-				reportResponse.totalCost().setScale(2).toPlainString())).append("\n");
-
-		return sb.toString().getBytes(StandardCharsets.UTF_8);
+		return new ReportWriter() {
+
+			private boolean empty = true;
+
+			@Override
+			public void writeSummaryItem(ReportItemResponse it) throws IOException {
+				empty = false;
+				out.append(quote(safe(it.supplierName()))).append(",");
+				out.append(quote(safe(it.productType()))).append(",");
+				out.append(quote(safe(it.variety()))).append(",");
+				out.append(quote(amount(it.totalWeight()))).append(",");
+				out.append(quote(amount(it.totalCost()))).append("\n");
+			}
+
+			@Override
+			public void writeDetailedItem(DetailedReportItemResponse it) throws IOException {
+				empty = false;
+				out.append(quote(safe(it.supplierName()))).append(",");
+				out.append(quote(safeShortUuid(it.deliveryNumber() == null ? null : it.deliveryNumber().toString()))).append(",");
+				out.append(quote(it.deliveryDate() == null ? "" : it.deliveryDate().format(DATE_TIME_FORMATTER))).append(",");
+				out.append(quote(safe(it.productName()))).append(",");
+				out.append(quote(safe(it.productType()))).append(",");
+				out.append(quote(safe(it.variety()))).append(",");
+				out.append(quote(amount(it.weight()))).append(",");
+				out.append(quote(amount(it.unitPrice()))).append(",");
+				out.append(quote(amount(it.totalPrice()))).append("\n");
+			}
+
+			@Override
+			public void finish(ReportTotals totals) throws IOException {
+				if (empty) {
+					out.append(quote("No data")).append("\n");
+				}
+
+				// Totals
+				out.append("\n");
+				out.append(quote("Total weight")).append(",");
+				out.append(quote(amount(totals.totalWeight()))).append("\n");
+
+				out.append(quote("Total cost")).append(",");
+				out.append(quote(amount(totals.totalCost()))).append("\n");
+				out.flush();
+			}
+		};
 	}
 
-	private void appendSummaryCsv(StringBuilder sb, List<ReportItemResponse> items) {
-		// Header
-		sb.append(quote("Supplier")).append(",");
-		sb.append(quote("Product Type")).append(",");
-		sb.append(quote("Variety")).append(",");
-		sb.append(quote("Total Weight (kg)")).append(",");
-		sb.append(quote("Total Cost")).append("\n");
-
-		if (items == null || items.isEmpty()) {
-			sb.append(quote("No data")).append("\n");
-			return;
-		}
-
-		for (ReportItemResponse it : items) {
-			sb.append(quote(safe(it.supplierName()))).append(",");
-			sb.append(quote(safe(it.productType()))).append(",");
-			sb.append(quote(safe(it.variety()))).append(",");
-
-			String weight = it.totalWeight() == null ? "0.00" : it.totalWeight().setScale(2).toPlainString();
-			String cost = it.totalCost() == null ? "0.00" : it.totalCost().setScale(2).toPlainString();
-
-			sb.append(quote(weight)).append(",");
-			sb.append(quote(cost)).append("\n");
-		}
+	private void appendSummaryHeader(Writer out) throws IOException {
+		out.append(quote("Supplier")).append(",");
+		out.append(quote("Product Type")).append(",");
+		out.append(quote("Variety")).append(",");
+		out.append(quote("Total Weight (kg)")).append(",");
+		out.append(quote("Total Cost")).append("\n");
 	}
 
-	private void appendDetailedCsv(StringBuilder sb, List<DetailedReportItemResponse> items) {
-		// Header
-		sb.append(quote("Supplier")).append(",");
-		sb.append(quote("Delivery Number")).append(",");
-		sb.append(quote("Delivery Date")).append(",");
-		sb.append(quote("Product Name")).append(",");
-		sb.append(quote("Product Type")).append(",");
-		sb.append(quote("Variety")).append(",");
-		sb.append(quote("Weight (kg)")).append(",");
-		sb.append(quote("Unit Price")).append(",");
-		sb.append(quote("Total Price")).append("\n");
-
-		if (items == null || items.isEmpty()) {
-			sb.append(quote("No data")).append("\n");
-			return;
-		}
-
-		for (DetailedReportItemResponse it : items) {
-			sb.append(quote(safe(it.supplierName()))).append(",");
-			sb.append(quote(safeShortUuid(it.deliveryNumber() == null ? null : it.deliveryNumber().toString()))).append(",");
-			sb.append(quote(it.deliveryDate() == null ? "" : it.deliveryDate().format(DATE_TIME_FORMATTER))).append(",");
-			sb.append(quote(safe(it.productName()))).append(",");
-			sb.append(quote(safe(it.productType()))).append(",");
-			sb.append(quote(safe(it.variety()))).append(",");
-
-			String weight = it.weight() == null ? "0.00" : it.weight().setScale(2).toPlainString();
-			String unitPrice = it.unitPrice() == null ? "0.00" : it.unitPrice().setScale(2).toPlainString();
-			String totalPrice = it.totalPrice() == null ? "0.00" : it.totalPrice().setScale(2).toPlainString();
-
-			sb.append(quote(weight)).append(",");
-			sb.append(quote(unitPrice)).append(",");
-			sb.append(quote(totalPrice)).append("\n");
-		}
+	private void appendDetailedHeader(Writer out) throws IOException {
+		out.append(quote("Supplier")).append(",");
+		out.append(quote("Delivery Number")).append(",");
+		out.append(quote("Delivery Date")).append(",");
+		out.append(quote("Product Name")).append(",");
+		out.append(quote("Product Type")).append(",");
+		out.append(quote("Variety")).append(",");
+		out.append(quote("Weight (kg)")).append(",");
+		out.append(quote("Unit Price")).append(",");
+		out.append(quote("Total Price")).append("\n");
 	}
 
 	private String quote(String field) {
@@ -151,9 +138,15 @@ public class CsvReportGenerator implements ReportGenerator {
 		return s == null ? "" : s;
 	}
 
+	// Вес хранится с тремя знаками: без округления setScale(2) бросил бы исключение
+	private String amount(BigDecimal value) {
+		return value == null ? "0.00" : value.setScale(2, RoundingMode.HALF_UP).toPlainString();
+	}
+
+	// Последние символы: у UUIDv7 префикс кодирует время и совпадает у поставок одного периода
 	private String safeShortUuid(String uuid) {
 		if (uuid == null) return "";
-		return uuid.length() <= 8 ? uuid : uuid.substring(0, 8);
+		return uuid.length() <= 8 ? uuid : uuid.substring(uuid.length() - 8);
 	}
 
 	private String safeFormatDate(java.time.LocalDate date) {
@@ -1,18 +1,76 @@
 package com.fruitwarehouse.report.service.generator;
 
-import com.fruitwarehouse.report.controller.dto.response.ReportResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fruitwarehouse.report.controller.dto.response.DetailedReportItemResponse;
+import com.fruitwarehouse.report.controller.dto.response.ReportItemResponse;
 import com.fruitwarehouse.report.service.ReportGenerator;
+import com.fruitwarehouse.report.service.ReportWriter;
+import com.fruitwarehouse.report.service.dto.ReportHeader;
+import com.fruitwarehouse.report.service.dto.ReportTotals;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Объект с полями startDate, endDate, detailed, summaryItems, detailedItems, totalWeight, totalCost.
+ * Массив строк другого вида равен null; итоги известны только после строк и пишутся последними.
+ */
 @Component("jsonReportGenerator")
+@RequiredArgsConstructor
 public class JsonReportGenerator implements ReportGenerator {
 
+	private final ObjectMapper objectMapper;
+
+	@Override
+	public HttpHeaders getHeaders(ReportHeader report) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		return headers;
+	}
+
 	@Override
-	public ResponseEntity<?> generate(ReportResponse reportResponse) {
-		return ResponseEntity.ok()
-				.contentType(MediaType.APPLICATION_JSON)
-				.body(reportResponse);
+	public ReportWriter open(ReportHeader report, OutputStream output) throws IOException {
+		// Без сброса после каждой строки: в сокет уходят полные буферы генератора
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		JsonGenerator generator = writer.createGenerator(output);
+
+		generator.writeStartObject();
+		generator.writeFieldName("startDate");
+		writer.writeValue(generator, report.startDate());
+		generator.writeFieldName("endDate");
+		writer.writeValue(generator, report.endDate());
+		generator.writeBooleanField("detailed", report.detailed());
+		generator.writeNullField(report.detailed() ? "summaryItems" : "detailedItems");
+		generator.writeArrayFieldStart(report.detailed() ? "detailedItems" : "summaryItems");
+
+		return new ReportWriter() {
+			@Override
+			public void writeSummaryItem(ReportItemResponse item) throws IOException {
+				writer.writeValue(generator, item);
+			}
+
+			@Override
+			public void writeDetailedItem(DetailedReportItemResponse item) throws IOException {
+				writer.writeValue(generator, item);
+			}
+
+			@Override
+			public void finish(ReportTotals totals) throws IOException {
+				generator.writeEndArray();
+				generator.writeFieldName("totalWeight");
+				writer.writeValue(generator, totals.totalWeight());
+				generator.writeFieldName("totalCost");
+				writer.writeValue(generator, totals.totalCost());
+				generator.writeEndObject();
+				generator.close();
+			}
+		};
 	}
-}
\ No newline at end of file
+}
@@ -2,8 +2,12 @@ package com.fruitwarehouse.report.service.generator;
 
 import com.fruitwarehouse.report.controller.dto.response.DetailedReportItemResponse;
 import com.fruitwarehouse.report.controller.dto.response.ReportItemResponse;
-import com.fruitwarehouse.report.controller.dto.response.ReportResponse;
 import com.fruitwarehouse.report.service.ReportGenerator;
+import com.fruitwarehouse.report.service.ReportWriter;
+import com.fruitwarehouse.report.service.dto.ReportHeader;
+import com.fruitwarehouse.report.service.dto.ReportTotals;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.kernel.font.PdfFont;
@@ -20,14 +24,13 @@ import com.itextpdf.layout.properties.UnitValue;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 @Slf4j
 @Component("pdfReportGenerator")
@@ -38,81 +41,104 @@ public class PdfReportGenerator implements ReportGenerator {
 
 	private static final String DEFAULT_FONT_CLASSPATH = "fonts/DejaVuSans.ttf";
 
-	@Override
-	public ResponseEntity<?> generate(ReportResponse reportResponse) {
-		try {
-			byte[] pdfBytes = generatePdfBytes(reportResponse);
+	// Через столько строк готовые строки таблицы раскладываются по страницам и уходят в поток
+	private static final int TABLE_FLUSH_ROWS = 100;
 
-			String filename = String.format("delivery_report_%s_%s.pdf",
-					reportResponse.startDate(), reportResponse.endDate());
+	private final FontProgram fontProgram = loadFontProgram();
 
-			return ResponseEntity.ok()
-					.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-					.contentType(MediaType.APPLICATION_PDF)
-					.body(pdfBytes);
+	@Override
+	public HttpHeaders getHeaders(ReportHeader report) {
+		String filename = String.format("delivery_report_%s_%s.pdf", report.startDate(), report.endDate());
 
-		} catch (Exception e) {
-			log.error("Error generating PDF report", e);
-			throw new RuntimeException("Failed to generate PDF report", e);
-		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+		headers.setContentType(MediaType.APPLICATION_PDF);
+		return headers;
 	}
 
-	private byte[] generatePdfBytes(ReportResponse reportResponse) throws Exception {
-		try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-			PdfWriter writer = new PdfWriter(baos);
-			PdfDocument pdf = new PdfDocument(writer);
+	@Override
+	public ReportWriter open(ReportHeader report, OutputStream output) {
+		PdfWriter writer = new PdfWriter(output);
+		PdfDocument pdf = new PdfDocument(writer);
+
+		PageSize pageSize = report.detailed()
+				? PageSize.A4.rotate()
+				: PageSize.A4;
 
-			PageSize pageSize = reportResponse.detailed()
-					? PageSize.A4.rotate()
-					: PageSize.A4;
+		Document document = new Document(pdf, pageSize);
 
-			Document document = new Document(pdf, pageSize);
+		PdfFont font = createFont();
+		document.setFont(font);
 
-			PdfFont font = loadFontOrThrow();
-			document.setFont(font);
+		document.add(new Paragraph("Отчет по доставкам")
+				.setFontSize(16)
+				.setBold()
+				.setTextAlignment(TextAlignment.CENTER));
 
-			document.add(new Paragraph("Отчет по доставкам")
-					.setFontSize(16)
-					.setBold()
-					.setTextAlignment(TextAlignment.CENTER));
+		document.add(new Paragraph(String.format("Период: %s - %s",
+				report.startDate().format(DATE_FORMATTER),
+				report.endDate().format(DATE_FORMATTER)))
+				.setFontSize(12)
+				.setTextAlignment(TextAlignment.CENTER)
+				.setMarginBottom(20));
 
-			document.add(new Paragraph(String.format("Период: %s - %s",
-					reportResponse.startDate().format(DATE_FORMATTER),
-					reportResponse.endDate().format(DATE_FORMATTER)))
-					.setFontSize(12)
-					.setTextAlignment(TextAlignment.CENTER)
-					.setMarginBottom(20));
+		// Большая таблица: добавленные строки периодически раскладываются по страницам,
+		// заполненные страницы сразу пишутся в поток и освобождаются
+		Table table = report.detailed() ? createDetailedTable(font) : createSummaryTable(font);
 
-			if (reportResponse.detailed()) {
-				generateDetailedReport(document, reportResponse, font);
-			} else {
-				generateSummaryReport(document, reportResponse, font);
-			}
+		return new ReportWriter() {
 
-			String totalWeightStr = reportResponse.totalWeight() == null
-					? "0.00"
-					: reportResponse.totalWeight().setScale(2, RoundingMode.HALF_UP).toPlainString();
+			private long rows;
 
-			String totalCostStr = reportResponse.totalCost() == null
-					? "0.00"
-					: reportResponse.totalCost().setScale(2, RoundingMode.HALF_UP).toPlainString();
+			@Override
+			public void writeSummaryItem(ReportItemResponse item) {
+				addSummaryRow(table, item, font);
+				rowAdded();
+			}
 
-			document.add(new Paragraph(String.format("Общий вес: %s кг", totalWeightStr))
-					.setFontSize(12)
-					.setBold()
-					.setMarginTop(10));
+			@Override
+			public void writeDetailedItem(DetailedReportItemResponse item) {
+				addDetailedRow(table, item, font);
+				rowAdded();
+			}
 
-			document.add(new Paragraph(String.format("Общая стоимость: %s руб.", totalCostStr))
-					.setFontSize(12)
-					.setBold()
-					.setMarginBottom(20));
+			private void rowAdded() {
+				rows++;
+				if (rows == 1) {
+					// Таблица попадает в документ с первой строкой: без строк вместо неё пишется сообщение
+					document.add(table);
+				} else if (rows % TABLE_FLUSH_ROWS == 0) {
+					table.flush();
+				}
+			}
 
-			document.close();
-			return baos.toByteArray();
-		}
+			@Override
+			public void finish(ReportTotals totals) {
+				if (rows == 0) {
+					document.add(new Paragraph("Нет данных за указанный период")
+							.setFontSize(12)
+							.setItalic());
+				} else {
+					table.complete();
+				}
+
+				document.add(new Paragraph(String.format("Общий вес: %s кг", amount(totals.totalWeight())))
+						.setFontSize(12)
+						.setBold()
+						.setMarginTop(10));
+
+				document.add(new Paragraph(String.format("Общая стоимость: %s руб.", amount(totals.totalCost())))
+						.setFontSize(12)
+						.setBold()
+						.setMarginBottom(20));
+
+				document.close();
+			}
+		};
 	}
 
-	private PdfFont loadFontOrThrow() {
+	// Программа шрифта разбирается один раз и разделяется документами; PdfFont привязан к документу
+	private static FontProgram loadFontProgram() {
 
 		try (InputStream fontStream = Thread.currentThread()
 				.getContextClassLoader()
@@ -122,33 +148,28 @@ public class PdfReportGenerator implements ReportGenerator {
 				String msg = "Font file not found in classpath: " + PdfReportGenerator.DEFAULT_FONT_CLASSPATH +
 						". Поместите TTF-файл в src/main/resources/" + PdfReportGenerator.DEFAULT_FONT_CLASSPATH;
 				log.error(msg);
-				throw new RuntimeException(msg);
+				return null;
 			}
 
-			byte[] fontBytes = fontStream.readAllBytes();
-			return PdfFontFactory.createFont(fontBytes, PdfEncodings.IDENTITY_H);
+			return FontProgramFactory.createFont(fontStream.readAllBytes());
 		} catch (Exception e) {
 			log.error("Failed to load font from classpath {}", PdfReportGenerator.DEFAULT_FONT_CLASSPATH, e);
-
-			try {
-				return PdfFontFactory.createFont(StandardFonts.COURIER);
-			} catch (Exception ex) {
-				throw new RuntimeException("Failed to load fallback font", ex);
-			}
+			return null;
 		}
 	}
 
-	private void generateSummaryReport(Document document, ReportResponse reportResponse, PdfFont font) {
-		List<ReportItemResponse> items = reportResponse.summaryItems();
-
-		if (items == null || items.isEmpty()) {
-			document.add(new Paragraph("Нет данных за указанный период")
-					.setFontSize(12)
-					.setItalic());
-			return;
+	private PdfFont createFont() {
+		try {
+			return fontProgram != null
+					? PdfFontFactory.createFont(fontProgram, PdfEncodings.IDENTITY_H)
+					: PdfFontFactory.createFont(StandardFonts.COURIER);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to load fallback font", e);
 		}
+	}
 
-		Table table = new Table(UnitValue.createPercentArray(new float[]{30, 22, 18, 15, 15}));
+	private Table createSummaryTable(PdfFont font) {
+		Table table = new Table(UnitValue.createPercentArray(new float[]{30, 22, 18, 15, 15}), true);
 		table.setWidth(UnitValue.createPercentValue(100));
 		table.setMarginBottom(20);
 
@@ -157,44 +178,26 @@ public class PdfReportGenerator implements ReportGenerator {
 		addTableHeader(table, "Сорт", font);
 		addTableHeader(table, "Вес (кг)", font);
 		addTableHeader(table, "Стоимость (руб)", font);
+		return table;
+	}
 
-		for (ReportItemResponse item : items) {
-			Cell c1 = new Cell().add(new Paragraph(nullToEmpty(item.supplierName())).setFont(font)).setPadding(4f);
-			Cell c2 = new Cell().add(new Paragraph(nullToEmpty(item.productType())).setFont(font)).setPadding(4f);
-			Cell c3 = new Cell().add(new Paragraph(nullToEmpty(item.variety())).setFont(font)).setPadding(4f);
-
-			String weight = item.totalWeight() == null
-					? "0.00"
-					: item.totalWeight().setScale(2, RoundingMode.HALF_UP).toPlainString();
-
-			String cost = item.totalCost() == null
-					? "0.00"
-					: item.totalCost().setScale(2, RoundingMode.HALF_UP).toPlainString();
-
-			Cell c4 = new Cell().add(new Paragraph(weight).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
-			Cell c5 = new Cell().add(new Paragraph(cost).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
+	private void addSummaryRow(Table table, ReportItemResponse item, PdfFont font) {
+		Cell c1 = new Cell().add(new Paragraph(nullToEmpty(item.supplierName())).setFont(font)).setPadding(4f);
+		Cell c2 = new Cell().add(new Paragraph(nullToEmpty(item.productType())).setFont(font)).setPadding(4f);
+		Cell c3 = new Cell().add(new Paragraph(nullToEmpty(item.variety())).setFont(font)).setPadding(4f);
 
-			table.addCell(c1);
-			table.addCell(c2);
-			table.addCell(c3);
-			table.addCell(c4);
-			table.addCell(c5);
-		}
+		Cell c4 = new Cell().add(new Paragraph(amount(item.totalWeight())).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
+		Cell c5 = new Cell().add(new Paragraph(amount(item.totalCost())).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
 
-		document.add(table);
+		table.addCell(c1);
+		table.addCell(c2);
+		table.addCell(c3);
+		table.addCell(c4);
+		table.addCell(c5);
 	}
 
-	private void generateDetailedReport(Document document, ReportResponse reportResponse, PdfFont font) {
-		List<DetailedReportItemResponse> items = reportResponse.detailedItems();
-
-		if (items == null || items.isEmpty()) {
-			document.add(new Paragraph("Нет данных за указанный период")
-					.setFontSize(12)
-					.setItalic());
-			return;
-		}
-
-		Table table = new Table(UnitValue.createPercentArray(new float[]{22, 12, 14, 16, 10, 10, 8, 10, 12}));
+	private Table createDetailedTable(PdfFont font) {
+		Table table = new Table(UnitValue.createPercentArray(new float[]{22, 12, 14, 16, 10, 10, 8, 10, 12}), true);
 		table.setWidth(UnitValue.createPercentValue(100));
 		table.setMarginBottom(20);
 
@@ -207,38 +210,33 @@ public class PdfReportGenerator implements ReportGenerator {
 		addTableHeader(table, "Вес (кг)", font);
 		addTableHeader(table, "Цена за ед.", font);
 		addTableHeader(table, "Стоимость", font);
+		return table;
+	}
 
-		for (DetailedReportItemResponse item : items) {
-			Cell c1 = new Cell().add(new Paragraph(nullToEmpty(item.supplierName())).setFont(font)).setPadding(4f);
-			String deliveryNumber = safeShortUuid(item.deliveryNumber() != null ? item.deliveryNumber().toString() : null);
-			Cell c2 = new Cell().add(new Paragraph(deliveryNumber).setFont(font)).setPadding(4f);
-			String deliveryDateStr = item.deliveryDate() == null ? "" : item.deliveryDate().format(DATE_TIME_FORMATTER);
-			Cell c3 = new Cell().add(new Paragraph(deliveryDateStr).setFont(font)).setPadding(4f);
-
-			Cell c4 = new Cell().add(new Paragraph(nullToEmpty(item.productName())).setFont(font)).setPadding(4f);
-			Cell c5 = new Cell().add(new Paragraph(nullToEmpty(item.productType())).setFont(font)).setPadding(4f);
-			Cell c6 = new Cell().add(new Paragraph(nullToEmpty(item.variety())).setFont(font)).setPadding(4f);
-
-			String weight = item.weight() == null ? "0.00" : item.weight().setScale(2, RoundingMode.HALF_UP).toPlainString();
-			String unitPrice = item.unitPrice() == null ? "0.00" : item.unitPrice().setScale(2, RoundingMode.HALF_UP).toPlainString();
-			String totalPrice = item.totalPrice() == null ? "0.00" : item.totalPrice().setScale(2, RoundingMode.HALF_UP).toPlainString();
-
-			Cell c7 = new Cell().add(new Paragraph(weight).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
-			Cell c8 = new Cell().add(new Paragraph(unitPrice).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
-			Cell c9 = new Cell().add(new Paragraph(totalPrice).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
-
-			table.addCell(c1);
-			table.addCell(c2);
-			table.addCell(c3);
-			table.addCell(c4);
-			table.addCell(c5);
-			table.addCell(c6);
-			table.addCell(c7);
-			table.addCell(c8);
-			table.addCell(c9);
-		}
-
-		document.add(table);
+	private void addDetailedRow(Table table, DetailedReportItemResponse item, PdfFont font) {
+		Cell c1 = new Cell().add(new Paragraph(nullToEmpty(item.supplierName())).setFont(font)).setPadding(4f);
+		String deliveryNumber = safeShortUuid(item.deliveryNumber() != null ? item.deliveryNumber().toString() : null);
+		Cell c2 = new Cell().add(new Paragraph(deliveryNumber).setFont(font)).setPadding(4f);
+		String deliveryDateStr = item.deliveryDate() == null ? "" : item.deliveryDate().format(DATE_TIME_FORMATTER);
+		Cell c3 = new Cell().add(new Paragraph(deliveryDateStr).setFont(font)).setPadding(4f);
+
+		Cell c4 = new Cell().add(new Paragraph(nullToEmpty(item.productName())).setFont(font)).setPadding(4f);
+		Cell c5 = new Cell().add(new Paragraph(nullToEmpty(item.productType())).setFont(font)).setPadding(4f);
+		Cell c6 = new Cell().add(new Paragraph(nullToEmpty(item.variety())).setFont(font)).setPadding(4f);
+
+		Cell c7 = new Cell().add(new Paragraph(amount(item.weight())).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
+		Cell c8 = new Cell().add(new Paragraph(amount(item.unitPrice())).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
+		Cell c9 = new Cell().add(new Paragraph(amount(item.totalPrice())).setFont(font)).setPadding(4f).setTextAlignment(TextAlignment.RIGHT);
+
+		table.addCell(c1);
+		table.addCell(c2);
+		table.addCell(c3);
+		table.addCell(c4);
+		table.addCell(c5);
+		table.addCell(c6);
+		table.addCell(c7);
+		table.addCell(c8);
+		table.addCell(c9);
 	}
 
 	private void addTableHeader(Table table, String header, PdfFont font) {
@@ -249,12 +247,17 @@ public class PdfReportGenerator implements ReportGenerator {
 		table.addHeaderCell(cell);
 	}
 
+	private static String amount(BigDecimal value) {
+		return value == null ? "0.00" : value.setScale(2, RoundingMode.HALF_UP).toPlainString();
+	}
+
 	private static String nullToEmpty(String s) {
 		return s == null ? "" : s;
 	}
 
+	// Последние символы: у UUIDv7 префикс кодирует время и совпадает у поставок одного периода
 	private static String safeShortUuid(String uuidStr) {
 		if (uuidStr == null) return "";
-		return uuidStr.length() <= 8 ? uuidStr : uuidStr.substring(0, 8);
+		return uuidStr.length() <= 8 ? uuidStr : uuidStr.substring(uuidStr.length() - 8);
 	}
 }
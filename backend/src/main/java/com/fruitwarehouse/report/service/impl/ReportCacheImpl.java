@@ -0,0 +1,199 @@
+package com.fruitwarehouse.report.service.impl;
+
+import com.fruitwarehouse.common.cache.ReferenceDataChangedEvent;
+import com.fruitwarehouse.delivery.event.DeliveriesImportedEvent;
+import com.fruitwarehouse.delivery.event.DeliveryCreatedEvent;
+import com.fruitwarehouse.delivery.event.DeliveryDayReconciledEvent;
+import com.fruitwarehouse.delivery.event.DeliveryPartitionsDetachedEvent;
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+import com.fruitwarehouse.report.service.ReportCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Отчёты вытесняются по давности использования, когда их суммарный размер превышает
+ * {@code max-size}; отчёты больше {@code max-entry-size} не сохраняются. Поставки сбрасывают
+ * отчёты после коммита, поэтому отчёт, сохранённый до события, будет сброшен им же.
+ * Смена статуса не сбрасывает ничего: статус в отчёт не входит.
+ */
+@Slf4j
+@Component
+public class ReportCacheImpl implements ReportCache {
+
+	private final long maxSize;
+	private final long maxEntrySize;
+
+	private final Map<ReportRequest, byte[]> reports = new LinkedHashMap<>(16, 0.75f, true);
+	private final Set<CachingRendering> renderings = new HashSet<>();
+	private long size;
+
+	public ReportCacheImpl(
+			@Value("${fruitwarehouse.report-cache.max-size}") DataSize maxSize,
+			@Value("${fruitwarehouse.report-cache.max-entry-size}") DataSize maxEntrySize) {
+		this.maxSize = maxSize.toBytes();
+		this.maxEntrySize = Math.min(maxEntrySize.toBytes(), this.maxSize);
+	}
+
+	@Override
+	public synchronized Optional<byte[]> find(ReportRequest request) {
+		return Optional.ofNullable(reports.get(request));
+	}
+
+	@Override
+	public synchronized Rendering startRendering(ReportRequest request, OutputStream output) {
+		CachingRendering rendering = new CachingRendering(request, output);
+		renderings.add(rendering);
+		return rendering;
+	}
+
+	@Override
+	public synchronized void invalidate(LocalDate from, LocalDate to) {
+		Iterator<Map.Entry<ReportRequest, byte[]>> iterator = reports.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<ReportRequest, byte[]> entry = iterator.next();
+			if (overlaps(entry.getKey(), from, to)) {
+				size -= entry.getValue().length;
+				iterator.remove();
+			}
+		}
+		for (CachingRendering rendering : renderings) {
+			if (overlaps(rendering.request, from, to)) {
+				rendering.stale = true;
+			}
+		}
+	}
+
+	@Override
+	public synchronized void invalidateAll() {
+		reports.clear();
+		size = 0;
+		renderings.forEach(rendering -> rendering.stale = true);
+	}
+
+	@TransactionalEventListener
+	public void onDeliveryCreated(DeliveryCreatedEvent event) {
+		LocalDate day = event.deliveryDate().toLocalDate();
+		invalidate(day, day);
+	}
+
+	@TransactionalEventListener
+	public void onDeliveriesImported(DeliveriesImportedEvent event) {
+		if (event.firstDeliveryDate() != null) {
+			invalidate(event.firstDeliveryDate().toLocalDate(), event.lastDeliveryDate().toLocalDate());
+		}
+	}
+
+	@TransactionalEventListener
+	public void onDeliveryDayReconciled(DeliveryDayReconciledEvent event) {
+		invalidate(event.day(), event.day());
+	}
+
+	@TransactionalEventListener
+	public void onDeliveryPartitionsDetached(DeliveryPartitionsDetachedEvent event) {
+		invalidate(LocalDate.MIN, event.detachedBefore().minusDays(1));
+	}
+
+	// Названия поставщиков и товаров входят в отчёт
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+		invalidateAll();
+	}
+
+	private synchronized void store(CachingRendering rendering) {
+		renderings.remove(rendering);
+		if (rendering.stale || rendering.buffer == null) {
+			return;
+		}
+
+		byte[] report = rendering.buffer.toByteArray();
+		byte[] previous = reports.put(rendering.request, report);
+		size += report.length - (previous == null ? 0 : previous.length);
+
+		Iterator<byte[]> eldest = reports.values().iterator();
+		while (size > maxSize) {
+			size -= eldest.next().length;
+			eldest.remove();
+		}
+		log.debug("Report {} cached, {} bytes, {} bytes in cache", rendering.request, report.length, size);
+	}
+
+	private synchronized void discard(CachingRendering rendering) {
+		renderings.remove(rendering);
+	}
+
+	private static boolean overlaps(ReportRequest request, LocalDate from, LocalDate to) {
+		return !request.startDate().isAfter(to) && !request.endDate().isBefore(from);
+	}
+
+	private final class CachingRendering implements Rendering {
+
+		private final ReportRequest request;
+		private final OutputStream output;
+		// Пишется только потоком записи отчёта
+		private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		// Меняется под блокировкой кэша
+		private boolean stale;
+		private boolean completed;
+
+		private CachingRendering(ReportRequest request, OutputStream output) {
+			this.request = request;
+			this.output = new FilterOutputStream(output) {
+				@Override
+				public void write(int b) throws IOException {
+					out.write(b);
+					copy(new byte[] {(byte) b}, 0, 1);
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) throws IOException {
+					out.write(b, off, len);
+					copy(b, off, len);
+				}
+			};
+		}
+
+		@Override
+		public OutputStream output() {
+			return output;
+		}
+
+		private void copy(byte[] b, int off, int len) {
+			if (buffer == null) {
+				return;
+			}
+			if (buffer.size() + (long) len > maxEntrySize) {
+				buffer = null;
+				return;
+			}
+			buffer.write(b, off, len);
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+			store(this);
+		}
+
+		@Override
+		public void close() {
+			if (!completed) {
+				discard(this);
+			}
+		}
+	}
+}
@@ -0,0 +1,300 @@
+package com.fruitwarehouse.report.service.impl;
+
+import com.fruitwarehouse.common.exception.ReportJobNotFoundException;
+import com.fruitwarehouse.common.exception.ReportJobNotReadyException;
+import com.fruitwarehouse.common.exception.ReportQueueFullException;
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+import com.fruitwarehouse.report.controller.dto.response.ReportJobResponse;
+import com.fruitwarehouse.report.controller.dto.response.ReportJobResponse.Status;
+import com.fruitwarehouse.report.service.ReportJobService;
+import com.fruitwarehouse.report.service.ReportService;
+import com.fruitwarehouse.report.service.dto.ReportJobFile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Отчёт пишется во временный файл и переименовывается после последнего байта, поэтому
+ * готовый файл никогда не бывает недописанным и отдаётся по частям (Range) без повторного построения.
+ * Очистка удаляет задания и файлы старше {@code ttl}, считая от завершения; файлы,
+ * оставшиеся от заданий до перезапуска, — по времени изменения.
+ */
+@Slf4j
+@Service
+public class ReportJobServiceImpl implements ReportJobService, SmartLifecycle {
+
+	private static final String PART_SUFFIX = ".part";
+	private static final String FILE_SUFFIX = ".report";
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+	private final ReportService reportService;
+	private final Path spoolDirectory;
+	private final int threads;
+	private final int queueCapacity;
+	private final Duration ttl;
+	private final Duration retryAfter;
+
+	private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+	private ThreadPoolExecutor executor;
+
+	public ReportJobServiceImpl(
+			ReportService reportService,
+			@Value("${fruitwarehouse.report-jobs.spool-directory}") Path spoolDirectory,
+			@Value("${fruitwarehouse.report-jobs.threads}") int threads,
+			@Value("${fruitwarehouse.report-jobs.queue-capacity}") int queueCapacity,
+			@Value("${fruitwarehouse.report-jobs.ttl}") Duration ttl,
+			@Value("${fruitwarehouse.report-jobs.retry-after}") Duration retryAfter) {
+		this.reportService = reportService;
+		this.spoolDirectory = spoolDirectory;
+		this.threads = threads;
+		this.queueCapacity = queueCapacity;
+		this.ttl = ttl;
+		this.retryAfter = retryAfter;
+	}
+
+	@Override
+	public ReportJobResponse submit(ReportRequest request) {
+		ThreadPoolExecutor current = executor;
+		if (current == null) {
+			throw new ReportQueueFullException(retryAfter);
+		}
+
+		HttpHeaders headers = reportService.prepareReport(request);
+		Job job = new Job(UUID.randomUUID(), request, headers, reportService.estimateRows(request));
+		jobs.put(job.id, job);
+		try {
+			current.execute(() -> run(job));
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.id);
+			throw new ReportQueueFullException(retryAfter);
+		}
+
+		log.info("Report job {} queued: {} to {}, detailed: {}, format: {}, about {} rows", job.id,
+				request.startDate(), request.endDate(), request.detailed(), request.format(), job.estimatedRows);
+		return job.toResponse();
+	}
+
+	@Override
+	public ReportJobResponse getJob(UUID id) {
+		return findJob(id).toResponse();
+	}
+
+	@Override
+	public ReportJobFile getFile(UUID id) {
+		Job job = findJob(id);
+		if (job.status != Status.COMPLETED) {
+			throw new ReportJobNotReadyException(id, job.status);
+		}
+		return new ReportJobFile(fileOf(id), job.headers);
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${fruitwarehouse.report-jobs.cleanup-interval}")
+	public void removeExpired() {
+		LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+		int removed = 0;
+
+		for (Job job : jobs.values()) {
+			LocalDateTime completedAt = job.completedAt;
+			if (completedAt != null && completedAt.isBefore(expiredBefore)) {
+				jobs.remove(job.id);
+				delete(fileOf(job.id));
+				removed++;
+			}
+		}
+
+		// Файлы без задания: задание удалено выше или потеряно при перезапуске.
+		// Чужие файлы в каталоге не трогаются, ошибка по одному файлу не прерывает обход
+		Instant orphanedBefore = Instant.now().minus(ttl);
+		try (Stream<Path> files = Files.list(spoolDirectory)) {
+			for (Path file : (Iterable<Path>) files::iterator) {
+				UUID jobId = jobIdOf(file);
+				if (jobId == null || jobs.containsKey(jobId)) {
+					continue;
+				}
+				try {
+					if (Files.getLastModifiedTime(file).toInstant().isBefore(orphanedBefore)) {
+						delete(file);
+						removed++;
+					}
+				} catch (IOException e) {
+					log.warn("Cannot check report spool file {}: {}", file, e.getMessage());
+				}
+			}
+		} catch (IOException | UncheckedIOException e) {
+			log.error("Report spool cleanup failed: {}", e.getMessage(), e);
+		}
+
+		if (removed > 0) {
+			log.info("Removed {} expired report jobs and files", removed);
+		}
+	}
+
+	@Override
+	public synchronized void start() {
+		if (executor != null) {
+			return;
+		}
+		try {
+			Files.createDirectories(spoolDirectory);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot create report spool directory " + spoolDirectory, e);
+		}
+		executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("report-job-"));
+	}
+
+	@Override
+	public void stop() {
+		ThreadPoolExecutor current;
+		synchronized (this) {
+			current = executor;
+			executor = null;
+		}
+		if (current == null) {
+			return;
+		}
+
+		// Задания в памяти всё равно пропадут с перезапуском; ждать длинные отчёты незачем
+		current.shutdownNow();
+		try {
+			current.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return executor != null;
+	}
+
+	private void run(Job job) {
+		job.status = Status.RUNNING;
+		Path part = spoolDirectory.resolve(job.id + PART_SUFFIX);
+		try {
+			try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(part))) {
+				if (reportService.writeReport(job.request, output, job.rowsProcessed::incrementAndGet)) {
+					// Отчёт из кэша записан без перечисления строк; прогресс — по оценке при постановке
+					job.rowsProcessed.set(job.estimatedRows);
+				}
+			}
+			Path file = fileOf(job.id);
+			Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+			job.fileSize = Files.size(file);
+			job.complete(Status.COMPLETED, null);
+			log.info("Report job {} completed: {} rows, {} bytes", job.id, job.rowsProcessed.get(), job.fileSize);
+		} catch (IOException | RuntimeException e) {
+			delete(part);
+			job.complete(Status.FAILED, "Report generation failed");
+			log.error("Report job {} failed: {}", job.id, e.getMessage(), e);
+		}
+	}
+
+	private Job findJob(UUID id) {
+		Job job = jobs.get(id);
+		if (job == null) {
+			throw new ReportJobNotFoundException(id);
+		}
+		return job;
+	}
+
+	private Path fileOf(UUID id) {
+		return spoolDirectory.resolve(id + FILE_SUFFIX);
+	}
+
+	/**
+	 * Задание, которому принадлежит файл каталога; {@code null} для файлов, созданных не заданиями.
+	 */
+	private static UUID jobIdOf(Path file) {
+		String name = file.getFileName().toString();
+		String suffix = name.endsWith(PART_SUFFIX) ? PART_SUFFIX : name.endsWith(FILE_SUFFIX) ? FILE_SUFFIX : null;
+		if (suffix == null) {
+			return null;
+		}
+		try {
+			return UUID.fromString(name.substring(0, name.length() - suffix.length()));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Cannot delete report file {}: {}", file, e.getMessage());
+		}
+	}
+
+	private final class Job {
+
+		private final UUID id;
+		private final ReportRequest request;
+		private final HttpHeaders headers;
+		private final long estimatedRows;
+		private final LocalDateTime submittedAt = LocalDateTime.now();
+		private final AtomicLong rowsProcessed = new AtomicLong();
+
+		private volatile Status status = Status.QUEUED;
+		private volatile Long fileSize;
+		private volatile String error;
+		private volatile LocalDateTime completedAt;
+
+		private Job(UUID id, ReportRequest request, HttpHeaders headers, long estimatedRows) {
+			this.id = id;
+			this.request = request;
+			this.headers = headers;
+			this.estimatedRows = estimatedRows;
+		}
+
+		private void complete(Status finalStatus, String failure) {
+			error = failure;
+			completedAt = LocalDateTime.now();
+			status = finalStatus;
+		}
+
+		private ReportJobResponse toResponse() {
+			LocalDateTime completed = completedAt;
+			return ReportJobResponse.builder()
+					.id(id)
+					.status(status)
+					.startDate(request.startDate())
+					.endDate(request.endDate())
+					.detailed(request.detailed())
+					.format(request.format())
+					.rowsProcessed(rowsProcessed.get())
+					.estimatedRows(estimatedRows)
+					.fileSize(fileSize)
+					.submittedAt(submittedAt)
+					.completedAt(completed)
+					.expiresAt(completed == null ? null : completed.plus(ttl))
+					.error(error)
+					.build();
+		}
+	}
+}
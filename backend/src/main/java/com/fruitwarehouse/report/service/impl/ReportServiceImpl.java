@@ -1,91 +1,136 @@
 package com.fruitwarehouse.report.service.impl;
 
-import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
-import com.fruitwarehouse.report.controller.dto.response.DetailedReportItemResponse;
-import com.fruitwarehouse.report.controller.dto.response.ReportItemResponse;
-import com.fruitwarehouse.report.controller.dto.response.ReportResponse;
-import com.fruitwarehouse.report.mapper.ReportApiMapper;
+import com.fruitwarehouse.common.datasource.ReplicaReads;
 import com.fruitwarehouse.common.exception.ValidationException;
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
 import com.fruitwarehouse.report.repository.ReportRepository;
-import com.fruitwarehouse.report.repository.dto.DetailedReportItemDto;
+import com.fruitwarehouse.report.service.ReportCache;
 import com.fruitwarehouse.report.service.ReportGeneratorFactory;
 import com.fruitwarehouse.report.service.ReportService;
-import com.fruitwarehouse.supplier.repository.dto.ReportItemDto;
-import lombok.RequiredArgsConstructor;
+import com.fruitwarehouse.report.service.ReportWriter;
+import com.fruitwarehouse.report.service.dto.ReportHeader;
+import com.fruitwarehouse.report.service.dto.ReportTotals;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.Optional;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class ReportServiceImpl implements ReportService {
 
 	private final ReportRepository reportRepository;
-	private final ReportApiMapper reportApiMapper;
 	private final ReportGeneratorFactory reportGeneratorFactory;
+	private final ReportCache reportCache;
+	private final TransactionTemplate readOnlyTransaction;
+
+	public ReportServiceImpl(
+			ReportRepository reportRepository,
+			ReportGeneratorFactory reportGeneratorFactory,
+			ReportCache reportCache,
+			PlatformTransactionManager transactionManager) {
+		this.reportRepository = reportRepository;
+		this.reportGeneratorFactory = reportGeneratorFactory;
+		this.reportCache = reportCache;
+
+		this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+	}
+
+	@Override
+	public HttpHeaders prepareReport(ReportRequest request) {
+		validateReportRequest(request);
+		return reportGeneratorFactory.getGenerator(request.format()).getHeaders(headerOf(request));
+	}
+
+	// Транзакция открывается только при промахе: готовый отчёт отдаётся без соединения с базой
+	@Override
+	public void writeReport(ReportRequest request, OutputStream output) throws IOException {
+		writeReport(request, output, () -> {});
+	}
 
 	@Override
-	public ResponseEntity<?> generateReport(ReportRequest request) {
+	public boolean writeReport(ReportRequest request, OutputStream output, Runnable onRowWritten) throws IOException {
+		Optional<byte[]> cached = reportCache.find(request);
+		if (cached.isPresent()) {
+			log.info("Serving cached report from {} to {}, detailed: {}, format: {}",
+					request.startDate(), request.endDate(), request.detailed(), request.format());
+			output.write(cached.get());
+			return true;
+		}
+
 		log.info("Generating report from {} to {}, detailed: {}, format: {}",
 				request.startDate(), request.endDate(), request.detailed(), request.format());
 
-		validateReportRequest(request);
+		// Отчёт попадает в кэш и сбрасывается только событием об изменении: построенный по отстающей
+		// реплике, он хранил бы уже сброшенные данные до следующего изменения, поэтому читается основная БД
+		try (ReportCache.Rendering rendering = reportCache.startRendering(request, output)) {
+			ReplicaReads.runOnPrimary(() -> readOnlyTransaction.executeWithoutResult(status -> {
+				try {
+					render(request, rendering.output(), onRowWritten);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}));
+			rendering.complete();
+		} catch (UncheckedIOException e) {
+			// Обычно клиент закрыл соединение
+			throw e.getCause();
+		}
+		return false;
+	}
 
+	@Override
+	public long estimateRows(ReportRequest request) {
+		return reportRepository.estimateRows(request.startDate(), request.endDate(), request.detailed());
+	}
+
+	private void render(ReportRequest request, OutputStream output, Runnable onRowWritten) throws IOException {
 		LocalDateTime startDate = request.startDate().atStartOfDay();
 		LocalDateTime endDate = request.endDate().atTime(LocalTime.MAX);
 
-		List<ReportItemResponse> summaryItems = null;
-		List<DetailedReportItemResponse> detailedItems = null;
-		BigDecimal totalWeight;
-		BigDecimal totalCost;
+		ReportWriter writer = reportGeneratorFactory.getGenerator(request.format()).open(headerOf(request), output);
+		RunningTotals totals = new RunningTotals();
 
+		// Строка уходит в поток сразу после чтения; транзакция держит курсор открытым до последней
 		if (request.detailed()) {
-			List<DetailedReportItemDto> detailedData = reportRepository.findDetailedReportData(startDate, endDate);
-			detailedItems = reportApiMapper.toDetailedReportItemResponseList(detailedData);
-
-			totalWeight = detailedData.stream()
-					.map(DetailedReportItemDto::getWeight)
-					.reduce(BigDecimal.ZERO, BigDecimal::add);
-
-			totalCost = detailedData.stream()
-					.map(DetailedReportItemDto::getTotalPrice)
-					.reduce(BigDecimal.ZERO, BigDecimal::add);
+			reportRepository.forEachDetailedItem(startDate, endDate, item -> {
+				totals.add(item.weight(), item.totalPrice());
+				try {
+					writer.writeDetailedItem(item);
+					onRowWritten.run();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
 		} else {
-			List<ReportItemDto> summaryData = reportRepository.findSummaryReportData(startDate, endDate);
-			summaryItems = reportApiMapper.toReportItemResponseList(summaryData);
-
-			totalWeight = summaryData.stream()
-					.map(ReportItemDto::getTotalWeight)
-					.reduce(BigDecimal.ZERO, BigDecimal::add);
-
-			totalCost = summaryData.stream()
-					.map(ReportItemDto::getTotalCost)
-					.reduce(BigDecimal.ZERO, BigDecimal::add);
+			reportRepository.forEachSummaryItem(request.startDate(), request.endDate(), item -> {
+				totals.add(item.totalWeight(), item.totalCost());
+				try {
+					writer.writeSummaryItem(item);
+					onRowWritten.run();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
 		}
+		writer.finish(totals.toReportTotals());
 
-		ReportResponse reportResponse = ReportResponse.builder()
-				.startDate(request.startDate())
-				.endDate(request.endDate())
-				.detailed(request.detailed())
-				.summaryItems(summaryItems)
-				.detailedItems(detailedItems)
-				.totalWeight(totalWeight)
-				.totalCost(totalCost)
-				.build();
-
-		log.info("Report generated with total weight: {}, total cost: {}", totalWeight, totalCost);
+		log.info("Report generated with total weight: {}, total cost: {}", totals.weight, totals.cost);
+	}
 
-		var generator = reportGeneratorFactory.getGenerator(request.format());
-		return generator.generate(reportResponse);
+	private static ReportHeader headerOf(ReportRequest request) {
+		return new ReportHeader(request.startDate(), request.endDate(), request.detailed());
 	}
 
 	private void validateReportRequest(ReportRequest request) {
@@ -101,4 +146,23 @@ public class ReportServiceImpl implements ReportService {
 			throw new ValidationException("Report period cannot exceed 1 year");
 		}
 	}
-}
\ No newline at end of file
+
+	private static final class RunningTotals {
+
+		private BigDecimal weight = BigDecimal.ZERO;
+		private BigDecimal cost = BigDecimal.ZERO;
+
+		private void add(BigDecimal rowWeight, BigDecimal rowCost) {
+			if (rowWeight != null) {
+				weight = weight.add(rowWeight);
+			}
+			if (rowCost != null) {
+				cost = cost.add(rowCost);
+			}
+		}
+
+		private ReportTotals toReportTotals() {
+			return new ReportTotals(weight, cost);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.fruitwarehouse.supplier.controller;
 
+import com.fruitwarehouse.common.sql.SqlStatementBudget;
 import com.fruitwarehouse.supplier.controller.dto.request.CreatePriceRequest;
 import com.fruitwarehouse.supplier.controller.dto.response.PriceResponse;
 import com.fruitwarehouse.supplier.service.SupplierPriceService;
@@ -13,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -25,6 +27,7 @@ public class SupplierPriceController {
 	private final SupplierPriceService supplierPriceService;
 
 	@PostMapping
+	@SqlStatementBudget(5)
 	@Operation(summary = "Add or update price for supplier product")
 	@ApiResponses({
 			@ApiResponse(responseCode = "201", description = "Price created successfully"),
@@ -38,20 +41,31 @@ public class SupplierPriceController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(response);
 	}
 
+	// ETag: проверка поставщика и версии цен; список: ещё раз поставщик, продукт и сами цены
 	@GetMapping
-	@Operation(summary = "Get all prices for supplier")
+	@SqlStatementBudget(5)
+	@Operation(summary = "Get all prices for supplier",
+			description = "Supports If-None-Match against the ETag of the supplier's price list")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "List of prices retrieved"),
+			@ApiResponse(responseCode = "304", description = "Prices not modified"),
 			@ApiResponse(responseCode = "404", description = "Supplier not found")
 	})
 	public ResponseEntity<List<PriceResponse>> getSupplierPrices(
 			@PathVariable @Parameter(description = "Supplier ID") Long supplierId,
-			@RequestParam(required = false) Long productId) {
+			@RequestParam(required = false) Long productId,
+			WebRequest webRequest) {
+		// Удалённая цена не оставляет времени изменения, поэтому Last-Modified у списка нет
+		if (webRequest.checkNotModified(supplierPriceService.getSupplierPricesETag(supplierId))) {
+			return null;
+		}
+
 		List<PriceResponse> responses = supplierPriceService.getSupplierPrices(supplierId, productId);
 		return ResponseEntity.ok(responses);
 	}
 
 	@GetMapping("/active")
+	@SqlStatementBudget(2)
 	@Operation(summary = "Get active prices for supplier")
 	@ApiResponses({
 			@ApiResponse(responseCode = "200", description = "List of active prices retrieved"),
@@ -64,6 +78,7 @@ public class SupplierPriceController {
 	}
 
 	@DeleteMapping("/{priceId}")
+	@SqlStatementBudget(2)
 	@Operation(summary = "Delete price")
 	@ApiResponses({
 			@ApiResponse(responseCode = "204", description = "Price deleted successfully"),
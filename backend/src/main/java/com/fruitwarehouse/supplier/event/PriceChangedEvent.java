@@ -0,0 +1,37 @@
+package com.fruitwarehouse.supplier.event;
+
+import com.fruitwarehouse.supplier.entity.SupplierProductPrice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Публикуется внутри транзакции изменения прайс-листа.
+ * Слушатели должны использовать {@code @TransactionalEventListener}, чтобы видеть только закоммиченные изменения.
+ */
+public record PriceChangedEvent(
+		Type type,
+		Long priceId,
+		Long supplierId,
+		Long productId,
+		BigDecimal price,
+		LocalDate effectiveFrom,
+		LocalDate effectiveTo
+) {
+	public enum Type {
+		CREATED,
+		DELETED
+	}
+
+	public static PriceChangedEvent of(Type type, SupplierProductPrice price) {
+		return new PriceChangedEvent(
+				type,
+				price.getId(),
+				price.getSupplier().getId(),
+				price.getProduct().getId(),
+				price.getPrice(),
+				price.getEffectiveFrom(),
+				price.getEffectiveTo()
+		);
+	}
+}
@@ -1,12 +1,15 @@
 package com.fruitwarehouse.supplier.repository;
 
 import com.fruitwarehouse.supplier.entity.SupplierProductPrice;
+import com.fruitwarehouse.supplier.repository.dto.PricePeriodDto;
+import com.fruitwarehouse.supplier.repository.dto.PriceVersionDto;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +31,24 @@ public interface SupplierProductPriceRepository extends JpaRepository<SupplierPr
 			@Param("date") LocalDate date
 	);
 
+	/**
+	 * Кандидаты для пакетного поиска активных цен: все периоды указанных поставщиков и продуктов,
+	 * пересекающиеся с окном дат. Выбор цены на конкретную дату выполняется в памяти.
+	 */
+	@Query("""
+        SELECT spp FROM SupplierProductPrice spp
+        WHERE spp.supplier.id IN :supplierIds
+        AND spp.product.id IN :productIds
+        AND spp.effectiveFrom <= :toDate
+        AND (spp.effectiveTo IS NULL OR spp.effectiveTo >= :fromDate)
+        """)
+	List<SupplierProductPrice> findPricesInWindow(
+			@Param("supplierIds") Collection<Long> supplierIds,
+			@Param("productIds") Collection<Long> productIds,
+			@Param("fromDate") LocalDate fromDate,
+			@Param("toDate") LocalDate toDate
+	);
+
 	@Query("""
         SELECT spp FROM SupplierProductPrice spp
         WHERE spp.supplier.id = :supplierId
@@ -40,11 +61,19 @@ public interface SupplierProductPriceRepository extends JpaRepository<SupplierPr
 			@Param("productId") Long productId
 	);
 
-	@Query("SELECT spp FROM SupplierProductPrice spp WHERE spp.supplier.id = :supplierId")
+	// Продукт и его тип нужны ответу: без JOIN FETCH каждая цена догружала бы их отдельно
+	@Query("""
+        SELECT spp FROM SupplierProductPrice spp
+        JOIN FETCH spp.product p
+        JOIN FETCH p.productType
+        WHERE spp.supplier.id = :supplierId
+        """)
 	List<SupplierProductPrice> findBySupplierId(@Param("supplierId") Long supplierId);
 
 	@Query("""
         SELECT spp FROM SupplierProductPrice spp
+        JOIN FETCH spp.product p
+        JOIN FETCH p.productType
         WHERE spp.supplier.id = :supplierId
         AND spp.product.id = :productId
         """)
@@ -65,6 +94,8 @@ public interface SupplierProductPriceRepository extends JpaRepository<SupplierPr
 
 	@Query("""
         SELECT spp FROM SupplierProductPrice spp
+        JOIN FETCH spp.product p
+        JOIN FETCH p.productType
         WHERE spp.supplier.id = :supplierId
         AND spp.effectiveFrom <= :date
         AND (spp.effectiveTo IS NULL OR spp.effectiveTo >= :date)
@@ -73,4 +104,22 @@ public interface SupplierProductPriceRepository extends JpaRepository<SupplierPr
 			@Param("supplierId") Long supplierId,
 			@Param("date") LocalDate date
 	);
-}
\ No newline at end of file
+
+	@Query("""
+        SELECT new com.fruitwarehouse.supplier.repository.dto.PriceVersionDto(
+            spp.id, spp.version, p.name, pt.name, p.varietyName)
+        FROM SupplierProductPrice spp
+        JOIN spp.product p
+        JOIN p.productType pt
+        WHERE spp.supplier.id = :supplierId
+        ORDER BY spp.id
+        """)
+	List<PriceVersionDto> findVersionsBySupplierId(@Param("supplierId") Long supplierId);
+
+	@Query("""
+        SELECT new com.fruitwarehouse.supplier.repository.dto.PricePeriodDto(
+            spp.id, spp.supplier.id, spp.product.id, spp.price, spp.effectiveFrom, spp.effectiveTo)
+        FROM SupplierProductPrice spp
+        """)
+	List<PricePeriodDto> findAllPricePeriods();
+}
@@ -0,0 +1,17 @@
+package com.fruitwarehouse.supplier.repository.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record PricePeriodDto(
+		Long id,
+		Long supplierId,
+		Long productId,
+		BigDecimal price,
+		LocalDate effectiveFrom,
+		LocalDate effectiveTo
+) {
+	public boolean covers(LocalDate date) {
+		return !effectiveFrom.isAfter(date) && (effectiveTo == null || !effectiveTo.isBefore(date));
+	}
+}
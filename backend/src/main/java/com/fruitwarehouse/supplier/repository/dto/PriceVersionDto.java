@@ -0,0 +1,9 @@
+package com.fruitwarehouse.supplier.repository.dto;
+
+public record PriceVersionDto(
+		Long id,
+		long version,
+		String productName,
+		String productType,
+		String variety
+) {}
@@ -1,18 +0,0 @@
-package com.fruitwarehouse.supplier.repository.dto;
-
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-import java.math.BigDecimal;
-
-@Getter
-@Setter
-@NoArgsConstructor
-public class ReportItemDto {
-	private String supplierName;
-	private String productType;
-	private String variety;
-	private BigDecimal totalWeight;
-	private BigDecimal totalCost;
-}
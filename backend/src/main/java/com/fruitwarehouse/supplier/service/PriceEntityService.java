@@ -1,14 +1,18 @@
 package com.fruitwarehouse.supplier.service;
 
 import com.fruitwarehouse.supplier.entity.SupplierProductPrice;
+import com.fruitwarehouse.supplier.service.dto.PriceLookupKey;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface PriceEntityService {
 	Optional<BigDecimal> getActivePrice(Long supplierId, Long productId, LocalDate date);
+	Map<PriceLookupKey, BigDecimal> getActivePrices(Collection<PriceLookupKey> keys);
 	Optional<BigDecimal> getCurrentPrice(Long supplierId, Long productId);
 	List<SupplierProductPrice> getActivePrices(Long supplierId, LocalDate date);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.fruitwarehouse.supplier.service;
+
+import com.fruitwarehouse.supplier.event.PriceChangedEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface PriceIndex {
+	boolean isReady();
+	Optional<BigDecimal> findPrice(Long supplierId, Long productId, LocalDate date);
+	void rebuild();
+	void apply(PriceChangedEvent event);
+}
@@ -8,6 +8,7 @@ import java.util.List;
 public interface SupplierPriceService {
 	PriceResponse addPrice(Long supplierId, CreatePriceRequest request);
 	List<PriceResponse> getSupplierPrices(Long supplierId, Long productId);
+	String getSupplierPricesETag(Long supplierId);
 	List<PriceResponse> getActivePrices(Long supplierId);
 	void deletePrice(Long supplierId, Long priceId);
 }
\ No newline at end of file
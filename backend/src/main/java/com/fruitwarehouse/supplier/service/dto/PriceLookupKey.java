@@ -0,0 +1,9 @@
+package com.fruitwarehouse.supplier.service.dto;
+
+import java.time.LocalDate;
+
+public record PriceLookupKey(
+		Long supplierId,
+		Long productId,
+		LocalDate date
+) {}
@@ -2,15 +2,23 @@ package com.fruitwarehouse.supplier.service.impl;
 
 import com.fruitwarehouse.supplier.entity.SupplierProductPrice;
 import com.fruitwarehouse.supplier.repository.SupplierProductPriceRepository;
+import com.fruitwarehouse.supplier.service.dto.PriceLookupKey;
 import com.fruitwarehouse.supplier.service.PriceEntityService;
+import com.fruitwarehouse.supplier.service.PriceIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,13 +26,54 @@ import java.util.Optional;
 public class PriceEntityServiceImpl implements PriceEntityService {
 
 	private final SupplierProductPriceRepository supplierProductPriceRepository;
+	private final PriceIndex priceIndex;
 
 	@Override
 	public Optional<BigDecimal> getActivePrice(Long supplierId, Long productId, LocalDate date) {
+		if (priceIndex.isReady()) {
+			return priceIndex.findPrice(supplierId, productId, date);
+		}
 		return supplierProductPriceRepository.findActivePrice(supplierId, productId, date)
 				.map(SupplierProductPrice::getPrice);
 	}
 
+	@Override
+	public Map<PriceLookupKey, BigDecimal> getActivePrices(Collection<PriceLookupKey> keys) {
+		if (keys.isEmpty()) {
+			return Map.of();
+		}
+
+		if (priceIndex.isReady()) {
+			Map<PriceLookupKey, BigDecimal> prices = new HashMap<>();
+			for (PriceLookupKey key : keys) {
+				priceIndex.findPrice(key.supplierId(), key.productId(), key.date())
+						.ifPresent(price -> prices.put(key, price));
+			}
+			return prices;
+		}
+
+		Set<Long> supplierIds = keys.stream().map(PriceLookupKey::supplierId).collect(Collectors.toSet());
+		Set<Long> productIds = keys.stream().map(PriceLookupKey::productId).collect(Collectors.toSet());
+		LocalDate fromDate = keys.stream().map(PriceLookupKey::date).min(Comparator.naturalOrder()).orElseThrow();
+		LocalDate toDate = keys.stream().map(PriceLookupKey::date).max(Comparator.naturalOrder()).orElseThrow();
+
+		Map<SupplierProduct, List<SupplierProductPrice>> candidates = supplierProductPriceRepository
+				.findPricesInWindow(supplierIds, productIds, fromDate, toDate).stream()
+				.collect(Collectors.groupingBy(spp ->
+						new SupplierProduct(spp.getSupplier().getId(), spp.getProduct().getId())));
+
+		Map<PriceLookupKey, BigDecimal> prices = new HashMap<>();
+		for (PriceLookupKey key : keys) {
+			// Та же семантика, что и у findActivePrice: самый поздний effectiveFrom, покрывающий дату
+			candidates.getOrDefault(new SupplierProduct(key.supplierId(), key.productId()), List.of()).stream()
+					.filter(spp -> !spp.getEffectiveFrom().isAfter(key.date()))
+					.filter(spp -> spp.getEffectiveTo() == null || !spp.getEffectiveTo().isBefore(key.date()))
+					.max(Comparator.comparing(SupplierProductPrice::getEffectiveFrom))
+					.ifPresent(spp -> prices.put(key, spp.getPrice()));
+		}
+		return prices;
+	}
+
 	@Override
 	public Optional<BigDecimal> getCurrentPrice(Long supplierId, Long productId) {
 		return supplierProductPriceRepository.findCurrentPrice(supplierId, productId)
@@ -35,4 +84,6 @@ public class PriceEntityServiceImpl implements PriceEntityService {
 	public List<SupplierProductPrice> getActivePrices(Long supplierId, LocalDate date) {
 		return supplierProductPriceRepository.findActiveBySupplierId(supplierId, date);
 	}
+
+	private record SupplierProduct(Long supplierId, Long productId) {}
 }
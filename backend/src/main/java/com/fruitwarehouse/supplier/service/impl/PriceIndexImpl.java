@@ -0,0 +1,145 @@
+package com.fruitwarehouse.supplier.service.impl;
+
+import com.fruitwarehouse.common.datasource.ReplicaReads;
+import com.fruitwarehouse.supplier.event.PriceChangedEvent;
+import com.fruitwarehouse.supplier.repository.SupplierProductPriceRepository;
+import com.fruitwarehouse.supplier.repository.dto.PricePeriodDto;
+import com.fruitwarehouse.supplier.service.PriceIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Индекс периодов цен по паре (поставщик, продукт) в памяти.
+ * Чтения не блокируются; изменения и полная перестройка сериализуются монитором объекта,
+ * чтобы перестройка не затёрла изменение, закоммиченное во время чтения снимка из БД.
+ */
+@Slf4j
+@Service
+public class PriceIndexImpl implements PriceIndex {
+
+	private final SupplierProductPriceRepository supplierProductPriceRepository;
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Timer rebuildTimer;
+
+	private volatile Map<SupplierProduct, NavigableMap<LocalDate, PricePeriodDto>> periods;
+
+	public PriceIndexImpl(SupplierProductPriceRepository supplierProductPriceRepository,
+						  MeterRegistry meterRegistry) {
+		this.supplierProductPriceRepository = supplierProductPriceRepository;
+		this.hits = Counter.builder("price.index.lookups")
+				.tag("result", "hit")
+				.description("Active price lookups answered from the in-memory index")
+				.register(meterRegistry);
+		this.misses = Counter.builder("price.index.lookups")
+				.tag("result", "miss")
+				.description("Active price lookups with no covering price period")
+				.register(meterRegistry);
+		this.rebuildTimer = Timer.builder("price.index.rebuild")
+				.description("Full reload of the price index from the database")
+				.register(meterRegistry);
+		Gauge.builder("price.index.periods", this, PriceIndexImpl::size)
+				.description("Price periods held in the index")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public boolean isReady() {
+		return periods != null;
+	}
+
+	@Override
+	public Optional<BigDecimal> findPrice(Long supplierId, Long productId, LocalDate date) {
+		Map<SupplierProduct, NavigableMap<LocalDate, PricePeriodDto>> snapshot = periods;
+		if (snapshot == null) {
+			throw new IllegalStateException("Price index is not loaded yet");
+		}
+
+		NavigableMap<LocalDate, PricePeriodDto> productPeriods = snapshot.get(new SupplierProduct(supplierId, productId));
+		if (productPeriods != null) {
+			// Та же семантика, что и у findActivePrice: самый поздний effectiveFrom, покрывающий дату
+			for (PricePeriodDto period : productPeriods.headMap(date, true).descendingMap().values()) {
+				if (period.covers(date)) {
+					hits.increment();
+					return Optional.of(period.price());
+				}
+			}
+		}
+
+		misses.increment();
+		return Optional.empty();
+	}
+
+	@Override
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${fruitwarehouse.price-index.refresh-interval}",
+			initialDelayString = "${fruitwarehouse.price-index.refresh-interval}")
+	public synchronized void rebuild() {
+		rebuildTimer.record(() -> {
+			// Снимок с отстающей реплики затёр бы изменения, уже применённые из событий
+			List<PricePeriodDto> all = ReplicaReads.fromPrimary(supplierProductPriceRepository::findAllPricePeriods);
+
+			Map<SupplierProduct, NavigableMap<LocalDate, PricePeriodDto>> rebuilt = new ConcurrentHashMap<>();
+			all.forEach(period -> put(rebuilt, period));
+			periods = rebuilt;
+
+			log.info("Price index rebuilt with {} price periods", all.size());
+		});
+	}
+
+	@Override
+	@TransactionalEventListener
+	public synchronized void apply(PriceChangedEvent event) {
+		if (periods == null) {
+			// Ещё не загружен: изменение будет прочитано первой перестройкой
+			return;
+		}
+
+		PricePeriodDto period = new PricePeriodDto(event.priceId(), event.supplierId(), event.productId(),
+				event.price(), event.effectiveFrom(), event.effectiveTo());
+
+		switch (event.type()) {
+			case CREATED -> put(periods, period);
+			case DELETED -> {
+				NavigableMap<LocalDate, PricePeriodDto> productPeriods =
+						periods.get(new SupplierProduct(event.supplierId(), event.productId()));
+				if (productPeriods != null) {
+					productPeriods.computeIfPresent(event.effectiveFrom(),
+							(from, existing) -> existing.id().equals(event.priceId()) ? null : existing);
+				}
+			}
+		}
+	}
+
+	private int size() {
+		Map<SupplierProduct, NavigableMap<LocalDate, PricePeriodDto>> snapshot = periods;
+		return snapshot == null ? 0 : snapshot.values().stream().mapToInt(Map::size).sum();
+	}
+
+	private static void put(Map<SupplierProduct, NavigableMap<LocalDate, PricePeriodDto>> target,
+							PricePeriodDto period) {
+		target.computeIfAbsent(new SupplierProduct(period.supplierId(), period.productId()),
+						key -> new ConcurrentSkipListMap<>())
+				.put(period.effectiveFrom(), period);
+	}
+
+	private record SupplierProduct(Long supplierId, Long productId) {}
+}
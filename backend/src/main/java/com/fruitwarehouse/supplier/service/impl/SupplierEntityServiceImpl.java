@@ -1,10 +1,12 @@
 package com.fruitwarehouse.supplier.service.impl;
 
+import com.fruitwarehouse.common.cache.ReferenceDataChangedEvent;
 import com.fruitwarehouse.supplier.entity.Supplier;
 import com.fruitwarehouse.common.exception.SupplierNotFoundException;
 import com.fruitwarehouse.supplier.repository.SupplierRepository;
 import com.fruitwarehouse.supplier.service.SupplierEntityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class SupplierEntityServiceImpl implements SupplierEntityService {
 
 	private final SupplierRepository supplierRepository;
+	private final ApplicationEventPublisher eventPublisher;
 
 	@Override
 	public Supplier getById(Long id) {
@@ -29,6 +32,8 @@ public class SupplierEntityServiceImpl implements SupplierEntityService {
 	@Override
 	@Transactional
 	public Supplier save(Supplier supplier) {
-		return supplierRepository.save(supplier);
+		Supplier saved = supplierRepository.save(supplier);
+		eventPublisher.publishEvent(new ReferenceDataChangedEvent(Supplier.class, saved.getId()));
+		return saved;
 	}
 }
@@ -6,17 +6,22 @@ import com.fruitwarehouse.product.entity.Product;
 import com.fruitwarehouse.supplier.entity.Supplier;
 import com.fruitwarehouse.supplier.entity.SupplierProductPrice;
 import com.fruitwarehouse.common.exception.ValidationException;
+import com.fruitwarehouse.supplier.event.PriceChangedEvent;
 import com.fruitwarehouse.supplier.repository.SupplierProductPriceRepository;
 import com.fruitwarehouse.supplier.service.SupplierPriceService;
 import com.fruitwarehouse.product.service.ProductEntityService;
 import com.fruitwarehouse.supplier.service.SupplierEntityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -27,6 +32,7 @@ public class SupplierPriceServiceImpl implements SupplierPriceService {
 	private final SupplierEntityService supplierEntityService;
 	private final ProductEntityService productEntityService;
 	private final SupplierProductPriceRepository priceRepository;
+	private final ApplicationEventPublisher eventPublisher;
 
 	@Override
 	public PriceResponse addPrice(Long supplierId, CreatePriceRequest request) {
@@ -46,6 +52,7 @@ public class SupplierPriceServiceImpl implements SupplierPriceService {
 		price.setEffectiveTo(request.effectiveTo());
 
 		SupplierProductPrice savedPrice = priceRepository.save(price);
+		eventPublisher.publishEvent(PriceChangedEvent.of(PriceChangedEvent.Type.CREATED, savedPrice));
 
 		log.info("Price created with ID: {}", savedPrice.getId());
 
@@ -72,6 +79,23 @@ public class SupplierPriceServiceImpl implements SupplierPriceService {
 				.toList();
 	}
 
+	/**
+	 * ETag всех цен поставщика: хэш пар (id, version). Меняется при добавлении, изменении и удалении
+	 * любой цены, поэтому годится и для отфильтрованного по продукту списка. В хэш входят и названия
+	 * продукта, типа и сорта из ответа: они меняются без изменения версии цены.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public String getSupplierPricesETag(Long supplierId) {
+		supplierEntityService.getById(supplierId);
+
+		String versions = priceRepository.findVersionsBySupplierId(supplierId).stream()
+				.map(price -> price.id() + ":" + price.version() + ":"
+						+ price.productName() + "/" + price.productType() + "/" + price.variety())
+				.collect(Collectors.joining(","));
+		return DigestUtils.md5DigestAsHex(versions.getBytes(StandardCharsets.UTF_8));
+	}
+
 	@Override
 	@Transactional(readOnly = true)
 	public List<PriceResponse> getActivePrices(Long supplierId) {
@@ -97,6 +121,7 @@ public class SupplierPriceServiceImpl implements SupplierPriceService {
 						"Price not found or doesn't belong to this supplier"));
 
 		priceRepository.delete(price);
+		eventPublisher.publishEvent(PriceChangedEvent.of(PriceChangedEvent.Type.DELETED, price));
 
 		log.info("Price deleted successfully");
 	}
@@ -1,8 +1,19 @@
 package com.fruitwarehouse;
 
 import com.fruitwarehouse.controller.DeliveryControllerE2ETest;
+import com.fruitwarehouse.controller.SqlStatementBudgetUnitTest;
 import com.fruitwarehouse.repository.DeliveryRepositoryIntegrationTest;
+import com.fruitwarehouse.repository.ReplicaRoutingDataSourceUnitTest;
 import com.fruitwarehouse.service.dto.impl.DeliveryServiceImplUnitTest;
+import com.fruitwarehouse.service.impl.DailyDeliveryRollupServiceImplUnitTest;
+import com.fruitwarehouse.service.impl.DeliveryAcceptanceServiceImplUnitTest;
+import com.fruitwarehouse.service.impl.DeliveryIdempotencyServiceImplUnitTest;
+import com.fruitwarehouse.service.impl.DeliveryPartitionServiceImplUnitTest;
+import com.fruitwarehouse.service.impl.EventFeedServiceImplUnitTest;
+import com.fruitwarehouse.service.impl.PriceIndexImplUnitTest;
+import com.fruitwarehouse.service.impl.ReportCacheImplUnitTest;
+import com.fruitwarehouse.service.impl.ReportJobServiceImplUnitTest;
+import com.fruitwarehouse.service.impl.ReportServiceImplUnitTest;
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 import org.junit.platform.suite.api.SuiteDisplayName;
@@ -13,7 +24,18 @@ import org.junit.platform.suite.api.SuiteDisplayName;
 		FruitWarehouseApplicationTests.class,
 		DeliveryControllerE2ETest.class,
 		DeliveryRepositoryIntegrationTest.class,
-		DeliveryServiceImplUnitTest.class
+		DeliveryServiceImplUnitTest.class,
+		PriceIndexImplUnitTest.class,
+		DeliveryIdempotencyServiceImplUnitTest.class,
+		DeliveryAcceptanceServiceImplUnitTest.class,
+		SqlStatementBudgetUnitTest.class,
+		DeliveryPartitionServiceImplUnitTest.class,
+		ReplicaRoutingDataSourceUnitTest.class,
+		EventFeedServiceImplUnitTest.class,
+		ReportServiceImplUnitTest.class,
+		DailyDeliveryRollupServiceImplUnitTest.class,
+		ReportCacheImplUnitTest.class,
+		ReportJobServiceImplUnitTest.class
 })
 public class AllTestsSuite {
 }
\ No newline at end of file
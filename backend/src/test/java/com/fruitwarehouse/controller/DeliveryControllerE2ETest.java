@@ -1,6 +1,7 @@
 package com.fruitwarehouse.controller;
 
 import com.fruitwarehouse.AbstractIntegrationTest;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryBatchRequest;
 import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
 import com.fruitwarehouse.delivery.controller.dto.request.DeliveryItemRequest;
 import com.fruitwarehouse.delivery.entity.DeliveryStatus;
@@ -91,12 +92,15 @@ public class DeliveryControllerE2ETest extends AbstractIntegrationTest {
 		product2.setVarietyName("Red");
 		productRepository.save(product2);
 
-		// статус доставки
+		// статусы доставки
 		DeliveryStatus createdStatus = new DeliveryStatus();
 		createdStatus.setCode(DeliveryStatus.Code.CREATED);
 		createdStatus.setName("Created");
 		createdStatus.setDescription("Delivery created");
 		deliveryStatusRepository.save(createdStatus);
+		deliveryStatusRepository.save(new DeliveryStatus(DeliveryStatus.Code.IN_PROGRESS, "In progress", "Delivery in progress", 2));
+		deliveryStatusRepository.save(new DeliveryStatus(DeliveryStatus.Code.COMPLETED, "Completed", "Delivery completed", 3));
+		deliveryStatusRepository.save(new DeliveryStatus(DeliveryStatus.Code.CANCELLED, "Cancelled", "Delivery cancelled", 4));
 
 		// активные цены
 		SupplierProductPrice price1 = new SupplierProductPrice();
@@ -116,7 +120,7 @@ public class DeliveryControllerE2ETest extends AbstractIntegrationTest {
 		priceRepository.save(price2);
 	}
 
-	private void createDelivery(LocalDateTime deliveryDate) {
+	private Long createDelivery(LocalDateTime deliveryDate) {
 		Long supplierId = supplierRepository.findAll().get(0).getId();
 		List<Product> products = productRepository.findAll();
 		Long product1Id = products.get(0).getId();
@@ -131,13 +135,16 @@ public class DeliveryControllerE2ETest extends AbstractIntegrationTest {
 				)
 		);
 
-		given()
+		return given()
 				.contentType(ContentType.JSON)
 				.body(request)
 				.when()
 				.post("/api/v1/deliveries")
 				.then()
-				.statusCode(201);
+				.statusCode(201)
+				.extract()
+				.jsonPath()
+				.getLong("id");
 	}
 
 	@Test
@@ -171,6 +178,223 @@ public class DeliveryControllerE2ETest extends AbstractIntegrationTest {
 
 	}
 
+	@Test
+	void createDeliveries_ShouldReturnPerDeliveryResults() {
+		Long supplierId = supplierRepository.findAll().get(0).getId();
+		Long productId = productRepository.findAll().get(0).getId();
+
+		CreateDeliveryBatchRequest request = new CreateDeliveryBatchRequest(List.of(
+				new CreateDeliveryRequest(supplierId, LocalDateTime.now(),
+						List.of(new DeliveryItemRequest(productId, new BigDecimal("10.5")))),
+				new CreateDeliveryRequest(-1L, LocalDateTime.now(),
+						List.of(new DeliveryItemRequest(productId, new BigDecimal("1.0")))),
+				new CreateDeliveryRequest(supplierId, LocalDateTime.now(),
+						List.of(new DeliveryItemRequest(productId, new BigDecimal("2.0"))))
+		));
+
+		given()
+				.contentType(ContentType.JSON)
+				.body(request)
+				.when()
+				.post("/api/v1/deliveries/batch")
+				.then()
+				.statusCode(200)
+				.body("total", equalTo(3))
+				.body("created", equalTo(2))
+				.body("failed", equalTo(1))
+				.body("results[0].delivery.id", notNullValue())
+				.body("results[1].created", equalTo(false))
+				.body("results[1].error", notNullValue())
+				.body("results[2].delivery.items", hasSize(1));
+	}
+
+	@Test
+	void importDeliveries_ShouldRejectWholeDeliveryWithInvalidLine() {
+		Long supplierId = supplierRepository.findAll().get(0).getId();
+		List<Product> products = productRepository.findAll();
+		Long product1Id = products.get(0).getId();
+		Long product2Id = products.get(1).getId();
+		LocalDate today = LocalDate.now();
+
+		String manifest = String.join("\n",
+				"delivery_ref,supplier_id,delivery_date,product_id,weight",
+				"A," + supplierId + "," + today + "," + product1Id + ",10.5",
+				"A," + supplierId + "," + today + "," + product2Id + ",5.2",
+				"B," + supplierId + "," + today + "," + product1Id + ",3",
+				"B," + supplierId + "," + today + ",-1,3",
+				"C," + supplierId + "," + today.minusYears(1) + "," + product1Id + ",1");
+
+		given()
+				.contentType("text/csv")
+				.body(manifest)
+				.when()
+				.post("/api/v1/deliveries/import")
+				.then()
+				.statusCode(200)
+				.body("totalRows", equalTo(5))
+				.body("importedRows", equalTo(2))
+				.body("createdDeliveries", equalTo(1))
+				.body("rejectedDeliveries", equalTo(2))
+				.body("rejections.line", contains(4, 5, 6))
+				.body("rejections[2].error", startsWith("No active price"));
+	}
+
+	@Test
+	void changeDeliveryStatuses_ShouldReportDeliveriesNotTransitioned() {
+		Long created = createDelivery(LocalDateTime.now());
+		Long completed = createDelivery(LocalDateTime.now());
+
+		given()
+				.contentType(ContentType.JSON)
+				.body("{\"status\": \"IN_PROGRESS\"}")
+				.when()
+				.patch("/api/v1/deliveries/{id}/status", completed)
+				.then()
+				.statusCode(200)
+				.body("status", equalTo("In progress"));
+
+		given()
+				.contentType(ContentType.JSON)
+				.body("{\"status\": \"CANCELLED\"}")
+				.when()
+				.patch("/api/v1/deliveries/{id}/status", completed)
+				.then()
+				.statusCode(200);
+
+		given()
+				.contentType(ContentType.JSON)
+				.body("{\"deliveryIds\": [" + created + ", " + completed + ", -1], \"status\": \"IN_PROGRESS\"}")
+				.when()
+				.patch("/api/v1/deliveries/status")
+				.then()
+				.statusCode(200)
+				.body("transitioned", contains(created.intValue()))
+				.body("notTransitioned", contains(completed.intValue(), -1));
+
+		given()
+				.contentType(ContentType.JSON)
+				.body("{\"status\": \"IN_PROGRESS\"}")
+				.when()
+				.patch("/api/v1/deliveries/{id}/status", completed)
+				.then()
+				.statusCode(409);
+	}
+
+	@Test
+	void getAllDeliveries_ShouldPageWithNextLink() {
+		LocalDateTime now = LocalDateTime.now();
+		Long oldest = createDelivery(now.minusDays(3));
+		Long middle = createDelivery(now.minusDays(2));
+		Long newest = createDelivery(now.minusDays(1));
+		createDelivery(now.minusDays(40));
+
+		String next = given()
+				.queryParam("size", 2)
+				.when()
+				.get("/api/v1/deliveries")
+				.then()
+				.statusCode(200)
+				.header("Link", containsString("rel=\"next\""))
+				.body("id", contains(newest.intValue(), middle.intValue()))
+				.body("[0].items", hasSize(2))
+				.extract()
+				.header("Link")
+				.replaceAll("^<(.*)>.*$", "$1");
+
+		given()
+				.urlEncodingEnabled(false)
+				.when()
+				.get(next)
+				.then()
+				.statusCode(200)
+				.header("Link", nullValue())
+				.body("id", contains(oldest.intValue()));
+	}
+
+	@Test
+	void searchDeliveries_ShouldFilterAndPageInSortOrder() {
+		LocalDateTime now = LocalDateTime.now();
+		Long first = createDelivery(now.minusDays(3));
+		Long second = createDelivery(now.minusDays(2));
+		Long third = createDelivery(now.minusDays(1));
+		createDelivery(now.minusDays(40));
+		Long productId = productRepository.findAll().get(1).getId();
+
+		// Итоги одинаковые, поэтому порядок внутри стоимости задаёт id
+		String next = given()
+				.queryParam("from", now.minusDays(10).toString())
+				.queryParam("productIds", productId)
+				.queryParam("status", "CREATED")
+				.queryParam("sort", "TOTAL_COST")
+				.queryParam("direction", "ASC")
+				.queryParam("size", 2)
+				.when()
+				.get("/api/v1/deliveries/search")
+				.then()
+				.statusCode(200)
+				.header("X-SQL-Statement-Count", "3")
+				.body("id", contains(first.intValue(), second.intValue()))
+				.body("[0].items", hasSize(2))
+				.extract()
+				.header("Link")
+				.replaceAll("^<(.*)>.*$", "$1");
+
+		given()
+				.urlEncodingEnabled(false)
+				.when()
+				.get(next)
+				.then()
+				.statusCode(200)
+				.header("Link", nullValue())
+				.body("id", contains(third.intValue()));
+
+		given()
+				.queryParam("status", "COMPLETED")
+				.when()
+				.get("/api/v1/deliveries/search")
+				.then()
+				.statusCode(200)
+				.body(".", empty());
+	}
+
+	@Test
+	void getDeliveryHistoryOfSupplier_ShouldPageWholeHistoryWithItems() {
+		LocalDateTime now = LocalDateTime.now();
+		Long oldest = createDelivery(now.minusDays(400));
+		Long middle = createDelivery(now.minusDays(40));
+		Long newest = createDelivery(now.minusDays(1));
+		Long supplierId = supplierRepository.findAll().get(0).getId();
+
+		String next = given()
+				.queryParam("size", 2)
+				.when()
+				.get("/api/v1/deliveries/supplier/{supplierId}/history", supplierId)
+				.then()
+				.statusCode(200)
+				// Ключи страницы, поставки и их позиции
+				.header("X-SQL-Statement-Count", "3")
+				.body("id", contains(newest.intValue(), middle.intValue()))
+				.body("[1].items", hasSize(2))
+				.extract()
+				.header("Link")
+				.replaceAll("^<(.*)>.*$", "$1");
+
+		given()
+				.urlEncodingEnabled(false)
+				.when()
+				.get(next)
+				.then()
+				.statusCode(200)
+				.header("Link", nullValue())
+				.body("id", contains(oldest.intValue()));
+
+		given()
+				.when()
+				.get("/api/v1/deliveries/supplier/{supplierId}/history", supplierId + 1000)
+				.then()
+				.statusCode(404);
+	}
+
 	@Test
 	void getAllDeliveries_ShouldReturnList() {
 		createDelivery(LocalDateTime.now());
@@ -181,6 +405,8 @@ public class DeliveryControllerE2ETest extends AbstractIntegrationTest {
 				.get("/api/v1/deliveries")
 				.then()
 				.statusCode(200)
+				// Поставки и их позиции читаются двумя запросами независимо от размера страницы
+				.header("X-SQL-Statement-Count", "2")
 				.body(".", is(not(empty())));
 	}
 }
\ No newline at end of file
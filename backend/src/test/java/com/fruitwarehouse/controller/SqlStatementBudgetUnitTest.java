@@ -0,0 +1,69 @@
+package com.fruitwarehouse.controller;
+
+import com.fruitwarehouse.common.sql.SqlStatementBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Каждый обработчик в delivery, supplier и report обязан объявить {@link SqlStatementBudget}:
+ * сам бюджет проверяется в E2E-тестах, где его превышение завершает запрос ошибкой.
+ */
+public class SqlStatementBudgetUnitTest {
+
+	private static final List<String> BUDGETED_PACKAGES = List.of(
+			"com.fruitwarehouse.delivery",
+			"com.fruitwarehouse.supplier",
+			"com.fruitwarehouse.report");
+
+	@Test
+	void everyHandlerMethod_ShouldDeclareStatementBudget() {
+		List<Class<?>> controllers = controllersIn(BUDGETED_PACKAGES);
+		assertThat(controllers).isNotEmpty();
+
+		List<String> withoutBudget = new ArrayList<>();
+		for (Class<?> controller : controllers) {
+			for (Method method : controller.getDeclaredMethods()) {
+				if (AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class)
+						&& !method.isAnnotationPresent(SqlStatementBudget.class)) {
+					withoutBudget.add(controller.getSimpleName() + "." + method.getName());
+				}
+			}
+		}
+
+		assertThat(withoutBudget).as("handler methods without @SqlStatementBudget").isEmpty();
+	}
+
+	// Ноль — для обработчиков, которые не обращаются к базе: любой появившийся запрос превысит бюджет
+	@Test
+	void statementBudgets_ShouldNotBeNegative() {
+		controllersIn(BUDGETED_PACKAGES).stream()
+				.flatMap(controller -> Stream.of(controller.getDeclaredMethods()))
+				.filter(method -> method.isAnnotationPresent(SqlStatementBudget.class))
+				.forEach(method -> assertThat(method.getAnnotation(SqlStatementBudget.class).value())
+						.as(method.getDeclaringClass().getSimpleName() + "." + method.getName())
+						.isNotNegative());
+	}
+
+	private static List<Class<?>> controllersIn(List<String> packages) {
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+		scanner.addIncludeFilter(new AnnotationTypeFilter(RestController.class));
+		return packages.stream()
+				.flatMap(basePackage -> scanner.findCandidateComponents(basePackage).stream())
+				.map(BeanDefinition::getBeanClassName)
+				.<Class<?>>map(className -> ClassUtils.resolveClassName(className, SqlStatementBudgetUnitTest.class.getClassLoader()))
+				.toList();
+	}
+}
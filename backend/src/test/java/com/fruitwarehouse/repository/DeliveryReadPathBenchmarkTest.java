@@ -0,0 +1,193 @@
+package com.fruitwarehouse.repository;
+
+import com.fruitwarehouse.AbstractIntegrationTest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.entity.Delivery;
+import com.fruitwarehouse.delivery.entity.DeliveryItem;
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.mapper.DeliveryApiMapper;
+import com.fruitwarehouse.delivery.repository.DeliveryReadRepository;
+import com.fruitwarehouse.delivery.repository.DeliveryRepository;
+import com.fruitwarehouse.delivery.repository.DeliveryStatusRepository;
+import com.fruitwarehouse.delivery.service.DeliveryEntityService;
+import com.fruitwarehouse.product.entity.Product;
+import com.fruitwarehouse.product.entity.ProductType;
+import com.fruitwarehouse.product.repository.ProductRepository;
+import com.fruitwarehouse.product.repository.ProductTypeRepository;
+import com.fruitwarehouse.supplier.entity.Supplier;
+import com.fruitwarehouse.supplier.repository.SupplierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение чтения поставок через сущности и маппер с проекцией {@link DeliveryReadRepository}.
+ * Не входит в обычный прогон: {@code mvn test -Dtest=DeliveryReadPathBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class DeliveryReadPathBenchmarkTest extends AbstractIntegrationTest {
+
+	private static final int SEEDED_DELIVERIES = 10_000;
+	private static final int ITEMS_PER_DELIVERY = 3;
+	private static final int WARMUP_RUNS = 5;
+	private static final int MEASURED_RUNS = 15;
+	private static final LocalDateTime NEWEST_DELIVERY = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+	@Autowired
+	private SupplierRepository supplierRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductTypeRepository productTypeRepository;
+
+	@Autowired
+	private DeliveryStatusRepository deliveryStatusRepository;
+
+	@Autowired
+	private DeliveryRepository deliveryRepository;
+
+	@Autowired
+	private DeliveryEntityService deliveryEntityService;
+
+	@Autowired
+	private DeliveryApiMapper deliveryApiMapper;
+
+	@Autowired
+	private DeliveryReadRepository deliveryReadRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		if (deliveryRepository.count() == 0) {
+			seedDeliveries();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1_000, 10_000})
+	void readDeliveries_EntityPathVersusProjection(int deliveries) {
+		LocalDateTime from = NEWEST_DELIVERY.minusMinutes(deliveries - 1L);
+		LocalDateTime to = NEWEST_DELIVERY.plusSeconds(1);
+
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		// Путь до проекции: управляемые сущности с позициями, затем маппер
+		IntFunction<List<DeliveryResponse>> entityPath = limit -> readOnly.execute(status ->
+				deliveryRepository.findByDeliveryDateBetweenWithDetails(from, to).stream()
+						.map(deliveryApiMapper::toDeliveryResponse)
+						.toList());
+		IntFunction<List<DeliveryResponse>> projectionPath = limit ->
+				deliveryReadRepository.findPageBefore(from, to, Long.MAX_VALUE, limit);
+
+		assertSameDeliveries(entityPath.apply(deliveries), projectionPath.apply(deliveries), deliveries);
+
+		Measurement entity = measure(entityPath, deliveries);
+		Measurement projection = measure(projectionPath, deliveries);
+		System.out.printf("%,d deliveries: entities %s; projection %s%n", deliveries, entity, projection);
+	}
+
+	private void assertSameDeliveries(List<DeliveryResponse> entities, List<DeliveryResponse> projections, int expected) {
+		assertThat(entities).hasSize(expected);
+		assertThat(projections).hasSize(expected);
+		Map<Long, DeliveryResponse> byId = projections.stream()
+				.collect(Collectors.toMap(DeliveryResponse::id, response -> response));
+		for (DeliveryResponse entity : entities) {
+			DeliveryResponse projection = byId.get(entity.id());
+			assertThat(projection).isNotNull();
+			assertThat(projection.totalCost()).isEqualByComparingTo(entity.totalCost());
+			assertThat(projection.items()).hasSameSizeAs(entity.items());
+		}
+	}
+
+	private Measurement measure(IntFunction<List<DeliveryResponse>> path, int deliveries) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			path.apply(deliveries);
+		}
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long[] nanos = new long[MEASURED_RUNS];
+		long allocated = 0;
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+			long started = System.nanoTime();
+			path.apply(deliveries);
+			nanos[i] = System.nanoTime() - started;
+			allocated += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+		}
+		Arrays.sort(nanos);
+		return new Measurement(nanos[MEASURED_RUNS / 2] / 1_000_000.0, allocated / MEASURED_RUNS / (1024.0 * 1024.0));
+	}
+
+	private void seedDeliveries() {
+		ProductType appleType = productTypeRepository.save(new ProductType(ProductType.Code.APPLE, "Apple", "Apple fruit"));
+
+		Supplier supplier = new Supplier();
+		supplier.setName("Benchmark Supplier");
+		supplier.setContactEmail("benchmark@example.com");
+		supplierRepository.save(supplier);
+
+		List<Product> products = new ArrayList<>();
+		for (String variety : List.of("Golden", "Fuji", "Gala")) {
+			Product product = new Product();
+			product.setName(variety + " Apple");
+			product.setProductType(appleType);
+			product.setVarietyName(variety);
+			products.add(productRepository.save(product));
+		}
+
+		DeliveryStatus createdStatus = deliveryStatusRepository.save(
+				new DeliveryStatus(DeliveryStatus.Code.CREATED, "Created", "Delivery created", 1));
+
+		List<Delivery> deliveries = new ArrayList<>(SEEDED_DELIVERIES);
+		for (int i = 0; i < SEEDED_DELIVERIES; i++) {
+			Delivery delivery = new Delivery();
+			delivery.setSupplier(supplier);
+			delivery.setStatus(createdStatus);
+			delivery.setDeliveryDate(NEWEST_DELIVERY.minusMinutes(i));
+			for (int j = 0; j < ITEMS_PER_DELIVERY; j++) {
+				DeliveryItem item = new DeliveryItem();
+				item.setDelivery(delivery);
+				item.setProduct(products.get(j % products.size()));
+				item.setWeight(new BigDecimal("10.500"));
+				item.setUnitPrice(new BigDecimal("2.50"));
+				item.calculateTotalPrice();
+				delivery.getItems().add(item);
+			}
+			deliveries.add(delivery);
+		}
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> deliveryEntityService.saveAll(deliveries));
+	}
+
+	private record Measurement(double medianMillis, double allocatedMegabytes) {
+		@Override
+		public String toString() {
+			return String.format("%.1f ms, %.1f MB allocated", medianMillis, allocatedMegabytes);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.fruitwarehouse.repository;
+
+import com.fruitwarehouse.common.datasource.ReadReplica;
+import com.fruitwarehouse.common.datasource.ReadReplicas;
+import com.fruitwarehouse.common.datasource.ReplicaReads;
+import com.fruitwarehouse.common.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceUnitTest {
+
+	@Mock
+	private DataSource primary;
+
+	@Mock
+	private DataSource replicaDataSource;
+
+	@Mock
+	private Connection primaryConnection;
+
+	@Mock
+	private Connection replicaConnection;
+
+	private ReadReplica replica;
+	private ReplicaRoutingDataSource routing;
+
+	@BeforeEach
+	void setUp() {
+		replica = new ReadReplica("replica-1", replicaDataSource);
+		replica.updateLag(Duration.ofMillis(200));
+		routing = new ReplicaRoutingDataSource(primary,
+				new ReadReplicas(List.of(replica), Duration.ofSeconds(5)), true, new SimpleMeterRegistry());
+		routing.afterPropertiesSet();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void getConnection_ShouldRouteReadOnlyTransactionToReplica() throws SQLException {
+		when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+
+		assertThat(connectionIn(true)).isSameAs(replicaConnection);
+	}
+
+	@Test
+	void getConnection_ShouldReadFromPrimaryWhenReplicaLagsTooMuch() throws SQLException {
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		replica.updateLag(Duration.ofSeconds(30));
+
+		assertThat(connectionIn(true)).isSameAs(primaryConnection);
+		verifyNoInteractions(replicaDataSource);
+	}
+
+	@Test
+	void getConnection_ShouldKeepRequestOnPrimaryAfterItWrote() throws SQLException {
+		when(primary.getConnection()).thenReturn(primaryConnection);
+
+		assertThat(connectionIn(false)).isSameAs(primaryConnection);
+		assertThat(connectionIn(true)).isSameAs(primaryConnection);
+		verifyNoInteractions(replicaDataSource);
+	}
+
+	@Test
+	void getConnection_ShouldReadFromPrimaryInsidePrimaryScope() throws SQLException {
+		when(primary.getConnection()).thenReturn(primaryConnection);
+
+		Connection connection = ReplicaReads.fromPrimary(() -> {
+			try {
+				return connectionIn(true);
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		assertThat(connection).isSameAs(primaryConnection);
+		verifyNoInteractions(replicaDataSource);
+	}
+
+	@Test
+	void getConnection_ShouldFallBackToPrimaryAndExcludeUnreachableReplica() throws SQLException {
+		when(replicaDataSource.getConnection()).thenThrow(new SQLTransientConnectionException("timed out"));
+		when(primary.getConnection()).thenReturn(primaryConnection);
+
+		assertThat(connectionIn(true)).isSameAs(primaryConnection);
+		assertThat(replica.getLag()).isNull();
+
+		assertThat(connectionIn(true)).isSameAs(primaryConnection);
+		verify(replicaDataSource, times(1)).getConnection();
+	}
+
+	private Connection connectionIn(boolean readOnly) throws SQLException {
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+		return routing.getConnection();
+	}
+}
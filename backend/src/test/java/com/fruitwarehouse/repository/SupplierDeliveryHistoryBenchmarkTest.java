@@ -0,0 +1,368 @@
+package com.fruitwarehouse.repository;
+
+import com.fruitwarehouse.AbstractIntegrationTest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.entity.Delivery;
+import com.fruitwarehouse.delivery.entity.DeliveryItem;
+import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.mapper.DeliveryApiMapper;
+import com.fruitwarehouse.delivery.repository.DeliveryRepository;
+import com.fruitwarehouse.delivery.repository.DeliveryStatusRepository;
+import com.fruitwarehouse.delivery.service.DeliveryEntityService;
+import com.fruitwarehouse.delivery.service.DeliveryService;
+import com.fruitwarehouse.delivery.service.dto.DeliveryPage;
+import com.fruitwarehouse.product.entity.Product;
+import com.fruitwarehouse.product.entity.ProductType;
+import com.fruitwarehouse.product.repository.ProductRepository;
+import com.fruitwarehouse.product.repository.ProductTypeRepository;
+import com.fruitwarehouse.supplier.entity.Supplier;
+import com.fruitwarehouse.supplier.repository.SupplierRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.net.SocketFactory;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * История поставок поставщика: прежний запрос с fetch join поставщика, позиций и продуктов против
+ * двухфазного чтения (ключи страницы, затем поставки и позиции по ним). Строки и байты считаются
+ * на сокете драйвера, поэтому это именно то, что передал PostgreSQL.
+ * Не входит в обычный прогон: {@code mvn test -Dtest=SupplierDeliveryHistoryBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SupplierDeliveryHistoryBenchmarkTest extends AbstractIntegrationTest {
+
+	private static final int ITEMS_PER_DELIVERY = 5;
+	private static final int FIRST_PAGE_SIZE = 50;
+	private static final int WALK_PAGE_SIZE = 500;
+	private static final int WARMUP_RUNS = 3;
+	private static final int MEASURED_RUNS = 9;
+	private static final LocalDateTime NEWEST_DELIVERY = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+	private static final String FETCH_JOIN_QUERY = """
+			SELECT d FROM Delivery d
+			LEFT JOIN FETCH d.supplier
+			LEFT JOIN FETCH d.items i
+			LEFT JOIN FETCH i.product
+			WHERE d.supplier.id = :supplierId
+			""";
+
+	@DynamicPropertySource
+	static void countWireTraffic(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.hikari.data-source-properties[socketFactory]", WireCounter.class::getName);
+		// Подсчёт сообщений начинается с первого байта: ответы на запросы SSL и GSS не имеют заголовка
+		registry.add("spring.datasource.hikari.data-source-properties[sslmode]", () -> "disable");
+		registry.add("spring.datasource.hikari.data-source-properties[gssEncMode]", () -> "disable");
+	}
+
+	@Autowired
+	private SupplierRepository supplierRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductTypeRepository productTypeRepository;
+
+	@Autowired
+	private DeliveryStatusRepository deliveryStatusRepository;
+
+	@Autowired
+	private DeliveryRepository deliveryRepository;
+
+	@Autowired
+	private DeliveryEntityService deliveryEntityService;
+
+	@Autowired
+	private DeliveryService deliveryService;
+
+	@Autowired
+	private DeliveryApiMapper deliveryApiMapper;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		if (deliveryRepository.count() == 0) {
+			seedDeliveries(List.of(1_000, 20_000));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1_000, 20_000})
+	void supplierHistory_FetchJoinVersusTwoPhase(int historyLength) {
+		Long supplierId = supplierRepository.findAll().stream()
+				.filter(supplier -> supplier.getName().equals(supplierName(historyLength)))
+				.findFirst().orElseThrow().getId();
+
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		// Прежний путь: вся история одним запросом, строка результата на каждую позицию
+		IntFunction<List<DeliveryResponse>> fetchJoin = pageSize -> readOnly.execute(status ->
+				entityManager.createQuery(FETCH_JOIN_QUERY, Delivery.class)
+						.setParameter("supplierId", supplierId)
+						.getResultList().stream()
+						.map(deliveryApiMapper::toDeliveryResponse)
+						.toList());
+		IntFunction<List<DeliveryResponse>> twoPhase = pageSize -> {
+			List<DeliveryResponse> all = new ArrayList<>();
+			String cursor = null;
+			do {
+				DeliveryPage page = deliveryService.getDeliveryHistoryOfSupplier(supplierId, cursor, pageSize);
+				all.addAll(page.deliveries());
+				cursor = page.nextCursor();
+			} while (cursor != null);
+			return all;
+		};
+		IntFunction<List<DeliveryResponse>> firstPage = pageSize ->
+				deliveryService.getDeliveryHistoryOfSupplier(supplierId, null, pageSize).deliveries();
+
+		assertSameDeliveries(fetchJoin.apply(0), twoPhase.apply(WALK_PAGE_SIZE), historyLength);
+
+		Measurement joined = measure(fetchJoin, 0);
+		Measurement walked = measure(twoPhase, WALK_PAGE_SIZE);
+		Measurement first = measure(firstPage, FIRST_PAGE_SIZE);
+		System.out.printf("%,d deliveries x %d items: fetch join %s; two-phase, all pages of %d: %s; " +
+						"two-phase, first page of %d: %s%n",
+				historyLength, ITEMS_PER_DELIVERY, joined, WALK_PAGE_SIZE, walked, FIRST_PAGE_SIZE, first);
+	}
+
+	private void assertSameDeliveries(List<DeliveryResponse> joined, List<DeliveryResponse> twoPhase, int expected) {
+		assertThat(joined).hasSize(expected);
+		assertThat(twoPhase).hasSize(expected);
+		Map<Long, DeliveryResponse> byId = twoPhase.stream()
+				.collect(Collectors.toMap(DeliveryResponse::id, response -> response));
+		for (DeliveryResponse delivery : joined) {
+			DeliveryResponse paged = byId.get(delivery.id());
+			assertThat(paged).isNotNull();
+			assertThat(paged.totalCost()).isEqualByComparingTo(delivery.totalCost());
+			assertThat(paged.items()).hasSameSizeAs(delivery.items());
+		}
+	}
+
+	private Measurement measure(IntFunction<List<DeliveryResponse>> path, int pageSize) {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			path.apply(pageSize);
+		}
+
+		long[] nanos = new long[MEASURED_RUNS];
+		long rows = 0;
+		long bytes = 0;
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			WireCounter.reset();
+			long started = System.nanoTime();
+			path.apply(pageSize);
+			nanos[i] = System.nanoTime() - started;
+			rows += WireCounter.ROWS.get();
+			bytes += WireCounter.BYTES.get();
+		}
+		Arrays.sort(nanos);
+		return new Measurement(nanos[MEASURED_RUNS / 2] / 1_000_000.0, rows / MEASURED_RUNS,
+				bytes / MEASURED_RUNS / (1024.0 * 1024.0));
+	}
+
+	private void seedDeliveries(List<Integer> historyLengths) {
+		// Индексы схемы приложения, которых нет у таблиц, созданных Hibernate
+		jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_deliveries_supplier_date_id " +
+				"ON deliveries (supplier_id, delivery_date DESC, id DESC)");
+		jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_delivery_items_delivery ON delivery_items (delivery_id)");
+
+		ProductType appleType = productTypeRepository.save(new ProductType(ProductType.Code.APPLE, "Apple", "Apple fruit"));
+		List<Product> products = new ArrayList<>();
+		for (String variety : List.of("Golden", "Fuji", "Gala", "Jonagold", "Braeburn")) {
+			Product product = new Product();
+			product.setName(variety + " Apple");
+			product.setProductType(appleType);
+			product.setVarietyName(variety);
+			products.add(productRepository.save(product));
+		}
+		DeliveryStatus createdStatus = deliveryStatusRepository.save(
+				new DeliveryStatus(DeliveryStatus.Code.CREATED, "Created", "Delivery created", 1));
+
+		for (int historyLength : historyLengths) {
+			Supplier supplier = new Supplier();
+			supplier.setName(supplierName(historyLength));
+			supplier.setContactEmail("history-" + historyLength + "@example.com");
+			supplierRepository.save(supplier);
+
+			List<Delivery> deliveries = new ArrayList<>(historyLength);
+			for (int i = 0; i < historyLength; i++) {
+				Delivery delivery = new Delivery();
+				delivery.setSupplier(supplier);
+				delivery.setStatus(createdStatus);
+				delivery.setDeliveryDate(NEWEST_DELIVERY.minusMinutes(i));
+				for (int j = 0; j < ITEMS_PER_DELIVERY; j++) {
+					DeliveryItem item = new DeliveryItem();
+					item.setDelivery(delivery);
+					item.setProduct(products.get(j));
+					item.setWeight(new BigDecimal("10.500"));
+					item.setUnitPrice(new BigDecimal("2.50"));
+					item.calculateTotalPrice();
+					delivery.getItems().add(item);
+				}
+				delivery.calculateTotals();
+				deliveries.add(delivery);
+			}
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> deliveryEntityService.saveAll(deliveries));
+		}
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	private static String supplierName(int historyLength) {
+		return "History of " + historyLength;
+	}
+
+	private record Measurement(double medianMillis, long rows, double megabytes) {
+		@Override
+		public String toString() {
+			return String.format("%.1f ms, %,d rows, %.2f MB received", medianMillis, rows, megabytes);
+		}
+	}
+
+	/**
+	 * Фабрика сокетов для драйвера PostgreSQL: считает принятые байты и сообщения DataRow, по одному на строку
+	 * результата. Драйвер создаёт её по имени класса, поэтому счётчики общие для всех соединений пула.
+	 */
+	public static class WireCounter extends SocketFactory {
+
+		static final AtomicLong BYTES = new AtomicLong();
+		static final AtomicLong ROWS = new AtomicLong();
+
+		static void reset() {
+			BYTES.set(0);
+			ROWS.set(0);
+		}
+
+		@Override
+		public Socket createSocket() {
+			return new Socket() {
+				private InputStream counted;
+
+				@Override
+				public synchronized InputStream getInputStream() throws IOException {
+					if (counted == null) {
+						counted = new CountingInputStream(super.getInputStream());
+					}
+					return counted;
+				}
+			};
+		}
+
+		@Override
+		public Socket createSocket(String host, int port) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Socket createSocket(String host, int port, InetAddress localHost, int localPort) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Socket createSocket(InetAddress host, int port) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Разбирает поток сообщений протокола: байт типа, длина из четырёх байт, затем тело.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		private int headerPosition;
+		private int length;
+		private long bodyRemaining;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int value = super.read();
+			if (value >= 0) {
+				scan(new byte[]{(byte) value}, 0, 1);
+			}
+			return value;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int count) throws IOException {
+			int read = super.read(buffer, offset, count);
+			if (read > 0) {
+				scan(buffer, offset, read);
+			}
+			return read;
+		}
+
+		private void scan(byte[] buffer, int offset, int count) {
+			WireCounter.BYTES.addAndGet(count);
+			int position = offset;
+			int end = offset + count;
+			while (position < end) {
+				if (bodyRemaining > 0) {
+					int skipped = (int) Math.min(bodyRemaining, end - position);
+					bodyRemaining -= skipped;
+					position += skipped;
+					continue;
+				}
+				int value = buffer[position++] & 0xff;
+				if (headerPosition == 0) {
+					if (value == 'D') {
+						WireCounter.ROWS.incrementAndGet();
+					}
+					length = 0;
+				} else {
+					length = (length << 8) | value;
+				}
+				if (++headerPosition == 5) {
+					// Длина включает собственные четыре байта
+					bodyRemaining = length - 4;
+					headerPosition = 0;
+				}
+			}
+		}
+	}
+}
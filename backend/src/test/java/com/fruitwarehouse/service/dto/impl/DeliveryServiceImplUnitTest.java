@@ -1,28 +1,38 @@
 package com.fruitwarehouse.service.dto.impl;
 
+import com.fruitwarehouse.common.cache.ReferenceDataCache;
+import com.fruitwarehouse.common.cache.dto.DeliveryStatusSnapshot;
+import com.fruitwarehouse.common.cache.dto.ProductSnapshot;
+import com.fruitwarehouse.common.cache.dto.SupplierSnapshot;
 import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
 import com.fruitwarehouse.delivery.controller.dto.request.DeliveryItemRequest;
 import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
 import com.fruitwarehouse.delivery.mapper.DeliveryApiMapper;
 import com.fruitwarehouse.delivery.entity.Delivery;
 import com.fruitwarehouse.delivery.entity.DeliveryStatus;
+import com.fruitwarehouse.delivery.event.DeliveryCreatedEvent;
+import com.fruitwarehouse.delivery.service.DailyDeliveryRollupService;
 import com.fruitwarehouse.delivery.service.DeliveryEntityService;
-import com.fruitwarehouse.delivery.service.DeliveryStatusService;
+import com.fruitwarehouse.delivery.service.DeliveryNumberGenerator;
 import com.fruitwarehouse.delivery.service.impl.DeliveryServiceImpl;
 import com.fruitwarehouse.product.entity.Product;
 import com.fruitwarehouse.supplier.entity.Supplier;
 import com.fruitwarehouse.supplier.service.PriceEntityService;
-import com.fruitwarehouse.product.service.ProductEntityService;
-import com.fruitwarehouse.supplier.service.SupplierEntityService;
+import com.fruitwarehouse.supplier.service.dto.PriceLookupKey;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,15 +44,17 @@ public class DeliveryServiceImplUnitTest {
 	@Mock
 	private DeliveryEntityService deliveryEntityService;
 	@Mock
-	private SupplierEntityService supplierEntityService;
-	@Mock
-	private ProductEntityService productEntityService;
-	@Mock
-	private DeliveryStatusService deliveryStatusService;
+	private ReferenceDataCache referenceDataCache;
 	@Mock
 	private PriceEntityService priceEntityService;
 	@Mock
+	private DeliveryNumberGenerator deliveryNumberGenerator;
+	@Mock
 	private DeliveryApiMapper deliveryApiMapper;
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	@Mock
+	private DailyDeliveryRollupService dailyDeliveryRollupService;
 
 	@InjectMocks
 	private DeliveryServiceImpl deliveryService;
@@ -65,6 +77,7 @@ public class DeliveryServiceImplUnitTest {
 		mockProduct.setName("Golden Apple");
 
 		DeliveryStatus mockStatus = new DeliveryStatus();
+		mockStatus.setId(1L);
 		mockStatus.setCode(DeliveryStatus.Code.CREATED);
 		mockStatus.setName("Created");
 
@@ -75,34 +88,45 @@ public class DeliveryServiceImplUnitTest {
 				List.of(itemRequest)
 		);
 
-		Delivery savedDelivery = new Delivery();
-		savedDelivery.setId(1L);
-
-		when(supplierEntityService.getById(supplierId)).thenReturn(mockSupplier);
-		when(productEntityService.getById(productId)).thenReturn(mockProduct);
-		when(deliveryStatusService.getByCode(DeliveryStatus.Code.CREATED))
-				.thenReturn(mockStatus); // Мокаем получение статуса
-		when(priceEntityService.getActivePrice(any(), any(), any()))
-				.thenReturn(java.util.Optional.of(unitPrice));
-		when(deliveryEntityService.save(any(Delivery.class))).thenReturn(savedDelivery);
-		when(deliveryApiMapper.toDeliveryResponse(any())).thenReturn(
-				DeliveryResponse.builder()
-						.id(1L)
-						.supplierId(supplierId)
-						.supplierName("Test Supplier")
-						.build()
-		);
+		when(referenceDataCache.findSupplier(supplierId))
+				.thenReturn(Optional.of(new SupplierSnapshot(supplierId, "Test Supplier")));
+		when(referenceDataCache.findProducts(any())).thenReturn(Map.of(
+				productId, new ProductSnapshot(productId, "Golden Apple", 1L, "Apple", "Golden")));
+		when(referenceDataCache.getStatus(DeliveryStatus.Code.CREATED))
+				.thenReturn(new DeliveryStatusSnapshot(1L, DeliveryStatus.Code.CREATED, "Created"));
+		// Связи проставляются ссылками из кэша
+		when(referenceDataCache.reference(Supplier.class, supplierId)).thenReturn(mockSupplier);
+		when(referenceDataCache.reference(DeliveryStatus.class, 1L)).thenReturn(mockStatus);
+		when(referenceDataCache.reference(Product.class, productId)).thenReturn(mockProduct);
+		when(priceEntityService.getActivePrices(any())).thenReturn(Map.of(
+				new PriceLookupKey(supplierId, productId, request.deliveryDate().toLocalDate()), unitPrice));
+		UUID deliveryNumber = UUID.fromString("0192a6b4-3c1e-7abc-8def-0123456789ab");
+		when(deliveryNumberGenerator.next()).thenReturn(deliveryNumber);
+		when(deliveryEntityService.save(any(Delivery.class))).thenAnswer(invocation -> {
+			Delivery delivery = invocation.getArgument(0);
+			delivery.setId(1L);
+			return delivery;
+		});
 
 		DeliveryResponse response = deliveryService.createDelivery(request);
 
 		assertThat(response).isNotNull();
 		assertThat(response.id()).isEqualTo(1L);
+		assertThat(response.deliveryNumber()).isEqualTo(deliveryNumber);
 		assertThat(response.supplierName()).isEqualTo("Test Supplier");
-
-		verify(supplierEntityService).getById(supplierId);
-		verify(productEntityService).getById(productId);
-		verify(deliveryStatusService).getByCode(DeliveryStatus.Code.CREATED);
-		verify(priceEntityService).getActivePrice(eq(supplierId), eq(productId), any());
+		assertThat(response.status()).isEqualTo("Created");
+		assertThat(response.totalCost()).isEqualByComparingTo(expectedTotalPrice);
+		assertThat(response.itemCount()).isEqualTo(1);
+		assertThat(response.items()).singleElement()
+				.satisfies(item -> assertThat(item.productName()).isEqualTo("Golden Apple"));
+
+		verify(referenceDataCache).findSupplier(supplierId);
+		verify(referenceDataCache).findProducts(Set.of(productId));
+		verify(priceEntityService).getActivePrices(Set.of(
+				new PriceLookupKey(supplierId, productId, request.deliveryDate().toLocalDate())));
 		verify(deliveryEntityService).save(any(Delivery.class));
+		verify(eventPublisher).publishEvent(new DeliveryCreatedEvent(1L, deliveryNumber, supplierId,
+				request.deliveryDate(), weight, expectedTotalPrice));
+		verifyNoInteractions(deliveryApiMapper);
 	}
 }
\ No newline at end of file
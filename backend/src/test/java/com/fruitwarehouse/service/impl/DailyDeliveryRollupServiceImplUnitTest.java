@@ -0,0 +1,124 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.delivery.entity.Delivery;
+import com.fruitwarehouse.delivery.entity.DeliveryItem;
+import com.fruitwarehouse.delivery.event.DeliveryDayReconciledEvent;
+import com.fruitwarehouse.delivery.repository.DailyDeliveryRollupRepository;
+import com.fruitwarehouse.delivery.repository.dto.DailyDeliveryRollupDto;
+import com.fruitwarehouse.delivery.service.impl.DailyDeliveryRollupServiceImpl;
+import com.fruitwarehouse.product.entity.Product;
+import com.fruitwarehouse.supplier.entity.Supplier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DailyDeliveryRollupServiceImplUnitTest {
+
+	private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+	@Mock
+	private DailyDeliveryRollupRepository dailyDeliveryRollupRepository;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private DailyDeliveryRollupServiceImpl rollupService;
+
+	@BeforeEach
+	void setUp() {
+		rollupService = new DailyDeliveryRollupServiceImpl(
+				dailyDeliveryRollupRepository, eventPublisher, transactionManager, meterRegistry, 3);
+	}
+
+	@Test
+	void addDeliveries_ShouldSumItemsPerDaySupplierProductInKeyOrder() {
+		Delivery late = delivery(2L, DAY.plusDays(1).atTime(9, 0),
+				item(20L, "1.000", "50.00"));
+		Delivery early = delivery(2L, DAY.atTime(18, 0),
+				item(20L, "2.500", "125.00"),
+				item(10L, "1.000", "80.00"),
+				item(20L, "0.500", "25.00"));
+		Delivery otherSupplier = delivery(1L, DAY.atTime(8, 0),
+				item(20L, "3.000", "90.00"));
+
+		rollupService.addDeliveries(List.of(late, early, otherSupplier));
+
+		verify(dailyDeliveryRollupRepository).add(List.of(
+				new DailyDeliveryRollupDto(DAY, 1L, 20L, new BigDecimal("3.000"), new BigDecimal("90.00"), 1),
+				new DailyDeliveryRollupDto(DAY, 2L, 10L, new BigDecimal("1.000"), new BigDecimal("80.00"), 1),
+				new DailyDeliveryRollupDto(DAY, 2L, 20L, new BigDecimal("3.000"), new BigDecimal("150.00"), 2),
+				new DailyDeliveryRollupDto(DAY.plusDays(1), 2L, 20L, new BigDecimal("1.000"), new BigDecimal("50.00"), 1)));
+	}
+
+	@Test
+	void reconcile_ShouldLeaveDayChangedConcurrentlyForNextRun() {
+		when(dailyDeliveryRollupRepository.tryLockReconciliation()).thenReturn(true);
+		when(dailyDeliveryRollupRepository.reconcileDay(any()))
+				.thenReturn(2)
+				.thenThrow(new PessimisticLockingFailureException("could not serialize access"))
+				.thenReturn(1);
+
+		rollupService.reconcile();
+
+		LocalDate today = LocalDate.now();
+		verify(dailyDeliveryRollupRepository).reconcileDay(today.minusDays(2));
+		verify(dailyDeliveryRollupRepository).reconcileDay(today.minusDays(1));
+		verify(dailyDeliveryRollupRepository).reconcileDay(today);
+		verify(transactionManager).rollback(any());
+		verify(eventPublisher).publishEvent(new DeliveryDayReconciledEvent(today.minusDays(2), 2));
+		verify(eventPublisher).publishEvent(new DeliveryDayReconciledEvent(today, 1));
+		assertThat(meterRegistry.counter("delivery.rollup.reconciled.rows").count()).isEqualTo(3);
+	}
+
+	@Test
+	void reconcile_ShouldStopWhenAnotherInstanceHoldsLock() {
+		when(dailyDeliveryRollupRepository.tryLockReconciliation()).thenReturn(false);
+
+		rollupService.reconcile();
+
+		verify(dailyDeliveryRollupRepository, never()).reconcileDay(any());
+	}
+
+	private static Delivery delivery(Long supplierId, LocalDateTime deliveryDate, DeliveryItem... items) {
+		Supplier supplier = new Supplier();
+		supplier.setId(supplierId);
+
+		Delivery delivery = new Delivery();
+		delivery.setSupplier(supplier);
+		delivery.setDeliveryDate(deliveryDate);
+		delivery.setItems(List.of(items));
+		return delivery;
+	}
+
+	private static DeliveryItem item(Long productId, String weight, String totalPrice) {
+		Product product = new Product();
+		product.setId(productId);
+
+		DeliveryItem item = new DeliveryItem();
+		item.setProduct(product);
+		item.setWeight(new BigDecimal(weight));
+		item.setTotalPrice(new BigDecimal(totalPrice));
+		return item;
+	}
+}
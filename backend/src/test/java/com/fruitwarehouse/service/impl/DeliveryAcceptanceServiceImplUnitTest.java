@@ -0,0 +1,209 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.common.cache.ReferenceDataCache;
+import com.fruitwarehouse.common.cache.dto.ProductSnapshot;
+import com.fruitwarehouse.common.cache.dto.SupplierSnapshot;
+import com.fruitwarehouse.common.exception.DeliveryQueueFullException;
+import com.fruitwarehouse.common.exception.SupplierNotFoundException;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryBatchRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.DeliveryItemRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryBatchResultResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryRequestStatusResponse;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.service.DeliveryIdempotencyService;
+import com.fruitwarehouse.delivery.service.DeliveryNumberGenerator;
+import com.fruitwarehouse.delivery.service.DeliveryService;
+import com.fruitwarehouse.delivery.service.impl.DeliveryAcceptanceServiceImpl;
+import com.fruitwarehouse.delivery.service.impl.DeliveryReplayCacheImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliveryAcceptanceServiceImplUnitTest {
+
+	@Mock
+	private DeliveryService deliveryService;
+
+	@Mock
+	private DeliveryIdempotencyService deliveryIdempotencyService;
+
+	@Mock
+	private DeliveryNumberGenerator deliveryNumberGenerator;
+
+	@Mock
+	private ReferenceDataCache referenceDataCache;
+
+	private DeliveryAcceptanceServiceImpl acceptanceService;
+
+	private final CreateDeliveryRequest request = new CreateDeliveryRequest(1L, null,
+			List.of(new DeliveryItemRequest(10L, new BigDecimal("5.0"))));
+
+	@AfterEach
+	void tearDown() {
+		if (acceptanceService != null) {
+			acceptanceService.stop();
+		}
+	}
+
+	@Test
+	void accept_ShouldQueueDeliveryAndReportCreatedAfterCommit() throws InterruptedException {
+		UUID number = UUID.randomUUID();
+		givenKnownReferences();
+		when(deliveryNumberGenerator.next()).thenReturn(number);
+		DeliveryResponse created = DeliveryResponse.builder().id(1L).supplierId(1L).deliveryNumber(number).build();
+		when(deliveryService.createDeliveries(any(CreateDeliveryBatchRequest.class))).thenReturn(
+				DeliveryBatchResponse.builder()
+						.total(1)
+						.created(1)
+						.results(List.of(DeliveryBatchResultResponse.builder()
+								.index(0).created(true).delivery(created).build()))
+						.build());
+		acceptanceService = newService(10);
+		acceptanceService.start();
+
+		DeliveryRequestStatusResponse accepted = acceptanceService.accept(request, null);
+
+		assertThat(accepted.deliveryNumber()).isEqualTo(number);
+		assertThat(accepted.status()).isEqualTo(DeliveryRequestStatusResponse.Status.PENDING);
+		DeliveryRequestStatusResponse status = awaitStatus(number, DeliveryRequestStatusResponse.Status.CREATED);
+		assertThat(status.delivery()).isEqualTo(created);
+		verify(deliveryService).createDeliveries(argThat(batch ->
+				batch.deliveries().size() == 1
+						&& number.equals(batch.deliveries().get(0).deliveryNumber())
+						&& batch.deliveries().get(0).deliveryDate() != null));
+	}
+
+	@Test
+	void accept_ShouldRejectWhenQueueIsFull() throws InterruptedException {
+		givenKnownReferences();
+		when(deliveryNumberGenerator.next()).thenAnswer(invocation -> UUID.randomUUID());
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(deliveryService.createDeliveries(any(CreateDeliveryBatchRequest.class))).thenAnswer(invocation -> {
+			writing.countDown();
+			release.await();
+			return DeliveryBatchResponse.builder().results(List.of()).build();
+		});
+		acceptanceService = newService(1);
+		acceptanceService.start();
+
+		acceptanceService.accept(request, null);
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+		acceptanceService.accept(request, null);
+
+		try {
+			assertThatThrownBy(() -> acceptanceService.accept(request, null))
+					.isInstanceOf(DeliveryQueueFullException.class);
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void accept_ShouldWriteRepeatedNumberOnceWithinBatch() throws InterruptedException {
+		UUID blocking = UUID.randomUUID();
+		UUID repeated = UUID.randomUUID();
+		givenKnownReferences();
+		when(deliveryIdempotencyService.resolveDeliveryNumber(any(), any())).thenAnswer(invocation ->
+				"key".equals(invocation.getArgument(1)) ? repeated : blocking);
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(deliveryService.createDeliveries(any(CreateDeliveryBatchRequest.class))).thenAnswer(invocation -> {
+			CreateDeliveryBatchRequest batch = invocation.getArgument(0);
+			if (batch.deliveries().get(0).deliveryNumber().equals(blocking)) {
+				writing.countDown();
+				release.await();
+			}
+			// Повтор номера в пачке упал бы на уникальности после первой записи
+			List<DeliveryBatchResultResponse> results = new ArrayList<>();
+			Set<UUID> written = new HashSet<>();
+			for (int i = 0; i < batch.deliveries().size(); i++) {
+				UUID number = batch.deliveries().get(i).deliveryNumber();
+				results.add(written.add(number)
+						? DeliveryBatchResultResponse.builder().index(i).created(true)
+								.delivery(DeliveryResponse.builder().id((long) i).deliveryNumber(number).build()).build()
+						: DeliveryBatchResultResponse.builder().index(i).error("Duplicate delivery number").build());
+			}
+			return DeliveryBatchResponse.builder().results(results).build();
+		});
+		acceptanceService = newService(10);
+		acceptanceService.start();
+		acceptanceService.accept(request, "blocking");
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// Параллельный повтор: второй запрос проходит проверку статуса, пока первый её ещё не записал
+		AtomicBoolean nested = new AtomicBoolean();
+		when(referenceDataCache.findSupplier(1L)).thenAnswer(invocation -> {
+			if (nested.compareAndSet(false, true)) {
+				acceptanceService.accept(request, "key");
+			}
+			return Optional.of(new SupplierSnapshot(1L, "Supplier"));
+		});
+		acceptanceService.accept(request, "key");
+		release.countDown();
+
+		awaitStatus(repeated, DeliveryRequestStatusResponse.Status.CREATED);
+		verify(deliveryService).createDeliveries(argThat(batch ->
+				batch.deliveries().size() == 1 && repeated.equals(batch.deliveries().get(0).deliveryNumber())));
+	}
+
+	@Test
+	void accept_ShouldRejectUnknownSupplierBeforeQueueing() {
+		when(referenceDataCache.findSupplier(1L)).thenReturn(Optional.empty());
+		acceptanceService = newService(10);
+		acceptanceService.start();
+
+		assertThatThrownBy(() -> acceptanceService.accept(request, null))
+				.isInstanceOf(SupplierNotFoundException.class);
+		verifyNoInteractions(deliveryService);
+	}
+
+	private DeliveryAcceptanceServiceImpl newService(int queueCapacity) {
+		return new DeliveryAcceptanceServiceImpl(deliveryService, deliveryIdempotencyService,
+				deliveryNumberGenerator, referenceDataCache, new DeliveryReplayCacheImpl(1000, 0.01, 100),
+				new SimpleMeterRegistry(), queueCapacity, 100, Duration.ZERO, Duration.ofSeconds(1), 1000);
+	}
+
+	private void givenKnownReferences() {
+		when(referenceDataCache.findSupplier(1L)).thenReturn(Optional.of(new SupplierSnapshot(1L, "Supplier")));
+		when(referenceDataCache.findProducts(anyCollection())).thenReturn(
+				Map.of(10L, new ProductSnapshot(10L, "Apple", 1L, "Apple", "Golden")));
+	}
+
+	private DeliveryRequestStatusResponse awaitStatus(UUID number, DeliveryRequestStatusResponse.Status expected)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		DeliveryRequestStatusResponse status = acceptanceService.getStatus(number);
+		while (status.status() != expected && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+			status = acceptanceService.getStatus(number);
+		}
+		assertThat(status.status()).isEqualTo(expected);
+		return status;
+	}
+}
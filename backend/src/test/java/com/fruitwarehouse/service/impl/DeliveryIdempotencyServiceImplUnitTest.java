@@ -0,0 +1,74 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.delivery.controller.dto.request.CreateDeliveryRequest;
+import com.fruitwarehouse.delivery.controller.dto.request.DeliveryItemRequest;
+import com.fruitwarehouse.delivery.controller.dto.response.DeliveryResponse;
+import com.fruitwarehouse.delivery.service.DeliveryService;
+import com.fruitwarehouse.delivery.service.dto.DeliveryCreationResult;
+import com.fruitwarehouse.delivery.service.impl.DeliveryIdempotencyServiceImpl;
+import com.fruitwarehouse.delivery.service.impl.DeliveryReplayCacheImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliveryIdempotencyServiceImplUnitTest {
+
+	private static final String KEY = "scanner-7:42";
+	private static final UUID KEY_NUMBER = UUID.nameUUIDFromBytes(KEY.getBytes(StandardCharsets.UTF_8));
+
+	@Mock
+	private DeliveryService deliveryService;
+
+	private DeliveryIdempotencyServiceImpl idempotencyService;
+
+	private final CreateDeliveryRequest request = new CreateDeliveryRequest(1L, null,
+			List.of(new DeliveryItemRequest(10L, new BigDecimal("5.0"))));
+
+	@BeforeEach
+	void setUp() {
+		idempotencyService = new DeliveryIdempotencyServiceImpl(deliveryService,
+				new DeliveryReplayCacheImpl(1000, 0.01, 100), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void createDelivery_ShouldReplayFromCacheWithoutCreatingAgain() {
+		DeliveryResponse created = DeliveryResponse.builder().id(1L).supplierId(1L).deliveryNumber(KEY_NUMBER).build();
+		when(deliveryService.createDelivery(request.withDeliveryNumber(KEY_NUMBER))).thenReturn(created);
+
+		DeliveryCreationResult first = idempotencyService.createDelivery(request, KEY);
+		DeliveryCreationResult retry = idempotencyService.createDelivery(request, KEY);
+
+		assertThat(first.replayed()).isFalse();
+		assertThat(retry.replayed()).isTrue();
+		assertThat(retry.delivery()).isEqualTo(created);
+		verify(deliveryService, times(1)).createDelivery(any());
+		verify(deliveryService, never()).findDeliveryByNumber(any());
+	}
+
+	@Test
+	void createDelivery_ShouldReplayStoredDeliveryOnUniqueViolation() {
+		DeliveryResponse stored = DeliveryResponse.builder().id(7L).supplierId(1L).deliveryNumber(KEY_NUMBER).build();
+		when(deliveryService.createDelivery(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+		when(deliveryService.findDeliveryByNumber(KEY_NUMBER)).thenReturn(Optional.of(stored));
+
+		DeliveryCreationResult result = idempotencyService.createDelivery(request, KEY);
+
+		assertThat(result.replayed()).isTrue();
+		assertThat(result.delivery().id()).isEqualTo(7L);
+	}
+}
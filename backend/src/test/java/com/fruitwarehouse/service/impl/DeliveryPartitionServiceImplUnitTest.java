@@ -0,0 +1,73 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.delivery.repository.DeliveryPartitionRepository;
+import com.fruitwarehouse.delivery.service.impl.DeliveryPartitionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliveryPartitionServiceImplUnitTest {
+
+	private final LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+
+	@Mock
+	private DeliveryPartitionRepository deliveryPartitionRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Test
+	void maintainPartitions_ShouldCreateAheadAndDetachOutsideRetention() {
+		when(deliveryPartitionRepository.createPartitions(any(), any())).thenReturn(List.of());
+		when(deliveryPartitionRepository.detachPartitions(any())).thenReturn(List.of());
+
+		service(3, 12).maintainPartitions();
+
+		InOrder inOrder = inOrder(deliveryPartitionRepository);
+		inOrder.verify(deliveryPartitionRepository).lockMaintenance();
+		inOrder.verify(deliveryPartitionRepository).createPartitions(currentMonth, currentMonth.plusMonths(3));
+		// Хранятся 12 месяцев, включая текущий
+		inOrder.verify(deliveryPartitionRepository).detachPartitions(currentMonth.minusMonths(11));
+		inOrder.verify(deliveryPartitionRepository).analyze();
+	}
+
+	@Test
+	void maintainPartitions_ShouldNotDetachWithoutRetention() {
+		when(deliveryPartitionRepository.createPartitions(any(), any())).thenReturn(List.of("deliveries_2030_01"));
+
+		service(3, 0).maintainPartitions();
+
+		verify(deliveryPartitionRepository, never()).detachPartitions(any());
+	}
+
+	@Test
+	void maintainPartitions_ShouldSwallowFailureUntilNextRun() {
+		when(deliveryPartitionRepository.createPartitions(any(), any())).thenThrow(new QueryTimeoutException("lock timeout"));
+
+		service(3, 12).maintainPartitions();
+
+		verify(deliveryPartitionRepository, never()).detachPartitions(any());
+		verify(deliveryPartitionRepository, never()).analyze();
+	}
+
+	private DeliveryPartitionServiceImpl service(int monthsAhead, int retentionMonths) {
+		return new DeliveryPartitionServiceImpl(deliveryPartitionRepository,
+				new TransactionTemplate(transactionManager), eventPublisher, monthsAhead, retentionMonths);
+	}
+}
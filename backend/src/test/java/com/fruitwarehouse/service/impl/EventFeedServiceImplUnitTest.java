@@ -0,0 +1,150 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.feed.service.impl.EventFeedServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventFeedServiceImplUnitTest {
+
+	private static final int HISTORY_SIZE = 3;
+	private static final int BUFFER_SIZE = 2;
+
+	private EventFeedServiceImpl eventFeedService;
+
+	@BeforeEach
+	void setUp() {
+		eventFeedService = new EventFeedServiceImpl(new SimpleMeterRegistry(), HISTORY_SIZE, BUFFER_SIZE, 2);
+		eventFeedService.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		eventFeedService.stop();
+	}
+
+	@Test
+	void publish_ShouldDeliverEventsInOrder() throws InterruptedException {
+		RecordingEmitter emitter = new RecordingEmitter();
+		eventFeedService.subscribe(emitter, null);
+
+		eventFeedService.publish("delivery-created", 1);
+		eventFeedService.publish("price-changed", 2);
+
+		assertThat(emitter.next()).startsWith("id:").contains("event:delivery-created").endsWith("[1]");
+		assertThat(emitter.next()).contains("event:price-changed").endsWith("[2]");
+	}
+
+	@Test
+	void subscribe_ShouldReplayEventsMissedSinceLastEventId() throws InterruptedException {
+		RecordingEmitter first = new RecordingEmitter();
+		eventFeedService.subscribe(first, null);
+		eventFeedService.publish("delivery-created", 1);
+		eventFeedService.publish("delivery-created", 2);
+		String firstId = idOf(first.next());
+		first.next();
+
+		RecordingEmitter reconnected = new RecordingEmitter();
+		eventFeedService.subscribe(reconnected, firstId);
+		eventFeedService.publish("delivery-created", 3);
+
+		assertThat(reconnected.next()).endsWith("[2]");
+		assertThat(reconnected.next()).endsWith("[3]");
+	}
+
+	@Test
+	void subscribe_ShouldAskToReloadWhenMissedEventsAreEvicted() throws InterruptedException {
+		RecordingEmitter first = new RecordingEmitter();
+		eventFeedService.subscribe(first, null);
+		eventFeedService.publish("delivery-created", 1);
+		String firstId = idOf(first.next());
+		for (int i = 0; i < HISTORY_SIZE + 1; i++) {
+			eventFeedService.publish("delivery-created", i);
+		}
+
+		RecordingEmitter evicted = new RecordingEmitter();
+		eventFeedService.subscribe(evicted, firstId);
+		RecordingEmitter previousRun = new RecordingEmitter();
+		eventFeedService.subscribe(previousRun, "0-1");
+
+		assertThat(evicted.next()).contains("event:reset").contains("[{}]");
+		assertThat(previousRun.next()).contains("event:reset").contains("[{}]");
+	}
+
+	@Test
+	void publish_ShouldDisconnectSubscriberThatFallsBehind() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter(release);
+		RecordingEmitter fast = new RecordingEmitter();
+		eventFeedService.subscribe(slow, null);
+		eventFeedService.subscribe(fast, null);
+
+		// Первое событие застревает в отправке, следующие заполняют очередь и переполняют её.
+		// Быстрый подписчик успевает получить каждое событие до следующего
+		for (int i = 0; i < BUFFER_SIZE + 2; i++) {
+			eventFeedService.publish("delivery-created", i);
+			assertThat(fast.next()).endsWith("[" + i + "]");
+		}
+		release.countDown();
+
+		assertThat(slow.completed.await(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(fast.completed.getCount()).isEqualTo(1);
+	}
+
+	private static String idOf(String event) {
+		return event.substring("id:".length(), event.indexOf('\n'));
+	}
+
+	private static class RecordingEmitter extends SseEmitter {
+
+		private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+		private final CountDownLatch completed = new CountDownLatch(1);
+		private final CountDownLatch release;
+
+		RecordingEmitter() {
+			this(new CountDownLatch(0));
+		}
+
+		RecordingEmitter(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			List<String> parts = new ArrayList<>();
+			builder.build().forEach(part -> parts.add(part.getData() instanceof String text
+					? text
+					: "[" + part.getData() + "]"));
+			sent.add(parts.stream().collect(Collectors.joining()).strip());
+		}
+
+		@Override
+		public void complete() {
+			completed.countDown();
+		}
+
+		String next() throws InterruptedException {
+			String event = sent.poll(1, TimeUnit.SECONDS);
+			assertThat(event).as("event sent within a second").isNotNull();
+			return event;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.supplier.event.PriceChangedEvent;
+import com.fruitwarehouse.supplier.repository.SupplierProductPriceRepository;
+import com.fruitwarehouse.supplier.repository.dto.PricePeriodDto;
+import com.fruitwarehouse.supplier.service.impl.PriceIndexImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PriceIndexImplUnitTest {
+
+	private static final LocalDate JAN_1 = LocalDate.of(2025, 1, 1);
+
+	@Mock
+	private SupplierProductPriceRepository supplierProductPriceRepository;
+
+	private SimpleMeterRegistry meterRegistry;
+	private PriceIndexImpl priceIndex;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		priceIndex = new PriceIndexImpl(supplierProductPriceRepository, meterRegistry);
+	}
+
+	@Test
+	void findPrice_ShouldPickPeriodCoveringDate() {
+		when(supplierProductPriceRepository.findAllPricePeriods()).thenReturn(List.of(
+				new PricePeriodDto(1L, 1L, 10L, new BigDecimal("70.00"), JAN_1, JAN_1.plusDays(30)),
+				new PricePeriodDto(2L, 1L, 10L, new BigDecimal("75.00"), JAN_1.plusDays(31), null)
+		));
+		priceIndex.rebuild();
+
+		assertThat(priceIndex.findPrice(1L, 10L, JAN_1.plusDays(5))).contains(new BigDecimal("70.00"));
+		assertThat(priceIndex.findPrice(1L, 10L, JAN_1.plusDays(365))).contains(new BigDecimal("75.00"));
+		assertThat(priceIndex.findPrice(1L, 10L, JAN_1.minusDays(1))).isEmpty();
+		assertThat(priceIndex.findPrice(2L, 10L, JAN_1)).isEmpty();
+
+		assertThat(meterRegistry.get("price.index.lookups").tag("result", "hit").counter().count()).isEqualTo(2);
+		assertThat(meterRegistry.get("price.index.lookups").tag("result", "miss").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void apply_ShouldAddAndRemovePeriods() {
+		when(supplierProductPriceRepository.findAllPricePeriods()).thenReturn(List.of());
+		priceIndex.rebuild();
+
+		PriceChangedEvent created = new PriceChangedEvent(PriceChangedEvent.Type.CREATED,
+				5L, 1L, 10L, new BigDecimal("80.00"), JAN_1, null);
+		priceIndex.apply(created);
+		assertThat(priceIndex.findPrice(1L, 10L, JAN_1)).contains(new BigDecimal("80.00"));
+
+		priceIndex.apply(new PriceChangedEvent(PriceChangedEvent.Type.DELETED,
+				5L, 1L, 10L, new BigDecimal("80.00"), JAN_1, null));
+		assertThat(priceIndex.findPrice(1L, 10L, JAN_1)).isEmpty();
+	}
+}
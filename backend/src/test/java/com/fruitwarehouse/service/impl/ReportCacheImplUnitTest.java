@@ -0,0 +1,83 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.delivery.event.DeliveriesImportedEvent;
+import com.fruitwarehouse.delivery.event.DeliveryCreatedEvent;
+import com.fruitwarehouse.report.controller.dto.request.ReportFormat;
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+import com.fruitwarehouse.report.service.ReportCache;
+import com.fruitwarehouse.report.service.impl.ReportCacheImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReportCacheImplUnitTest {
+
+	private static final ReportRequest JANUARY = new ReportRequest(
+			LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), false, ReportFormat.JSON);
+	private static final ReportRequest FEBRUARY = new ReportRequest(
+			LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28), false, ReportFormat.JSON);
+
+	private final ReportCacheImpl reportCache = new ReportCacheImpl(DataSize.ofBytes(100), DataSize.ofBytes(60));
+
+	@Test
+	void invalidate_ShouldDropOnlyReportsWhosePeriodCoversDeliveryDate() throws IOException {
+		render(JANUARY, 10);
+		render(FEBRUARY, 10);
+
+		reportCache.onDeliveryCreated(new DeliveryCreatedEvent(1L, UUID.randomUUID(), 1L,
+				LocalDate.of(2025, 2, 1).atTime(0, 5), BigDecimal.ONE, BigDecimal.TEN));
+
+		assertThat(reportCache.find(JANUARY)).isPresent();
+		assertThat(reportCache.find(FEBRUARY)).isEmpty();
+
+		reportCache.onDeliveriesImported(new DeliveriesImportedEvent(2,
+				LocalDate.of(2024, 12, 30).atTime(8, 0), LocalDate.of(2025, 1, 1).atTime(9, 0)));
+
+		assertThat(reportCache.find(JANUARY)).isEmpty();
+	}
+
+	@Test
+	void complete_ShouldNotStoreReportInvalidatedWhileRendering() throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (ReportCache.Rendering rendering = reportCache.startRendering(JANUARY, output)) {
+			rendering.output().write(new byte[10]);
+			reportCache.invalidate(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 15));
+			rendering.complete();
+		}
+
+		assertThat(output.size()).isEqualTo(10);
+		assertThat(reportCache.find(JANUARY)).isEmpty();
+	}
+
+	@Test
+	void complete_ShouldSkipOversizedReportAndEvictLeastRecentlyUsed() throws IOException {
+		ReportRequest march = new ReportRequest(
+				LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), false, ReportFormat.JSON);
+
+		render(JANUARY, 61);
+		assertThat(reportCache.find(JANUARY)).isEmpty();
+
+		render(JANUARY, 40);
+		render(FEBRUARY, 40);
+		reportCache.find(JANUARY);
+		render(march, 40);
+
+		assertThat(reportCache.find(JANUARY)).isPresent();
+		assertThat(reportCache.find(FEBRUARY)).isEmpty();
+		assertThat(reportCache.find(march)).isPresent();
+	}
+
+	private void render(ReportRequest request, int size) throws IOException {
+		try (ReportCache.Rendering rendering = reportCache.startRendering(request, new ByteArrayOutputStream())) {
+			rendering.output().write(new byte[size]);
+			rendering.complete();
+		}
+	}
+}
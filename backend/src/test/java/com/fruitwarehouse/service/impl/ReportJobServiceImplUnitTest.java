@@ -0,0 +1,173 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fruitwarehouse.common.exception.ReportJobNotFoundException;
+import com.fruitwarehouse.common.exception.ReportJobNotReadyException;
+import com.fruitwarehouse.report.controller.dto.request.ReportFormat;
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+import com.fruitwarehouse.report.controller.dto.response.ReportJobResponse;
+import com.fruitwarehouse.report.controller.dto.response.ReportJobResponse.Status;
+import com.fruitwarehouse.report.service.ReportService;
+import com.fruitwarehouse.report.service.impl.ReportJobServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportJobServiceImplUnitTest {
+
+	private static final ReportRequest REQUEST = new ReportRequest(
+			LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31), true, ReportFormat.CSV);
+
+	@Mock
+	private ReportService reportService;
+
+	@TempDir
+	private Path spoolDirectory;
+
+	private ReportJobServiceImpl reportJobService;
+
+	@AfterEach
+	void tearDown() {
+		reportJobService.stop();
+	}
+
+	@Test
+	void submit_ShouldWriteReportIntoSpoolFileAndCountRows() throws Exception {
+		when(reportService.prepareReport(REQUEST)).thenReturn(new HttpHeaders());
+		when(reportService.estimateRows(REQUEST)).thenReturn(3L);
+		doAnswer(invocation -> {
+			OutputStream output = invocation.getArgument(1);
+			Runnable onRowWritten = invocation.getArgument(2);
+			output.write("a\nb\n".getBytes(StandardCharsets.UTF_8));
+			onRowWritten.run();
+			onRowWritten.run();
+			return false;
+		}).when(reportService).writeReport(any(), any(), any());
+
+		ReportJobResponse job = service(Duration.ofHours(1)).submit(REQUEST);
+		ReportJobResponse completed = awaitCompletion(job.id());
+
+		assertThat(job.estimatedRows()).isEqualTo(3);
+		assertThat(completed.status()).isEqualTo(Status.COMPLETED);
+		assertThat(completed.rowsProcessed()).isEqualTo(2);
+		assertThat(completed.fileSize()).isEqualTo(4);
+		assertThat(Files.readString(reportJobService.getFile(job.id()).path())).isEqualTo("a\nb\n");
+		try (var files = Files.list(spoolDirectory)) {
+			assertThat(files).hasSize(1);
+		}
+	}
+
+	@Test
+	void submit_ShouldReportEstimatedRowsForCachedReport() throws Exception {
+		when(reportService.prepareReport(REQUEST)).thenReturn(new HttpHeaders());
+		when(reportService.estimateRows(REQUEST)).thenReturn(3L);
+		doAnswer(invocation -> {
+			OutputStream output = invocation.getArgument(1);
+			output.write("a\nb\nc\n".getBytes(StandardCharsets.UTF_8));
+			return true;
+		}).when(reportService).writeReport(any(), any(), any());
+
+		ReportJobResponse job = service(Duration.ofHours(1)).submit(REQUEST);
+		ReportJobResponse completed = awaitCompletion(job.id());
+
+		assertThat(completed.status()).isEqualTo(Status.COMPLETED);
+		assertThat(completed.rowsProcessed()).isEqualTo(completed.estimatedRows());
+	}
+
+	@Test
+	void submit_ShouldRemovePartialFileOfFailedJob() throws Exception {
+		when(reportService.prepareReport(REQUEST)).thenReturn(new HttpHeaders());
+		doAnswer(invocation -> {
+			OutputStream output = invocation.getArgument(1);
+			output.write(new byte[100_000]);
+			throw new IOException("disk full");
+		}).when(reportService).writeReport(any(), any(), any());
+
+		ReportJobResponse job = service(Duration.ofHours(1)).submit(REQUEST);
+
+		assertThat(awaitCompletion(job.id()).status()).isEqualTo(Status.FAILED);
+		assertThatThrownBy(() -> reportJobService.getFile(job.id()))
+				.isInstanceOf(ReportJobNotReadyException.class);
+		try (var files = Files.list(spoolDirectory)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void removeExpired_ShouldDeleteExpiredJobsAndOrphanedFiles() throws Exception {
+		when(reportService.prepareReport(REQUEST)).thenReturn(new HttpHeaders());
+		Path orphan = Files.writeString(spoolDirectory.resolve(UUID.randomUUID() + ".part"), "lost on restart");
+		Files.setLastModifiedTime(orphan, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+
+		ReportJobResponse job = service(Duration.ofSeconds(1)).submit(REQUEST);
+		awaitCompletion(job.id());
+		reportJobService.removeExpired();
+
+		assertThat(reportJobService.getJob(job.id()).status()).isEqualTo(Status.COMPLETED);
+		try (var files = Files.list(spoolDirectory)) {
+			assertThat(files).containsExactly(reportJobService.getFile(job.id()).path());
+		}
+
+		Thread.sleep(1100);
+		reportJobService.removeExpired();
+
+		assertThatThrownBy(() -> reportJobService.getJob(job.id()))
+				.isInstanceOf(ReportJobNotFoundException.class);
+		try (var files = Files.list(spoolDirectory)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void removeExpired_ShouldKeepFilesNotCreatedByJobs() throws Exception {
+		Path notes = Files.writeString(spoolDirectory.resolve("notes.txt"), "left by an operator");
+		Path foreign = Files.writeString(spoolDirectory.resolve("not-a-job.report"), "copied by hand");
+		Path orphan = Files.writeString(spoolDirectory.resolve(UUID.randomUUID() + ".report"), "lost on restart");
+		for (Path file : List.of(notes, foreign, orphan)) {
+			Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+		}
+
+		service(Duration.ofSeconds(1)).removeExpired();
+
+		try (var files = Files.list(spoolDirectory)) {
+			assertThat(files).containsExactlyInAnyOrder(notes, foreign);
+		}
+	}
+
+	private ReportJobServiceImpl service(Duration ttl) {
+		reportJobService = new ReportJobServiceImpl(reportService, spoolDirectory, 1, 1, ttl, Duration.ofSeconds(30));
+		reportJobService.start();
+		return reportJobService;
+	}
+
+	private ReportJobResponse awaitCompletion(UUID id) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		ReportJobResponse job = reportJobService.getJob(id);
+		while (job.completedAt() == null && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+			job = reportJobService.getJob(id);
+		}
+		return job;
+	}
+}
@@ -0,0 +1,181 @@
+package com.fruitwarehouse.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fruitwarehouse.common.exception.ValidationException;
+import com.fruitwarehouse.report.controller.dto.request.ReportFormat;
+import com.fruitwarehouse.report.controller.dto.request.ReportRequest;
+import com.fruitwarehouse.report.controller.dto.response.DetailedReportItemResponse;
+import com.fruitwarehouse.report.controller.dto.response.ReportItemResponse;
+import com.fruitwarehouse.report.repository.ReportRepository;
+import com.fruitwarehouse.report.service.ReportGeneratorFactory;
+import com.fruitwarehouse.report.service.generator.CsvReportGenerator;
+import com.fruitwarehouse.report.service.generator.JsonReportGenerator;
+import com.fruitwarehouse.report.service.generator.PdfReportGenerator;
+import com.fruitwarehouse.report.service.impl.ReportCacheImpl;
+import com.fruitwarehouse.report.service.impl.ReportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReportServiceImplUnitTest {
+
+	private static final LocalDate START = LocalDate.of(2025, 1, 1);
+	private static final LocalDate END = LocalDate.of(2025, 1, 31);
+
+	@Mock
+	private ReportRepository reportRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final ObjectMapper objectMapper = JsonMapper.builder()
+			.findAndAddModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.build();
+
+	private ReportCacheImpl reportCache;
+	private ReportServiceImpl reportService;
+
+	@BeforeEach
+	void setUp() {
+		ReportGeneratorFactory factory = new ReportGeneratorFactory(
+				new JsonReportGenerator(objectMapper), new PdfReportGenerator(), new CsvReportGenerator());
+		factory.init();
+		reportCache = new ReportCacheImpl(DataSize.ofMegabytes(1), DataSize.ofMegabytes(1));
+		reportService = new ReportServiceImpl(reportRepository, factory, reportCache, transactionManager);
+	}
+
+	@Test
+	void writeReport_ShouldWriteCsvRowsAsReadAndTotalsInTrailer() throws IOException {
+		doAnswer(invocation -> {
+			Consumer<DetailedReportItemResponse> action = invocation.getArgument(2);
+			action.accept(detailedItem("Груша", "1.255", "200.00"));
+			action.accept(detailedItem("Яблоко, зимнее", "2.000", "100.50"));
+			return null;
+		}).when(reportRepository).forEachDetailedItem(any(), any(), any());
+
+		String csv = write(new ReportRequest(START, END, true, ReportFormat.CSV));
+
+		assertThat(csv).contains("Груша,").contains("\"Яблоко, зимнее\"").contains(",1.26,");
+		assertThat(csv).endsWith("\nTotal weight,3.26\nTotal cost,300.50\n");
+		assertThat(csv.indexOf("Груша")).isLessThan(csv.indexOf("Яблоко"));
+	}
+
+	@Test
+	void writeReport_ShouldKeepJsonShapeWithTotalsAfterItems() throws IOException {
+		doAnswer(invocation -> {
+			Consumer<ReportItemResponse> action = invocation.getArgument(2);
+			action.accept(ReportItemResponse.builder()
+					.supplierName("Сады России")
+					.totalWeight(new BigDecimal("10.500"))
+					.totalCost(new BigDecimal("735.00"))
+					.build());
+			return null;
+		}).when(reportRepository).forEachSummaryItem(any(), any(), any());
+
+		JsonNode report = objectMapper.readTree(write(new ReportRequest(START, END, false, ReportFormat.JSON)));
+
+		assertThat(report.get("startDate").asText()).isEqualTo("2025-01-01");
+		assertThat(report.get("detailed").asBoolean()).isFalse();
+		assertThat(report.get("detailedItems").isNull()).isTrue();
+		assertThat(report.get("summaryItems")).hasSize(1);
+		assertThat(report.get("summaryItems").get(0).get("supplierName").asText()).isEqualTo("Сады России");
+		assertThat(report.get("totalWeight").decimalValue()).isEqualByComparingTo("10.5");
+		assertThat(report.get("totalCost").decimalValue()).isEqualByComparingTo("735");
+	}
+
+	@Test
+	void writeReport_ShouldWritePdfPagesBeforeLastRow() throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		int[] writtenBeforeLastRow = new int[1];
+		doAnswer(invocation -> {
+			Consumer<DetailedReportItemResponse> action = invocation.getArgument(2);
+			for (int i = 0; i < 1000; i++) {
+				action.accept(detailedItem("Яблоко " + i, "1.000", "100.00"));
+			}
+			writtenBeforeLastRow[0] = output.size();
+			action.accept(detailedItem("Груша", "1.000", "100.00"));
+			return null;
+		}).when(reportRepository).forEachDetailedItem(any(), any(), any());
+
+		reportService.writeReport(new ReportRequest(START, END, true, ReportFormat.PDF), output);
+
+		assertThat(writtenBeforeLastRow[0]).isGreaterThan(0);
+		assertThat(output.toString(StandardCharsets.ISO_8859_1)).startsWith("%PDF-").contains("%%EOF");
+	}
+
+	@Test
+	void writeReport_ShouldServeRepeatedRequestFromCacheUntilDeliveryInPeriod() throws IOException {
+		doAnswer(invocation -> {
+			Consumer<DetailedReportItemResponse> action = invocation.getArgument(2);
+			action.accept(detailedItem("Груша", "1.000", "100.00"));
+			return null;
+		}).when(reportRepository).forEachDetailedItem(any(), any(), any());
+		ReportRequest request = new ReportRequest(START, END, true, ReportFormat.CSV);
+
+		String first = write(request);
+		String repeated = write(request);
+		reportCache.invalidate(END.plusDays(1), END.plusDays(1));
+		boolean fromCache = reportService.writeReport(request, new ByteArrayOutputStream(), () -> {});
+
+		assertThat(repeated).isEqualTo(first);
+		assertThat(fromCache).isTrue();
+		verify(reportRepository, times(1)).forEachDetailedItem(any(), any(), any());
+		verify(transactionManager, times(1)).getTransaction(any());
+
+		reportCache.invalidate(END, END);
+		write(request);
+
+		verify(reportRepository, times(2)).forEachDetailedItem(any(), any(), any());
+	}
+
+	@Test
+	void prepareReport_ShouldRejectPeriodLongerThanYearBeforeReadingRows() {
+		ReportRequest request = new ReportRequest(START, START.plusYears(1).plusDays(1), true, ReportFormat.CSV);
+
+		assertThatThrownBy(() -> reportService.prepareReport(request))
+				.isInstanceOf(ValidationException.class);
+		verifyNoInteractions(reportRepository);
+	}
+
+	private String write(ReportRequest request) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		reportService.prepareReport(request);
+		reportService.writeReport(request, output);
+		return output.toString(StandardCharsets.UTF_8);
+	}
+
+	private static DetailedReportItemResponse detailedItem(String productName, String weight, String totalPrice) {
+		return DetailedReportItemResponse.builder()
+				.supplierName("ЭкоФрукт")
+				.deliveryNumber(UUID.randomUUID())
+				.deliveryDate(LocalDateTime.of(2025, 1, 15, 10, 0))
+				.productName(productName)
+				.weight(new BigDecimal(weight))
+				.unitPrice(new BigDecimal("100.00"))
+				.totalPrice(new BigDecimal(totalPrice))
+				.build();
+	}
+}
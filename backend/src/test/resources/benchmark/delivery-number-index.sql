@@ -0,0 +1,78 @@
+-- Сравнение случайных (v4) и упорядоченных по времени (v7) номеров поставок:
+-- скорость вставки, объём WAL и размер уникального индекса по delivery_number.
+--
+-- Запуск на пустой базе с применёнными миграциями (нужна функция fruitwarehouse.uuid_generate_v7):
+--   psql -d fruitwarehouse -f delivery-number-index.sql
+-- Эффект от v7 проявляется, когда индекс перестаёт помещаться в shared_buffers,
+-- поэтому по умолчанию вставляется 10 млн строк; batch соответствует размеру пачки импорта.
+
+SET bench.rows = '10000000';
+SET bench.batch = '10000';
+
+DROP TABLE IF EXISTS bench_delivery_numbers_v4, bench_delivery_numbers_v7, bench_delivery_number_results;
+
+CREATE TABLE bench_delivery_numbers_v4 (
+    id BIGSERIAL PRIMARY KEY,
+    delivery_number UUID NOT NULL UNIQUE,
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE TABLE bench_delivery_numbers_v7 (LIKE bench_delivery_numbers_v4 INCLUDING ALL);
+
+CREATE TABLE bench_delivery_number_results (
+    generator TEXT NOT NULL,
+    row_count BIGINT NOT NULL,
+    seconds NUMERIC NOT NULL,
+    rows_per_second NUMERIC NOT NULL,
+    wal_bytes NUMERIC NOT NULL,
+    index_bytes BIGINT NOT NULL
+);
+
+CREATE OR REPLACE PROCEDURE bench_fill_delivery_numbers(generator TEXT)
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    total BIGINT := current_setting('bench.rows')::BIGINT;
+    batch INT := current_setting('bench.batch')::INT;
+    table_name TEXT := 'bench_delivery_numbers_' || generator;
+    number_expression TEXT := CASE generator
+        WHEN 'v4' THEN 'gen_random_uuid()'
+        ELSE 'fruitwarehouse.uuid_generate_v7()'
+    END;
+    inserted BIGINT := 0;
+    started TIMESTAMPTZ := clock_timestamp();
+    wal_start pg_lsn := pg_current_wal_lsn();
+    elapsed NUMERIC;
+BEGIN
+    WHILE inserted < total LOOP
+        EXECUTE format('INSERT INTO %I (delivery_number) SELECT %s FROM generate_series(1, $1)',
+                       table_name, number_expression)
+            USING least(batch, total - inserted);
+        inserted := inserted + least(batch, total - inserted);
+        COMMIT;
+    END LOOP;
+
+    elapsed := extract(epoch FROM clock_timestamp() - started);
+    INSERT INTO bench_delivery_number_results
+    VALUES (generator, total, round(elapsed, 1), round(total / elapsed),
+            pg_wal_lsn_diff(pg_current_wal_lsn(), wal_start),
+            pg_relation_size(table_name || '_delivery_number_key'));
+    COMMIT;
+END;
+$$;
+
+CALL bench_fill_delivery_numbers('v4');
+CHECKPOINT;
+CALL bench_fill_delivery_numbers('v7');
+
+SELECT generator,
+       row_count,
+       seconds,
+       rows_per_second,
+       pg_size_pretty(wal_bytes) AS wal,
+       pg_size_pretty(index_bytes) AS delivery_number_index
+FROM bench_delivery_number_results
+ORDER BY generator;
+
+DROP PROCEDURE bench_fill_delivery_numbers(TEXT);
+DROP TABLE bench_delivery_numbers_v4, bench_delivery_numbers_v7;
@@ -155,7 +155,7 @@ export function DeliveryList() {
             {data.map((delivery) => (
               <TableRow key={delivery.id}>
                 <TableCell className="font-mono text-xs">
-                  {delivery.deliveryNumber.slice(0, 8)}...
+                  ...{delivery.deliveryNumber.slice(-8)}
                 </TableCell>
                 <TableCell className="font-medium">
                   {delivery.supplierName}
@@ -179,7 +179,7 @@ export function DeliveryList() {
                 </TableCell>
                 <TableCell>
                   <Button variant="ghost" size="icon" asChild>
-                    <Link href={`/deliveries/${delivery.id}`} aria-label={`Посмотреть поставку ${delivery.deliveryNumber.slice(0, 8)}`}>
+                    <Link href={`/deliveries/${delivery.id}`} aria-label={`Посмотреть поставку ${delivery.deliveryNumber.slice(-8)}`}>
                       <ArrowRight className="h-4 w-4" />
                     </Link>
                   </Button>
@@ -5,6 +5,7 @@ import type {
   CreatePriceRequest,
   PriceResponse,
   ReportParams,
+  FeedEvents,
   ApiError,
 } from "./types"
 
@@ -162,3 +163,18 @@ export async function generateReport(params: ReportParams): Promise<Response> {
   }
   return response
 }
+
+// ─── Event Feed ───────────────────────────────────────────────────
+
+// EventSource сам переподключается и передаёт Last-Event-ID, сервер досылает пропущенное
+export function subscribeToEvents(handlers: {
+  [E in keyof FeedEvents]?: (data: FeedEvents[E]) => void
+}): () => void {
+  const source = new EventSource(`${BASE_URL}/api/v1/events`)
+  for (const [name, handler] of Object.entries(handlers)) {
+    source.addEventListener(name, (event) =>
+      handler(JSON.parse((event as MessageEvent).data))
+    )
+  }
+  return () => source.close()
+}
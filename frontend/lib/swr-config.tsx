@@ -1,9 +1,37 @@
 "use client"
 
-import { SWRConfig } from "swr"
-import type { ReactNode } from "react"
+import { SWRConfig, mutate } from "swr"
+import { useEffect, type ReactNode } from "react"
+import { subscribeToEvents } from "@/lib/api"
+
+function revalidate(prefix: string) {
+  return mutate((key) => typeof key === "string" && key.startsWith(prefix))
+}
+
+// Списки обновляются по событиям сервера, а не по таймеру
+function useEventFeed() {
+  useEffect(
+    () =>
+      subscribeToEvents({
+        "delivery-created": () => revalidate("deliveries"),
+        "deliveries-imported": () => revalidate("deliveries"),
+        "delivery-status-changed": ({ deliveryIds }) => {
+          revalidate("deliveries")
+          deliveryIds.forEach((id) => mutate(`delivery-${id}`))
+        },
+        "price-changed": ({ supplierId }) => {
+          mutate(`prices-${supplierId}`)
+          revalidate(`prices-${supplierId}-`)
+        },
+        reset: () => mutate(() => true),
+      }),
+    []
+  )
+}
 
 export function SWRProvider({ children }: { children: ReactNode }) {
+  useEventFeed()
+
   return (
     <SWRConfig
       value={{
@@ -31,6 +31,7 @@ export interface DeliveryResponse {
   status: string
   createdAt: string
   items: DeliveryItemResponse[]
+  itemCount: number
   totalWeight: number
   totalCost: number
 }
@@ -43,6 +44,7 @@ export interface DeliveryListItem {
   deliveryDate: string
   status: string
   createdAt: string
+  itemCount: number
   totalWeight: number
   totalCost: number
 }
@@ -110,6 +112,17 @@ export interface ReportParams {
   format: ReportFormat
 }
 
+// ─── Event Feed Types ─────────────────────────────────────────────
+
+export interface FeedEvents {
+  "delivery-created": { deliveryId: number; supplierId: number }
+  "delivery-status-changed": { deliveryIds: number[]; status: string }
+  "deliveries-imported": { createdDeliveries: number }
+  "price-changed": { supplierId: number; productId: number }
+  // Пропущенные события больше не хранятся: данные нужно перезагрузить целиком
+  reset: Record<string, never>
+}
+
 // ─── API Error ────────────────────────────────────────────────────
 
 export interface ApiError {